@@ -0,0 +1,82 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.benchmarks;
+
+import nz.h4t.border.BorderPolicy;
+import nz.h4t.border.CharClass;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * checkCharClass against checkPattern with the equivalent regex, and the 8
+ * bytes at a time scan used by the bulk validators against the char at a
+ * time scan used for Strings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CharClassBenchmark {
+    @Param({"8", "64"})
+    public int length;
+
+    private BorderPolicy policy;
+    private String value;
+    private ByteBuffer bytes;
+
+    @Setup
+    public void setup() {
+        policy = BorderPolicy.builder().build();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append("ABCXYZ0129".charAt(i % 10));
+        }
+        value = sb.toString();
+        bytes = ByteBuffer.wrap(value.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    @Benchmark
+    public void pattern() {
+        policy.checkPattern("Invalid", value, "^[A-Z0-9]+$");
+    }
+
+    @Benchmark
+    public void charClass() {
+        policy.checkCharClass("Invalid", value, CharClass.ALPHANUMERIC);
+    }
+
+    @Benchmark
+    public boolean charClassBytes() {
+        return CharClass.ALPHANUMERIC.matches(bytes, 0, length);
+    }
+}
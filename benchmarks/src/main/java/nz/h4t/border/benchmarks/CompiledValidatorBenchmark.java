@@ -0,0 +1,118 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.benchmarks;
+
+import nz.h4t.border.Border;
+import nz.h4t.border.CharClass;
+import nz.h4t.border.Validator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Four validators built from eight different rules, run one after another
+ * so that the rule call site of the interpreted loop sees all eight, with
+ * the rules in a loop and in generated classes. generate measures building
+ * a validator and generating its class on the first call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompiledValidatorBenchmark {
+    private static final IntPredicate POSITIVE = i -> i > 0;
+    private static final Predicate<String> NO_TABS = s -> s.indexOf('\t') < 0;
+
+    @SuppressWarnings("unchecked")
+    private static final Consumer<String>[] RULES = (Consumer<String>[]) new Consumer<?>[]{
+            (Consumer<String>) s -> Border.checkNotEmpty("Empty", s),
+            (Consumer<String>) s -> Border.checkTooLong("Too long", s, 64),
+            (Consumer<String>) s -> Border.checkTooShort("Too short", s, 2),
+            (Consumer<String>) s -> Border.checkCharClass("Not printable", s, CharClass.PRINTABLE),
+            (Consumer<String>) s -> Border.checkNotNull("Null", s),
+            (Consumer<String>) s -> Border.checkIntThat("No length", s.length(), POSITIVE),
+            (Consumer<String>) s -> Border.checkThat("Has tabs", s, NO_TABS),
+            (Consumer<String>) s -> Border.checkIsFalse("Blank", s.isBlank())
+    };
+
+    private final String input = "joe.bloggs@example.co.nz";
+    private Validator<String>[] looped;
+    private Validator<String>[] generated;
+
+    @Setup
+    public void setup() {
+        looped = validators(0);
+        generated = validators(1);
+    }
+
+    @Benchmark
+    public void loop() {
+        for (Validator<String> validator : looped) {
+            validator.validate(input);
+        }
+    }
+
+    @Benchmark
+    public void compiled() {
+        for (Validator<String> validator : generated) {
+            validator.validate(input);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 50)
+    @Measurement(iterations = 200)
+    public void generate() {
+        validator(0, 1).validate(input);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Validator<String>[] validators(int compileThreshold) {
+        Validator<String>[] validators = (Validator<String>[]) new Validator<?>[4];
+        for (int v = 0; v < validators.length; v++) {
+            validators[v] = validator(v, compileThreshold);
+        }
+        return validators;
+    }
+
+    private static Validator<String> validator(int v, int compileThreshold) {
+        Validator.Builder<String> builder = Validator.<String>builder().compileThreshold(compileThreshold);
+        for (int r = 0; r < 4; r++) {
+            int rule = (v * 3 + r) % RULES.length;
+            builder.rule("rule" + rule, RULES[rule]);
+        }
+        return builder.build();
+    }
+}
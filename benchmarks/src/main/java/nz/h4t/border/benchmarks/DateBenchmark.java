@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.benchmarks;
+
+import nz.h4t.border.BorderPolicy;
+import nz.h4t.border.exceptions.BorderException;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The date string checks against parsing with LocalDate.parse and a
+ * formatter created per call, then checking the range, for valid dates and
+ * for text that is not a date.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DateBenchmark {
+    private final BorderPolicy policy = BorderPolicy.builder()
+            .exceptionMode(BorderPolicy.ExceptionMode.NO_STACK_TRACE)
+            .referenceStrategy(BorderPolicy.ReferenceStrategy.NONE)
+            .build();
+    private final LocalDate from = LocalDate.of(2000, 1, 1);
+    private final LocalDate to = LocalDate.of(2030, 12, 31);
+    private String iso = "2018-06-15";
+    private String custom = "15/06/2018";
+    private String invalid = "2018-02-30";
+
+    @Benchmark
+    public void iso() {
+        policy.checkValidDate("Invalid", iso, from, to);
+    }
+
+    @Benchmark
+    public boolean isoParse() {
+        LocalDate date = LocalDate.parse(iso, DateTimeFormatter.ofPattern("uuuu-MM-dd"));
+        return !date.isBefore(from) && !date.isAfter(to);
+    }
+
+    @Benchmark
+    public void custom() {
+        policy.checkValidDate("Invalid", custom, "dd/MM/yyyy", from, to);
+    }
+
+    @Benchmark
+    public boolean customParse() {
+        LocalDate date = LocalDate.parse(custom, DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+        return !date.isBefore(from) && !date.isAfter(to);
+    }
+
+    @Benchmark
+    public boolean invalid() {
+        try {
+            policy.checkValidDate("Invalid", invalid, from, to);
+            return true;
+        } catch (BorderException ex) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public boolean invalidParse() {
+        try {
+            LocalDate.parse(invalid, DateTimeFormatter.ofPattern("uuuu-MM-dd"));
+            return true;
+        } catch (DateTimeParseException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.benchmarks;
+
+import nz.h4t.border.bulk.FieldChecks;
+import nz.h4t.border.bulk.FixedWidthLayout;
+import nz.h4t.border.bulk.FixedWidthValidator;
+import nz.h4t.border.bulk.ValidationReport;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of FixedWidthValidator over a generated settlement file. The
+ * "megabytes" secondary result is the validation rate in MB/s.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FixedWidthBenchmark {
+    private static final FixedWidthLayout LAYOUT = FixedWidthLayout.builder()
+            .field("account", 0, 10, FieldChecks.pattern("[0-9]{10}"))
+            .field("type", 10, 2, FieldChecks.notEmpty(), FieldChecks.possibleValues("CR", "DR"))
+            .field("amount", 12, 12, FieldChecks.pattern("[0-9]+\\.[0-9]{2}"))
+            .field("payee", 24, 30, FieldChecks.notEmpty(), FieldChecks.tooLong(30))
+            .field("email", 54, 40, FieldChecks.validEmail())
+            .build();
+
+    @Param({"256"})
+    public int sizeMb;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private Path file;
+    private FixedWidthValidator validator;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Rate {
+        public double megabytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = Files.createTempFile("settlement", ".txt");
+        long target = sizeMb * 1024L * 1024L;
+        long written = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.ISO_8859_1)) {
+            for (long i = 0; written < target; i++) {
+                String line = String.format("%010d%s%12s%-30s%-40s%n", i, i % 2 == 0 ? "CR" : "DR",
+                        (i % 100000) + ".00", "Payee " + i, "payee" + (i % 1000) + "@example.co.nz");
+                out.write(line);
+                written += line.length();
+            }
+        }
+        validator = new FixedWidthValidator(LAYOUT);
+        validator.setParallelism(parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public ValidationReport validate(Rate rate) throws IOException {
+        ValidationReport report = validator.validate(file);
+        rate.megabytes += report.getByteCount() / (1024.0 * 1024.0);
+        return report;
+    }
+}
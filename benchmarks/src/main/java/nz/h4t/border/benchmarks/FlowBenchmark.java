@@ -0,0 +1,185 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.benchmarks;
+
+import nz.h4t.border.Border;
+import nz.h4t.border.BorderPolicy;
+import nz.h4t.border.exceptions.BorderException;
+import nz.h4t.border.flow.ValidatingProcessor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Validating a stream of 10,000 items, one in twenty invalid, through a
+ * ValidatingProcessor and through a subscriber that wraps each onNext in
+ * try/catch. The final subscriber requests `demand` items at a time, and
+ * the publisher emits on the requesting thread, so the score is the cost
+ * per item of validation plus the Flow signalling.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+@OperationsPerInvocation(FlowBenchmark.ITEMS)
+public class FlowBenchmark {
+    static final int ITEMS = 10_000;
+
+    @Param({"1", "256"})
+    public int demand;
+
+    private String[] items;
+    private final Consumer<String> validator = str -> Border.checkTooLong("Too long", str, 8);
+
+    @Setup
+    public void setup() {
+        Border.setPolicy(BorderPolicy.builder()
+                .exceptionMode(BorderPolicy.ExceptionMode.NO_STACK_TRACE)
+                .referenceStrategy(BorderPolicy.ReferenceStrategy.NONE)
+                .build());
+        items = new String[ITEMS];
+        for (int i = 0; i < ITEMS; i++) {
+            items[i] = i % 20 == 0 ? "invalid-" + i : "ok-" + i;
+        }
+    }
+
+    @Benchmark
+    public void processor(Blackhole bh) {
+        ValidatingProcessor<String> processor = new ValidatingProcessor<>(validator, (item, ex) -> bh.consume(ex));
+        new ArrayPublisher(items).subscribe(processor);
+        processor.subscribe(new Sink(demand, bh, null, null));
+    }
+
+    @Benchmark
+    public void tryCatch(Blackhole bh) {
+        new ArrayPublisher(items).subscribe(new Sink(demand, bh, validator, (item, ex) -> bh.consume(ex)));
+    }
+
+    /**
+     * Requests demand items at a time, optionally validating each in a try/catch
+     */
+    private static final class Sink implements Flow.Subscriber<String> {
+        private final int demand;
+        private final Blackhole bh;
+        private final Consumer<String> validator;
+        private final BiConsumer<String, BorderException> rejected;
+        private Flow.Subscription subscription;
+        private int remaining;
+
+        Sink(int demand, Blackhole bh, Consumer<String> validator, BiConsumer<String, BorderException> rejected) {
+            this.demand = demand;
+            this.bh = bh;
+            this.validator = validator;
+            this.rejected = rejected;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            remaining = demand;
+            subscription.request(demand);
+        }
+
+        @Override
+        public void onNext(String item) {
+            if (validator != null) {
+                try {
+                    validator.accept(item);
+                    bh.consume(item);
+                } catch (BorderException ex) {
+                    rejected.accept(item, ex);
+                }
+            } else {
+                bh.consume(item);
+            }
+            if (--remaining == 0) {
+                remaining = demand;
+                subscription.request(demand);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    /**
+     * Emits an array on the requesting thread
+     */
+    private static final class ArrayPublisher implements Flow.Publisher<String> {
+        private final String[] items;
+
+        ArrayPublisher(String[] items) {
+            this.items = items;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super String> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                private int next;
+                private long requested;
+                private boolean emitting;
+                private boolean cancelled;
+
+                @Override
+                public void request(long n) {
+                    requested += n;
+                    if (emitting) {
+                        return;
+                    }
+                    emitting = true;
+                    while (requested > 0 && next < items.length && !cancelled) {
+                        requested--;
+                        subscriber.onNext(items[next++]);
+                    }
+                    emitting = false;
+                    if (next == items.length && !cancelled) {
+                        cancelled = true;
+                        subscriber.onComplete();
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.benchmarks;
+
+import nz.h4t.border.BorderPolicy;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * The single pass identifier checks against the usual approach of a regex
+ * for the format followed by a checksum over substrings and BigIntegers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdentifierBenchmark {
+    private static final Pattern UUID = Pattern.compile("^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$");
+    private static final Pattern CARD = Pattern.compile("^[0-9]{12,19}$");
+    private static final Pattern IBAN = Pattern.compile("^[A-Z]{2}[0-9]{2}[A-Z0-9]{11,30}$");
+    private static final Pattern ISBN = Pattern.compile("^(?:[0-9]{9}[0-9X]|97[89][0-9]{10})$");
+    private static final BigInteger NINETY_SEVEN = BigInteger.valueOf(97);
+
+    private final BorderPolicy policy = BorderPolicy.builder().build();
+    private String uuid = "123e4567-e89b-12d3-a456-426614174000";
+    private String card = "4111111111111111";
+    private String iban = "GB82 WEST 1234 5698 7654 32";
+    private String isbn = "978-0-306-40615-7";
+
+    @Benchmark
+    public void uuid() {
+        policy.checkUuid("Invalid", uuid);
+    }
+
+    @Benchmark
+    public boolean uuidRegex() {
+        return UUID.matcher(uuid).matches();
+    }
+
+    @Benchmark
+    public void card() {
+        policy.checkCardNumber("Invalid", card);
+    }
+
+    @Benchmark
+    public boolean cardRegex() {
+        if (!CARD.matcher(card).matches()) {
+            return false;
+        }
+        String reversed = new StringBuilder(card).reverse().toString();
+        int sum = 0;
+        for (int i = 0; i < reversed.length(); i++) {
+            int digit = Integer.parseInt(reversed.substring(i, i + 1));
+            if (i % 2 == 1) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+        }
+        return sum % 10 == 0;
+    }
+
+    @Benchmark
+    public void iban() {
+        policy.checkIban("Invalid", iban);
+    }
+
+    @Benchmark
+    public boolean ibanRegex() {
+        String compact = iban.replace(" ", "");
+        if (!IBAN.matcher(compact).matches()) {
+            return false;
+        }
+        String rearranged = compact.substring(4) + compact.substring(0, 4);
+        StringBuilder numeric = new StringBuilder();
+        for (int i = 0; i < rearranged.length(); i++) {
+            numeric.append(Character.getNumericValue(rearranged.charAt(i)));
+        }
+        return new BigInteger(numeric.toString()).mod(NINETY_SEVEN).intValue() == 1;
+    }
+
+    @Benchmark
+    public void isbn() {
+        policy.checkIsbn("Invalid", isbn);
+    }
+
+    @Benchmark
+    public boolean isbnRegex() {
+        String compact = isbn.replaceAll("[- ]", "");
+        if (!ISBN.matcher(compact).matches()) {
+            return false;
+        }
+        int sum = 0;
+        if (compact.length() == 10) {
+            for (int i = 0; i < 10; i++) {
+                char c = compact.charAt(i);
+                sum += (10 - i) * (c == 'X' ? 10 : c - '0');
+            }
+            return sum % 11 == 0;
+        }
+        for (int i = 0; i < 13; i++) {
+            sum += (i % 2 == 0 ? 1 : 3) * (compact.charAt(i) - '0');
+        }
+        return sum % 10 == 0;
+    }
+}
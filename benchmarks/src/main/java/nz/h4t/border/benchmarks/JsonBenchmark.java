@@ -0,0 +1,93 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.benchmarks;
+
+import nz.h4t.border.bulk.FieldChecks;
+import nz.h4t.border.bulk.JsonLayout;
+import nz.h4t.border.bulk.JsonValidator;
+import nz.h4t.border.bulk.ValidationReport;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of JsonValidator over a generated order document held in
+ * memory, checking a few fields of each item. The "megabytes" secondary
+ * result is the validation rate in MB/s.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+    private static final JsonLayout LAYOUT = JsonLayout.builder()
+            .field("$.customer.email", FieldChecks.validEmail())
+            .field("$.items[*].sku", FieldChecks.notNull(), FieldChecks.tooLong(12))
+            .field("$.items[*].quantity", FieldChecks.pattern("[1-9][0-9]*"))
+            .build();
+
+    @Param({"32"})
+    public int sizeMb;
+
+    private byte[] json;
+    private JsonValidator validator;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Rate {
+        public double megabytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        long target = sizeMb * 1024L * 1024L;
+        StringBuilder sb = new StringBuilder("{\"customer\": {\"name\": \"Joe Bloggs\", \"email\": \"joe@example.co.nz\"},\n"
+                + " \"items\": [");
+        for (long i = 0; sb.length() < target; i++) {
+            sb.append(i == 0 ? "\n" : ",\n").append("  {\"sku\": \"SKU-").append(i % 100_000)
+                    .append("\", \"quantity\": ").append(i % 20 + 1)
+                    .append(", \"price\": ").append(i % 1000).append(".95")
+                    .append(", \"description\": \"Item number ").append(i).append(", \\\"boxed\\\"\"")
+                    .append(", \"tags\": [\"new\", \"sale\"]}");
+        }
+        json = sb.append("\n]}\n").toString().getBytes(StandardCharsets.UTF_8);
+        validator = new JsonValidator(LAYOUT);
+    }
+
+    @Benchmark
+    public ValidationReport validate(Rate rate) throws IOException {
+        ValidationReport report = validator.validate(new ByteArrayInputStream(json));
+        rate.megabytes += report.getByteCount() / (1024.0 * 1024.0);
+        return report;
+    }
+}
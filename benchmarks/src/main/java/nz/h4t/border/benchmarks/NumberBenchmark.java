@@ -0,0 +1,105 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.benchmarks;
+
+import nz.h4t.border.BorderPolicy;
+import nz.h4t.border.exceptions.BorderException;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The numeric string checks against parsing inside a try/catch, for valid
+ * numbers and for text that is not a number.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NumberBenchmark {
+    private final BorderPolicy policy = BorderPolicy.builder()
+            .exceptionMode(BorderPolicy.ExceptionMode.NO_STACK_TRACE)
+            .referenceStrategy(BorderPolicy.ReferenceStrategy.NONE)
+            .build();
+    private String number = "1234567890";
+    private String decimal = "-12345.67";
+    private String invalid = "12345x";
+
+    @Benchmark
+    public void parsesAsLong() {
+        policy.checkParsesAsLong("Invalid", number, 0, 10_000_000_000L);
+    }
+
+    @Benchmark
+    public boolean parseLong() {
+        try {
+            long value = Long.parseLong(number);
+            return value >= 0 && value <= 10_000_000_000L;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public void decimal() {
+        policy.checkDecimal("Invalid", decimal, 10, 2);
+    }
+
+    @Benchmark
+    public boolean bigDecimal() {
+        try {
+            BigDecimal value = new BigDecimal(decimal);
+            return value.precision() - value.scale() <= 8 && value.scale() <= 2;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public boolean invalid() {
+        try {
+            policy.checkParsesAsLong("Invalid", invalid);
+            return true;
+        } catch (BorderException ex) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public boolean invalidParseLong() {
+        try {
+            Long.parseLong(invalid);
+            return true;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.benchmarks;
+
+import nz.h4t.border.BorderPolicy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * checkValidEmail and checkPattern with and without the BorderPolicy result
+ * cache, over inputs drawn from a Zipf distribution so that a few domains
+ * and codes account for most of the traffic, as in a bulk import.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResultCacheBenchmark {
+    private static final int SAMPLES = 1 << 16;
+    private static final String CODE_PATTERN = "^[A-Z]{3}-[0-9]{4}$";
+
+    @Param({"4096"})
+    public int cacheSize;
+
+    private BorderPolicy uncached;
+    private BorderPolicy cached;
+    private String[] emails;
+    private String[] codes;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int next() {
+            return next++ & (SAMPLES - 1);
+        }
+    }
+
+    @Setup
+    public void setup() {
+        uncached = BorderPolicy.builder().build();
+        cached = BorderPolicy.builder().resultCacheSize(cacheSize).build();
+        Random random = new Random(42);
+        double[] domainWeights = zipf(2000, 1.1);
+        double[] codeWeights = zipf(10000, 1.0);
+        emails = new String[SAMPLES];
+        codes = new String[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            int domain = sample(domainWeights, random);
+            emails[i] = "user" + random.nextInt(100000) + "@mail" + domain + ".example.co.nz";
+            int code = sample(codeWeights, random);
+            codes[i] = (char) ('A' + code % 26) + "BC-" + String.format("%04d", code % 10000);
+        }
+    }
+
+    @Benchmark
+    public void emailUncached(Cursor cursor) {
+        uncached.checkValidEmail("Invalid email", emails[cursor.next()]);
+    }
+
+    @Benchmark
+    public void emailCached(Cursor cursor) {
+        cached.checkValidEmail("Invalid email", emails[cursor.next()]);
+    }
+
+    @Benchmark
+    public void patternUncached(Cursor cursor) {
+        uncached.checkPattern("Invalid code", codes[cursor.next()], CODE_PATTERN);
+    }
+
+    @Benchmark
+    public void patternCached(Cursor cursor) {
+        cached.checkPattern("Invalid code", codes[cursor.next()], CODE_PATTERN);
+    }
+
+    private static double[] zipf(int n, double s) {
+        double[] cumulative = new double[n];
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            total += 1.0 / Math.pow(i + 1, s);
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    private static int sample(double[] cumulative, Random random) {
+        double r = random.nextDouble();
+        int lo = 0;
+        int hi = cumulative.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cumulative[mid] < r) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.benchmarks;
+
+import nz.h4t.border.Border;
+import nz.h4t.border.exceptions.BorderException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to the first check and to the first failure in a fresh JVM, which is
+ * what a short lived process such as a serverless function pays on every
+ * cold start. Each fork runs a single call, so the score is the cost of
+ * loading and initialising Border on top of the check itself.
+ * <p>
+ * Run with -jvmArgsAppend -XX:SharedArchiveFile=border.jsa to measure the
+ * same with an AppCDS archive, as described in the ReadMe.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+    private final String value = "value";
+    private final String email = "joe@abc.com";
+
+    @Benchmark
+    public void firstCheck() {
+        Border.checkNotNull("Test", value);
+    }
+
+    @Benchmark
+    public void firstEmailCheck() {
+        Border.checkValidEmail("Test", email);
+    }
+
+    @Benchmark
+    public BorderException firstFailure() {
+        try {
+            Border.checkIsNull("Test", value);
+            return null;
+        } catch (BorderException ex) {
+            return ex;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.benchmarks;
+
+import nz.h4t.border.index.StringIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups in a StringIndex against a HashSet of the same values, for values
+ * that are present and values that are not, and the time to build an index
+ * and to open one that was written to a file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class StringIndexBenchmark {
+    private static final int SAMPLES = 1 << 16;
+
+    @Param({"1000000"})
+    public int size;
+
+    private List<String> values;
+    private Set<String> set;
+    private StringIndex index;
+    private Path file;
+    private String[] present;
+    private String[] absent;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int next() {
+            return next++ & (SAMPLES - 1);
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add("ACCT-" + (i * 7919L % 100000000));
+        }
+        set = new HashSet<>(values);
+        index = StringIndex.build(values);
+        file = Files.createTempFile("border", ".idx");
+        index.writeTo(file);
+        Random random = new Random(42);
+        present = new String[SAMPLES];
+        absent = new String[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            present[i] = values.get(random.nextInt(size));
+            absent[i] = "ACCT-X" + random.nextInt(size);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public boolean indexPresent(Cursor cursor) {
+        return index.contains(present[cursor.next()]);
+    }
+
+    @Benchmark
+    public boolean indexAbsent(Cursor cursor) {
+        return index.contains(absent[cursor.next()]);
+    }
+
+    @Benchmark
+    public boolean hashSetPresent(Cursor cursor) {
+        return set.contains(present[cursor.next()]);
+    }
+
+    @Benchmark
+    public boolean hashSetAbsent(Cursor cursor) {
+        return set.contains(absent[cursor.next()]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5)
+    public StringIndex build() {
+        return StringIndex.build(values);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5)
+    public StringIndex open() throws IOException {
+        return StringIndex.open(file);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.benchmarks;
+
+import nz.h4t.border.Border;
+import nz.h4t.border.BorderPolicy;
+import nz.h4t.border.Validator;
+import nz.h4t.border.exceptions.BorderException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A validator whose expensive email and pattern rules are added before a
+ * cheap length rule that rejects a third of the input, in the order added
+ * and in adaptive order. Failures are made cheap, as they would be when
+ * validating input, so that the cost of the rules shows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidatorBenchmark {
+    private static final String[] INPUTS = {
+            "joe.bloggs@example.co.nz",
+            "mary.smith@example.com",
+            "a.very.long.address.that.is.not.allowed@example.co.nz"
+    };
+
+    private Validator<String> declared;
+    private Validator<String> adaptive;
+    private Validator<String> adaptiveOrderDependent;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        String next() {
+            return INPUTS[next++ % INPUTS.length];
+        }
+    }
+
+    @Setup
+    public void setup() {
+        Border.setPolicy(BorderPolicy.builder()
+                .exceptionMode(BorderPolicy.ExceptionMode.NO_STACK_TRACE)
+                .referenceStrategy(BorderPolicy.ReferenceStrategy.NONE)
+                .build());
+        declared = validator(false, true);
+        adaptive = validator(true, true);
+        adaptiveOrderDependent = validator(true, false);
+    }
+
+    @Benchmark
+    public boolean declaredOrder(Cursor cursor) {
+        return validate(declared, cursor.next());
+    }
+
+    @Benchmark
+    public boolean adaptiveOrder(Cursor cursor) {
+        return validate(adaptive, cursor.next());
+    }
+
+    @Benchmark
+    public boolean adaptiveOrderDependent(Cursor cursor) {
+        return validate(adaptiveOrderDependent, cursor.next());
+    }
+
+    private static Validator<String> validator(boolean adaptive, boolean deterministic) {
+        return Validator.<String>builder()
+                .rule("email", str -> Border.checkValidEmail("Invalid email", str))
+                .rule("domain", str -> Border.checkPattern("Unknown domain", str, ".*@example[.](com|co[.]nz)$"))
+                .rule("length", str -> Border.checkTooLong("Too long", str, 40))
+                .adaptive(adaptive)
+                .deterministic(deterministic)
+                .build();
+    }
+
+    private static boolean validate(Validator<String> validator, String input) {
+        try {
+            validator.validate(input);
+            return true;
+        } catch (BorderException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.loadtest;
+
+import nz.h4t.border.Border;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * The kinds of field a request is made of, each with the Border check a
+ * request handler would make on it and generators of valid and invalid
+ * values. Valid values vary in length and content, so that the checks do
+ * not see the same input on every call.
+ */
+public enum FieldKind {
+    NOT_NULL {
+        @Override
+        void check(String value) {
+            Border.checkNotNull("Required", value);
+        }
+
+        @Override
+        String valid(Random random) {
+            return word(random, 1 + random.nextInt(20));
+        }
+
+        @Override
+        String invalid(Random random) {
+            return null;
+        }
+    },
+    NOT_EMPTY {
+        @Override
+        void check(String value) {
+            Border.checkNotNullOrEmpty("Required", value);
+        }
+
+        @Override
+        String valid(Random random) {
+            return word(random, 1 + random.nextInt(20));
+        }
+
+        @Override
+        String invalid(Random random) {
+            return "";
+        }
+    },
+    TOO_LONG {
+        @Override
+        void check(String value) {
+            Border.checkTooLong("Too long", value, 40);
+        }
+
+        @Override
+        String valid(Random random) {
+            return word(random, 1 + random.nextInt(40));
+        }
+
+        @Override
+        String invalid(Random random) {
+            return word(random, 41 + random.nextInt(40));
+        }
+    },
+    POSSIBLE_VALUES {
+        @Override
+        void check(String value) {
+            Border.checkPossibleValues("Unknown status", value, STATUSES);
+        }
+
+        @Override
+        String valid(Random random) {
+            return (String) STATUSES[random.nextInt(STATUSES.length)];
+        }
+
+        @Override
+        String invalid(Random random) {
+            return "UNKNOWN";
+        }
+    },
+    IN_COLLECTION {
+        @Override
+        void check(String value) {
+            Border.checkInCollection("Unknown code", value, CODES);
+        }
+
+        @Override
+        String valid(Random random) {
+            return "C" + random.nextInt(CODE_COUNT);
+        }
+
+        @Override
+        String invalid(Random random) {
+            return "X" + random.nextInt(CODE_COUNT);
+        }
+    },
+    INT {
+        @Override
+        void check(String value) {
+            Border.checkParsesAsInt("Invalid quantity", value, 1, 1000);
+        }
+
+        @Override
+        String valid(Random random) {
+            return Integer.toString(1 + random.nextInt(1000));
+        }
+
+        @Override
+        String invalid(Random random) {
+            return random.nextBoolean() ? "0" : "1x";
+        }
+    },
+    DECIMAL {
+        @Override
+        void check(String value) {
+            Border.checkDecimal("Invalid amount", value, 12, 2);
+        }
+
+        @Override
+        String valid(Random random) {
+            return random.nextInt(100_000) + "." + random.nextInt(10) + random.nextInt(10);
+        }
+
+        @Override
+        String invalid(Random random) {
+            return random.nextInt(100_000) + ".125";
+        }
+    },
+    DATE {
+        @Override
+        void check(String value) {
+            Border.checkValidDate("Invalid date", value, FROM, TO);
+        }
+
+        @Override
+        String valid(Random random) {
+            return FROM.plusDays(random.nextInt(3650)).toString();
+        }
+
+        @Override
+        String invalid(Random random) {
+            return "2019-02-" + (29 + random.nextInt(2));
+        }
+    },
+    PATTERN {
+        @Override
+        void check(String value) {
+            Border.checkPattern("Invalid reference", value, "[A-Z]{3}-[0-9]{4,8}");
+        }
+
+        @Override
+        String valid(Random random) {
+            return word(random, 3).toUpperCase() + "-" + (1000 + random.nextInt(9_000_000));
+        }
+
+        @Override
+        String invalid(Random random) {
+            return word(random, 3) + "-12";
+        }
+    },
+    EMAIL {
+        @Override
+        void check(String value) {
+            Border.checkValidEmail("Invalid email", value);
+        }
+
+        @Override
+        String valid(Random random) {
+            return word(random, 3 + random.nextInt(10)) + "@" + word(random, 3 + random.nextInt(8)) + ".co.nz";
+        }
+
+        @Override
+        String invalid(Random random) {
+            return word(random, 3 + random.nextInt(10)) + "@";
+        }
+    },
+    UUID {
+        @Override
+        void check(String value) {
+            Border.checkUuid("Invalid id", value);
+        }
+
+        @Override
+        String valid(Random random) {
+            return new java.util.UUID(random.nextLong(), random.nextLong()).toString();
+        }
+
+        @Override
+        String invalid(Random random) {
+            return valid(random).substring(1);
+        }
+    },
+    CARD_NUMBER {
+        @Override
+        void check(String value) {
+            Border.checkCardNumber("Invalid card", value);
+        }
+
+        @Override
+        String valid(Random random) {
+            return CARDS[random.nextInt(CARDS.length)];
+        }
+
+        @Override
+        String invalid(Random random) {
+            return "4111111111111112";
+        }
+    };
+
+    private static final Object[] STATUSES = {"ACTIVE", "SUSPENDED", "CLOSED", "PENDING"};
+    private static final int CODE_COUNT = 1000;
+    private static final Set<String> CODES = new HashSet<>();
+    private static final LocalDate FROM = LocalDate.of(2015, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2025, 12, 31);
+    private static final String[] CARDS = {"4111111111111111", "5500005555555559", "378282246310005", "6011111111111117"};
+
+    static {
+        for (int i = 0; i < CODE_COUNT; i++) {
+            CODES.add("C" + i);
+        }
+    }
+
+    /**
+     * Makes the check, throwing a BorderException if the value is invalid
+     */
+    abstract void check(String value);
+
+    abstract String valid(Random random);
+
+    abstract String invalid(Random random);
+
+    private static String word(Random random, int len) {
+        char[] chars = new char[len];
+        for (int i = 0; i < len; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+}
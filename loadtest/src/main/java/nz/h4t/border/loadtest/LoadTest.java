@@ -0,0 +1,192 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.loadtest;
+
+import nz.h4t.border.Border;
+import nz.h4t.border.diagnostics.LatencyHistogram;
+import nz.h4t.border.diagnostics.LatencySnapshot;
+import nz.h4t.border.exceptions.BorderException;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays a validation workload against Border from many threads and
+ * reports the throughput, request latency, allocation rate and GC pauses.
+ * <p>
+ * Each worker checks the fields of one request after another as fast as it
+ * can, stopping at the first invalid field as a request handler would, so
+ * the load is closed loop: throughput is what the threads reach, and the
+ * latency is the time to validate a request, not including any queueing.
+ * Latencies are recorded in LatencyHistograms, one per stripe of workers
+ * so they do not contend on one set of counters, and merged at the end.
+ */
+public final class LoadTest {
+    private final Workload workload;
+    private final Workload.Request[] requests;
+    private final LatencyHistogram[] histograms;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile boolean running = true;
+
+    private LoadTest(Workload workload) {
+        this.workload = workload;
+        this.requests = workload.generate();
+        this.histograms = new LatencyHistogram[Math.min(workload.threads,
+                4 * Runtime.getRuntime().availableProcessors())];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (Arrays.asList(args).contains("--help")) {
+            System.out.println(Workload.USAGE);
+            return;
+        }
+        Workload workload;
+        try {
+            workload = Workload.parse(args);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(Workload.USAGE);
+            System.exit(1);
+            return;
+        }
+        Border.setPolicy(workload.policy());
+        new LoadTest(workload).run();
+    }
+
+    private void run() throws InterruptedException {
+        System.out.println(workload);
+        Thread[] workers = new Thread[workload.threads];
+        for (int i = 0; i < workers.length; i++) {
+            int worker = i;
+            Runnable task = () -> work(worker);
+            workers[i] = workload.virtual ? Thread.ofVirtual().start(task) : Thread.ofPlatform().start(task);
+        }
+        try (GcMonitor gc = new GcMonitor()) {
+            Thread.sleep(workload.warmup.toMillis());
+            for (LatencyHistogram histogram : histograms) {
+                histogram.reset();
+            }
+            completed.reset();
+            checks.reset();
+            failures.reset();
+            gc.reset();
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+
+            Thread.sleep(workload.duration.toMillis());
+
+            long elapsed = System.nanoTime() - start;
+            long allocated = allocatedBytes() - allocatedBefore;
+            long requestCount = completed.sum();
+            long checkCount = checks.sum();
+            long failureCount = failures.sum();
+            long collections = gc.getCollections();
+            long pauseMillis = gc.getPauseMillis();
+            long maxPauseMillis = gc.getMaxPauseMillis();
+            running = false;
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            report(elapsed, requestCount, checkCount, failureCount, allocatedBefore < 0 ? -1 : allocated,
+                    collections, pauseMillis, maxPauseMillis);
+        }
+    }
+
+    private void work(int worker) {
+        LatencyHistogram histogram = histograms[worker % histograms.length];
+        int next = (int) ((long) worker * requests.length / workload.threads);
+        while (running) {
+            Workload.Request request = requests[next];
+            next = next + 1 == requests.length ? 0 : next + 1;
+            FieldKind[] kinds = request.kinds;
+            String[] values = request.values;
+            int checked = 0;
+            long start = System.nanoTime();
+            try {
+                for (; checked < kinds.length; checked++) {
+                    kinds[checked].check(values[checked]);
+                }
+            } catch (BorderException ex) {
+                checked++;
+                failures.increment();
+            }
+            histogram.record(System.nanoTime() - start);
+            checks.add(checked);
+            completed.increment();
+        }
+    }
+
+    private void report(long elapsed, long requestCount, long checkCount, long failureCount, long allocated,
+                        long collections, long pauseMillis, long maxPauseMillis) {
+        LatencySnapshot latency = histograms[0].snapshot();
+        for (int i = 1; i < histograms.length; i++) {
+            latency = latency.merge(histograms[i].snapshot());
+        }
+        double seconds = elapsed / 1e9;
+        System.out.printf("Throughput: %,.0f requests/s, %,.0f checks/s%n",
+                requestCount / seconds, checkCount / seconds);
+        System.out.printf("Failures:   %,d (%.2f%%)%n",
+                failureCount, requestCount == 0 ? 0.0 : 100.0 * failureCount / requestCount);
+        System.out.printf("Latency:    mean %s, p50 %s, p99 %s, p99.9 %s, max %s%n",
+                micros(Math.round(latency.getMean())), micros(latency.getValueAtPercentile(50)),
+                micros(latency.getValueAtPercentile(99)), micros(latency.getValueAtPercentile(99.9)),
+                micros(latency.getMax()));
+        if (allocated < 0) {
+            System.out.println("Allocation: not supported by this JVM");
+        } else {
+            System.out.printf("Allocation: %,.1f MB/s, %,.0f bytes/request%n",
+                    allocated / seconds / (1024 * 1024), requestCount == 0 ? 0.0 : (double) allocated / requestCount);
+        }
+        System.out.printf("GC:         %d pauses, %d ms total, %d ms max%n", collections, pauseMillis, maxPauseMillis);
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%,.1f us", nanos / 1000.0);
+    }
+
+    /**
+     * @return the bytes allocated by every thread since the JVM started, or -1 if not supported
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+            if (sunThreads.isThreadAllocatedMemorySupported() && sunThreads.isThreadAllocatedMemoryEnabled()) {
+                return sunThreads.getTotalThreadAllocatedBytes();
+            }
+        }
+        return -1;
+    }
+}
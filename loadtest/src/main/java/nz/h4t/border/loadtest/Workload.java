@@ -0,0 +1,269 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.loadtest;
+
+import nz.h4t.border.BorderPolicy;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The settings of a load test, read from --name=value arguments, and the
+ * pool of requests it replays. Each request is a list of fields drawn from
+ * the mix by weight, and a failureRate fraction of requests have one of
+ * their fields made invalid.
+ */
+final class Workload {
+    static final String USAGE = String.join("\n",
+            "java -jar target/loadtest.jar [--name=value ...]",
+            "  --threads=N             worker threads (default: number of CPUs)",
+            "  --virtual               run the workers on virtual threads",
+            "  --duration=30s          measured run time",
+            "  --warmup=10s            run time before measuring",
+            "  --fields=20             fields checked per request",
+            "  --failure-rate=0.1      fraction of requests with an invalid field",
+            "  --mix=KIND:W,...        field kinds and weights (default: all kinds, weight 1)",
+            "  --requests=10000        distinct requests generated and replayed",
+            "  --exception-mode=M      STACK_TRACE or NO_STACK_TRACE (default: policy default)",
+            "  --reference=R           CALLER or NONE (default: policy default)",
+            "  --seed=N                random seed for the requests",
+            "Field kinds: " + kinds());
+
+    int threads = Runtime.getRuntime().availableProcessors();
+    boolean virtual;
+    Duration duration = Duration.ofSeconds(30);
+    Duration warmup = Duration.ofSeconds(10);
+    int fields = 20;
+    double failureRate = 0.1;
+    Map<FieldKind, Integer> mix = new EnumMap<>(FieldKind.class);
+    int requests = 10_000;
+    BorderPolicy.ExceptionMode exceptionMode;
+    BorderPolicy.ReferenceStrategy referenceStrategy;
+    long seed = 42;
+
+    /**
+     * @param args --name=value arguments
+     * @return the workload
+     * @throws IllegalArgumentException if an argument is unknown or invalid
+     */
+    static Workload parse(String... args) {
+        Workload workload = new Workload();
+        for (FieldKind kind : FieldKind.values()) {
+            workload.mix.put(kind, 1);
+        }
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            String name = eq < 0 ? arg.substring(2) : arg.substring(2, eq);
+            String value = eq < 0 ? "" : arg.substring(eq + 1);
+            try {
+                workload.set(name, value);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid value for --" + name + ": " + value);
+            }
+        }
+        return workload;
+    }
+
+    /**
+     * Generates the requests, each an array of fields and an array of
+     * values, fields[i] being checked against values[i]
+     */
+    Request[] generate() {
+        Random random = new Random(seed);
+        FieldKind[] weighted = weighted();
+        Request[] pool = new Request[requests];
+        for (int r = 0; r < requests; r++) {
+            FieldKind[] kinds = new FieldKind[fields];
+            String[] values = new String[fields];
+            for (int f = 0; f < fields; f++) {
+                kinds[f] = weighted[random.nextInt(weighted.length)];
+                values[f] = kinds[f].valid(random);
+            }
+            if (random.nextDouble() < failureRate) {
+                int f = random.nextInt(fields);
+                values[f] = kinds[f].invalid(random);
+            }
+            pool[r] = new Request(kinds, values);
+        }
+        return pool;
+    }
+
+    /**
+     * @return the policy to run with, the default policy with any overrides
+     */
+    BorderPolicy policy() {
+        BorderPolicy.Builder builder = BorderPolicy.builder();
+        if (exceptionMode != null) {
+            builder.exceptionMode(exceptionMode);
+        }
+        if (referenceStrategy != null) {
+            builder.referenceStrategy(referenceStrategy);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("threads=%d %s duration=%ds warmup=%ds fields=%d failure-rate=%s requests=%d mix=%s",
+                threads, virtual ? "virtual" : "platform", duration.getSeconds(), warmup.getSeconds(),
+                fields, failureRate, requests, mix);
+    }
+
+    static final class Request {
+        final FieldKind[] kinds;
+        final String[] values;
+
+        Request(FieldKind[] kinds, String[] values) {
+            this.kinds = kinds;
+            this.values = values;
+        }
+    }
+
+    //
+    // Internal Methods...
+    //
+
+    private void set(String name, String value) {
+        switch (name) {
+            case "threads":
+                threads = positive(name, Integer.parseInt(value));
+                break;
+            case "virtual":
+                virtual = value.isEmpty() || Boolean.parseBoolean(value);
+                break;
+            case "duration":
+                duration = duration(name, value);
+                break;
+            case "warmup":
+                warmup = duration(name, value);
+                break;
+            case "fields":
+                fields = positive(name, Integer.parseInt(value));
+                break;
+            case "failure-rate":
+                failureRate = Double.parseDouble(value);
+                if (failureRate < 0 || failureRate > 1) {
+                    throw new IllegalArgumentException("--failure-rate must be between 0 and 1");
+                }
+                break;
+            case "mix":
+                mix = mix(value);
+                break;
+            case "requests":
+                requests = positive(name, Integer.parseInt(value));
+                break;
+            case "exception-mode":
+                exceptionMode = BorderPolicy.ExceptionMode.valueOf(value.toUpperCase());
+                break;
+            case "reference":
+                referenceStrategy = BorderPolicy.ReferenceStrategy.valueOf(value.toUpperCase());
+                break;
+            case "seed":
+                seed = Long.parseLong(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown argument: --" + name);
+        }
+    }
+
+    private FieldKind[] weighted() {
+        int total = 0;
+        for (int weight : mix.values()) {
+            total += weight;
+        }
+        FieldKind[] weighted = new FieldKind[total];
+        int n = 0;
+        for (Map.Entry<FieldKind, Integer> entry : mix.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                weighted[n++] = entry.getKey();
+            }
+        }
+        return weighted;
+    }
+
+    private static Map<FieldKind, Integer> mix(String value) {
+        Map<FieldKind, Integer> mix = new EnumMap<>(FieldKind.class);
+        for (String part : value.split(",")) {
+            int colon = part.indexOf(':');
+            String kind = (colon < 0 ? part : part.substring(0, colon)).trim().toUpperCase();
+            int weight = colon < 0 ? 1 : Integer.parseInt(part.substring(colon + 1).trim());
+            if (weight < 0 || weight > 1000) {
+                throw new IllegalArgumentException("Mix weights must be between 0 and 1000: " + part);
+            }
+            try {
+                mix.put(FieldKind.valueOf(kind), weight);
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Unknown field kind: " + kind + ", expected one of " + kinds());
+            }
+        }
+        if (mix.values().stream().allMatch(weight -> weight == 0)) {
+            throw new IllegalArgumentException("--mix must have a field kind with a weight above 0");
+        }
+        return mix;
+    }
+
+    /**
+     * Reads a duration such as 30s, 500ms, 2m or a plain number of seconds
+     */
+    private static Duration duration(String name, String value) {
+        Duration duration;
+        if (value.endsWith("ms")) {
+            duration = Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        } else if (value.endsWith("s")) {
+            duration = Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        } else if (value.endsWith("m")) {
+            duration = Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        } else {
+            duration = Duration.ofSeconds(Long.parseLong(value));
+        }
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("--" + name + " must not be negative");
+        }
+        return duration;
+    }
+
+    private static int positive(String name, int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException("--" + name + " must be at least 1");
+        }
+        return value;
+    }
+
+    private static String kinds() {
+        StringBuilder sb = new StringBuilder();
+        for (FieldKind kind : FieldKind.values()) {
+            sb.append(sb.length() == 0 ? "" : ", ").append(kind);
+        }
+        return sb.toString();
+    }
+}
@@ -27,25 +27,71 @@
 
 package nz.h4t.border;
 
-import nz.h4t.border.exceptions.*;
+import nz.h4t.border.diagnostics.FailureRecorder;
+import nz.h4t.border.exceptions.BorderException;
+import nz.h4t.border.index.StringIndex;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 /**
  * Portcullis is a Pre-condition Library that allows us to throw
  * Runtime Exceptions if certain conditions are not met.
+ * <p>
+ * The static checks use the current default BorderPolicy. Use a
+ * BorderPolicy directly for checks with a different email regex,
+ * exception mode or reference strategy.
  */
 public class Border {
-    private static final Pattern VALID_EMAIL_ADDRESS = Pattern.compile("^[A-Z0-9.!#$%&'*+/=?^_`{|}~-]+@[A-Z0-9](?:[a-zA-Z0-9-]{0,61}[A-Z0-9])?(?:\\.[A-Z0-9](?:[A-Z0-9-]{0,61}[a-zA-Z0-9])?)*$", Pattern.CASE_INSENSITIVE);
+    private static final AtomicReference<BorderPolicy> POLICY = new AtomicReference<>(BorderPolicy.builder().build());
 
-    private static Pattern emailRegex = VALID_EMAIL_ADDRESS;
+    private static volatile FailureRecorder failureRecorder;
 
+    /**
+     * Replaces the default policy with one that uses the email regex provided.
+     *
+     * @param emailRegexStr Regex that valid email addresses match
+     */
     public static void setEmailRegex(String emailRegexStr) {
-        emailRegex = Pattern.compile(emailRegexStr);
+        Pattern pattern = Pattern.compile(emailRegexStr);
+        POLICY.updateAndGet(policy -> policy.toBuilder().emailPattern(pattern).build());
+    }
+
+    public static Pattern getEmailRegex() {
+        return POLICY.get().getEmailPattern();
+    }
+
+    /**
+     * Replaces the default policy used by the static checks.
+     *
+     * @param policy New default policy
+     */
+    public static void setPolicy(BorderPolicy policy) {
+        POLICY.set(Objects.requireNonNull(policy, "policy"));
+    }
+
+    public static BorderPolicy getPolicy() {
+        return POLICY.get();
+    }
+
+    /**
+     * Records every failure in the recorder provided, or stops recording if null.
+     *
+     * @param recorder Recorder of recent failures
+     */
+    public static void setFailureRecorder(FailureRecorder recorder) {
+        failureRecorder = recorder;
+    }
+
+    public static FailureRecorder getFailureRecorder() {
+        return failureRecorder;
     }
 
     /**
@@ -54,7 +100,7 @@ public class Border {
      * @param mesg the error message to be included in the exception
      */
     public static void checkAlways(String mesg) {
-        throw new BorderNotNullException(findReference(), mesg);
+        POLICY.get().checkAlways(mesg);
     }
 
     /**
@@ -64,9 +110,7 @@ public class Border {
      * @param obj  test object
      */
     public static void checkIsNull(String mesg, Object obj) {
-        if (obj != null) {
-            throw new BorderNotNullException(findReference(), mesg);
-        }
+        POLICY.get().checkIsNull(mesg, obj);
     }
 
     /**
@@ -76,9 +120,7 @@ public class Border {
      * @param obj  test object
      */
     public static void checkNotNull(String mesg, Object obj) {
-        if (obj == null) {
-            throw new BorderIsNullException(findReference(), mesg);
-        }
+        POLICY.get().checkNotNull(mesg, obj);
     }
 
     /**
@@ -89,15 +131,7 @@ public class Border {
      * @param obj2 test object2
      */
     public static void checkEqual(String mesg, Object obj1, Object obj2) {
-        if (obj1 == null && obj2 != null) {
-            throw new BorderNotEqualException(findReference(), mesg);
-        }
-        if (obj1 != null && obj2 == null) {
-            throw new BorderNotEqualException(findReference(), mesg);
-        }
-        if (!obj1.equals(obj2)) {
-            throw new BorderNotEqualException(findReference(), mesg);
-        }
+        POLICY.get().checkEqual(mesg, obj1, obj2);
     }
 
     /**
@@ -108,15 +142,7 @@ public class Border {
      * @param obj2 test object2
      */
     public static void checkNotEqual(String mesg, Object obj1, Object obj2) {
-        if (obj1 == null && obj2 == null) {
-            throw new BorderEqualException(findReference(), mesg);
-        }
-        if ((obj1 == null && obj2 != null) || (obj1 != null && obj2 == null)) {
-            return;
-        }
-        if (obj1.equals(obj2)) {
-            throw new BorderEqualException(findReference(), mesg);
-        }
+        POLICY.get().checkNotEqual(mesg, obj1, obj2);
     }
 
     /**
@@ -126,12 +152,7 @@ public class Border {
      * @param str  String being tested
      */
     public static void checkNotEmpty(String mesg, String str) {
-        if (str == null) {
-            throw new BorderIsEmptyException(findReference(), mesg);
-        }
-        if (str == null || "".equals(str)) {
-            throw new BorderIsEmptyException(findReference(), mesg);
-        }
+        POLICY.get().checkNotEmpty(mesg, str);
     }
 
     /**
@@ -141,12 +162,7 @@ public class Border {
      * @param coll Collection being tested
      */
     public static void checkCollectionNotEmpty(String mesg, Collection coll) {
-        if (coll == null) {
-            throw new BorderIsEmptyException(findReference(), mesg);
-        }
-        if (coll.isEmpty()) {
-            throw new BorderIsEmptyException(findReference(), mesg);
-        }
+        POLICY.get().checkCollectionNotEmpty(mesg, coll);
     }
 
     /**
@@ -156,12 +172,7 @@ public class Border {
      * @param str  String being tested
      */
     public static void checkNotNullOrEmpty(String mesg, String str) {
-        if (str == null) {
-            throw new BorderIsNullException(findReference(), mesg);
-        }
-        if (str == null || "".equals(str)) {
-            throw new BorderIsEmptyException(findReference(), mesg);
-        }
+        POLICY.get().checkNotNullOrEmpty(mesg, str);
     }
 
     /**
@@ -171,9 +182,7 @@ public class Border {
      * @param state State being tested as true
      */
     public static void checkIsTrue(String mesg, boolean state) {
-        if (!state) {
-            throw new BorderIsFalseException(findReference(), mesg);
-        }
+        POLICY.get().checkIsTrue(mesg, state);
     }
 
     /**
@@ -183,9 +192,7 @@ public class Border {
      * @param state State being tested as false
      */
     public static void checkIsFalse(String mesg, boolean state) {
-        if (state) {
-            throw new BorderIsTrueException(findReference(), mesg);
-        }
+        POLICY.get().checkIsFalse(mesg, state);
     }
 
     /**
@@ -196,12 +203,7 @@ public class Border {
      * @param maxLen Max length of the string
      */
     public static void checkTooLong(String mesg, String str, int maxLen) {
-        if (str == null) {
-            throw new BorderIsNullException(findReference(), mesg);
-        }
-        if (str.length() > maxLen) {
-            throw new BorderTooLongException(findReference(), mesg);
-        }
+        POLICY.get().checkTooLong(mesg, str, maxLen);
     }
 
     /**
@@ -212,12 +214,7 @@ public class Border {
      * @param minLen Min length of the string
      */
     public static void checkTooShort(String mesg, String str, int minLen) {
-        if (str == null) {
-            throw new BorderIsNullException(findReference(), mesg);
-        }
-        if (str.length() < minLen) {
-            throw new BorderTooShortException(findReference(), mesg);
-        }
+        POLICY.get().checkTooShort(mesg, str, minLen);
     }
 
     /**
@@ -228,13 +225,45 @@ public class Border {
      * @param pattern Pattern being matched
      */
     public static void checkPattern(String mesg, String str, String pattern) {
-        if (str == null) {
-            throw new BorderIsNullException(findReference(), mesg);
-        }
-        Pattern pat = Pattern.compile(pattern);
-        if (!pat.matcher(str).matches()) {
-            throw new BorderPatternException(findReference(), mesg);
-        }
+        POLICY.get().checkPattern(mesg, str, pattern);
+    }
+
+    /**
+     * Checks that the string matches a pattern compiled by the caller, which
+     * can carry flags and is not held in the pattern cache
+     *
+     * @param mesg    Error Message
+     * @param str     String being tested
+     * @param pattern Pattern being matched
+     */
+    public static void checkPattern(String mesg, String str, Pattern pattern) {
+        POLICY.get().checkPattern(mesg, str, pattern);
+    }
+
+    /**
+     * Checks that every character of the string is in the character class,
+     * without a regex
+     *
+     * @param mesg      Error Message
+     * @param str       String being tested
+     * @param charClass Character class the string must be made of
+     */
+    public static void checkCharClass(String mesg, String str, CharClass charClass) {
+        POLICY.get().checkCharClass(mesg, str, charClass);
+    }
+
+    /**
+     * Checks that every character of the string is in the character class,
+     * and that its length is within the bounds
+     *
+     * @param mesg      Error Message
+     * @param str       String being tested
+     * @param charClass Character class the string must be made of
+     * @param minLen    Min length of the string
+     * @param maxLen    Max length of the string
+     */
+    public static void checkCharClass(String mesg, String str, CharClass charClass, int minLen, int maxLen) {
+        POLICY.get().checkCharClass(mesg, str, charClass, minLen, maxLen);
     }
 
     /**
@@ -246,15 +275,7 @@ public class Border {
      * @param toDate   To Date
      */
     public static void checkIsBetween(String mesg, LocalDate dt, LocalDate fromDate, LocalDate toDate) {
-        if (dt == null) {
-            throw new BorderIsNullException(findReference(), mesg);
-        }
-        if (fromDate != null && dt.isBefore(fromDate)) {
-            throw new BorderInvalidDateException(findReference(), mesg);
-        }
-        if (toDate != null && dt.isAfter(toDate)) {
-            throw new BorderInvalidDateException(findReference(), mesg);
-        }
+        POLICY.get().checkIsBetween(mesg, dt, fromDate, toDate);
     }
 
     /**
@@ -266,15 +287,85 @@ public class Border {
      * @param toDate   To Date
      */
     public static void checkIsBetween(String mesg, LocalDateTime dt, LocalDateTime fromDate, LocalDateTime toDate) {
-        if (dt == null) {
-            throw new BorderIsNullException(findReference(), mesg);
-        }
-        if (fromDate != null && dt.isBefore(fromDate)) {
-            throw new BorderInvalidDateException(findReference(), mesg);
-        }
-        if (toDate != null && dt.isAfter(toDate)) {
-            throw new BorderInvalidDateException(findReference(), mesg);
-        }
+        POLICY.get().checkIsBetween(mesg, dt, fromDate, toDate);
+    }
+
+    /**
+     * Checks that the string is an ISO date, yyyy-MM-dd, without parsing it
+     * into a LocalDate
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     */
+    public static void checkValidDate(String mesg, String str) {
+        POLICY.get().checkValidDate(mesg, str);
+    }
+
+    /**
+     * Checks that the string is an ISO date, yyyy-MM-dd, between the
+     * specified dates
+     *
+     * @param mesg     Error Message
+     * @param str      String being tested
+     * @param fromDate From Date, or null for no lower limit
+     * @param toDate   To Date, or null for no upper limit
+     */
+    public static void checkValidDate(String mesg, String str, LocalDate fromDate, LocalDate toDate) {
+        POLICY.get().checkValidDate(mesg, str, fromDate, toDate);
+    }
+
+    /**
+     * Checks that the string is a date in the pattern, such as dd/MM/yyyy,
+     * between the specified dates. The pattern is compiled once and cached
+     *
+     * @param mesg     Error Message
+     * @param str      String being tested
+     * @param pattern  DateTimeFormatter pattern of the date
+     * @param fromDate From Date, or null for no lower limit
+     * @param toDate   To Date, or null for no upper limit
+     */
+    public static void checkValidDate(String mesg, String str, String pattern, LocalDate fromDate, LocalDate toDate) {
+        POLICY.get().checkValidDate(mesg, str, pattern, fromDate, toDate);
+    }
+
+    /**
+     * Checks that the string is an ISO date-time, yyyy-MM-ddTHH:mm with
+     * optional seconds and fraction, without parsing it into a LocalDateTime
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     */
+    public static void checkValidDateTime(String mesg, String str) {
+        POLICY.get().checkValidDateTime(mesg, str);
+    }
+
+    /**
+     * Checks that the string is an ISO date-time between the specified
+     * date-times
+     *
+     * @param mesg     Error Message
+     * @param str      String being tested
+     * @param fromDate From Date, or null for no lower limit
+     * @param toDate   To Date, or null for no upper limit
+     */
+    public static void checkValidDateTime(String mesg, String str, LocalDateTime fromDate, LocalDateTime toDate) {
+        POLICY.get().checkValidDateTime(mesg, str, fromDate, toDate);
+    }
+
+    /**
+     * Checks that the string is a date-time in the pattern, such as
+     * yyyyMMddHHmmss, between the specified date-times. The pattern is
+     * compiled once and cached
+     *
+     * @param mesg     Error Message
+     * @param str      String being tested
+     * @param pattern  DateTimeFormatter pattern of the date-time
+     * @param fromDate From Date, or null for no lower limit
+     * @param toDate   To Date, or null for no upper limit
+     */
+    public static void checkValidDateTime(String mesg, String str, String pattern,
+                                          LocalDateTime fromDate, LocalDateTime toDate) {
+        POLICY.get().checkValidDateTime(mesg, str, pattern, fromDate, toDate);
     }
 
     /**
@@ -285,17 +376,7 @@ public class Border {
      * @param possibleVals Possible values that the sample could be
      */
     public static void checkPossibleValues(String mesg, Object obj, Object... possibleVals) {
-        if (obj == null) {
-            throw new BorderIsNullException(findReference(), mesg);
-        }
-        if (possibleVals.length == 0) {
-            throw new BorderNoMatchException(findReference(), mesg);
-        }
-        boolean found = Arrays.stream(possibleVals)
-                .anyMatch(obj::equals);
-        if (!found) {
-            throw new BorderNoMatchException(findReference(), mesg);
-        }
+        POLICY.get().checkPossibleValues(mesg, obj, possibleVals);
     }
 
     /**
@@ -306,12 +387,7 @@ public class Border {
      * @param size Size of a collection
      */
     public static void checkSize(String mesg, Collection coll, int size) {
-        if (coll == null) {
-            throw new BorderIsNullException(findReference(), mesg);
-        }
-        if (coll.size() != size) {
-            throw new BorderNoMatchException(findReference(), mesg);
-        }
+        POLICY.get().checkSize(mesg, coll, size);
     }
 
     /**
@@ -322,12 +398,7 @@ public class Border {
      * @param size Size of a collection
      */
     public static void checkMinSize(String mesg, Collection coll, int size) {
-        if (coll == null) {
-            throw new BorderIsNullException(findReference(), mesg);
-        }
-        if (coll.size() < size) {
-            throw new BorderNoMatchException(findReference(), mesg);
-        }
+        POLICY.get().checkMinSize(mesg, coll, size);
     }
 
     /**
@@ -338,18 +409,74 @@ public class Border {
      * @param possibleVals Possible values that the sample could be
      */
     public static void checkInCollection(String mesg, Object obj, Collection<? extends Object> possibleVals) {
-        if (obj == null) {
-            throw new BorderIsNullException(findReference(), mesg);
-        }
-        if (possibleVals.size() == 0) {
-            throw new BorderNoMatchException(findReference(), mesg);
-        }
-        boolean found = possibleVals
-                .stream()
-                .anyMatch(obj::equals);
-        if (!found) {
-            throw new BorderNoMatchException(findReference(), mesg);
-        }
+        POLICY.get().checkInCollection(mesg, obj, possibleVals);
+    }
+
+    /**
+     * Checks that no element of the collection is null. The exception gives
+     * the index of the first null element.
+     *
+     * @param mesg Error Message
+     * @param coll Collection being tested
+     */
+    public static void checkAllNotNull(String mesg, Collection<?> coll) {
+        POLICY.get().checkAllNotNull(mesg, coll);
+    }
+
+    /**
+     * Checks that no element of the collection is null or empty. The
+     * exception gives the index of the first such element.
+     *
+     * @param mesg Error Message
+     * @param coll Collection being tested
+     */
+    public static void checkAllNotEmpty(String mesg, Collection<? extends CharSequence> coll) {
+        POLICY.get().checkAllNotEmpty(mesg, coll);
+    }
+
+    /**
+     * Checks that the collection does not hold the same value twice. The
+     * exception gives the index and value of the first repeat.
+     *
+     * @param mesg Error Message
+     * @param coll Collection being tested
+     */
+    public static void checkNoDuplicates(String mesg, Collection<?> coll) {
+        POLICY.get().checkNoDuplicates(mesg, coll);
+    }
+
+    /**
+     * Checks that the array does not hold the same value twice, without
+     * boxing. The exception gives the index and value of the first repeat.
+     *
+     * @param mesg   Error Message
+     * @param values Array being tested
+     */
+    public static void checkNoDuplicates(String mesg, long[] values) {
+        POLICY.get().checkNoDuplicates(mesg, values);
+    }
+
+    /**
+     * Checks that the array does not hold the same value twice, without
+     * boxing. The exception gives the index and value of the first repeat.
+     *
+     * @param mesg   Error Message
+     * @param values Array being tested
+     */
+    public static void checkNoDuplicates(String mesg, int[] values) {
+        POLICY.get().checkNoDuplicates(mesg, values);
+    }
+
+    /**
+     * Checks whether the sample value is in a string index, which can hold
+     * many more values than fit comfortably in a Collection on the heap.
+     *
+     * @param mesg         Error Message
+     * @param str          Sample be tested
+     * @param possibleVals Index of the possible values that the sample could be
+     */
+    public static void checkInCollection(String mesg, String str, StringIndex possibleVals) {
+        POLICY.get().checkInCollection(mesg, str, possibleVals);
     }
 
     /**
@@ -359,34 +486,180 @@ public class Border {
      * @param emailAddress test email address
      */
     public static void checkValidEmail(String mesg, String emailAddress) {
-        if (emailAddress == null) {
-            throw new BorderIsNullException(findReference(), mesg);
-        }
-        if (!emailRegex.matcher(emailAddress).matches()) {
-            throw new BorderInvalidEmailException(findReference(), mesg);
-        }
+        POLICY.get().checkValidEmail(mesg, emailAddress);
+    }
+
+    /**
+     * Checks that the string is a UUID in its text form, such as
+     * 123e4567-e89b-12d3-a456-426614174000, in either case
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     */
+    public static void checkUuid(String mesg, String str) {
+        POLICY.get().checkUuid(mesg, str);
+    }
+
+    /**
+     * Checks that the string is a card number: 12 to 19 digits, with no
+     * spaces, ending in a valid Luhn check digit
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     */
+    public static void checkCardNumber(String mesg, String str) {
+        POLICY.get().checkCardNumber(mesg, str);
+    }
+
+    /**
+     * Checks that the string is an IBAN, with or without the spaces it is
+     * printed with, whose check digits are valid. The length for each
+     * country is not checked
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     */
+    public static void checkIban(String mesg, String str) {
+        POLICY.get().checkIban(mesg, str);
+    }
+
+    /**
+     * Checks that the string is an ISBN-10 or ISBN-13, with or without
+     * hyphens, whose check digit is valid
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     */
+    public static void checkIsbn(String mesg, String str) {
+        POLICY.get().checkIsbn(mesg, str);
+    }
+
+    /**
+     * Checks that the string is one or more digits, 0 to 9, with no sign
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     */
+    public static void checkNumeric(String mesg, String str) {
+        POLICY.get().checkNumeric(mesg, str);
+    }
+
+    /**
+     * Checks that the string is a whole number that fits in an int: an
+     * optional sign and ASCII digits only, without parsing it
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     */
+    public static void checkParsesAsInt(String mesg, String str) {
+        POLICY.get().checkParsesAsInt(mesg, str);
+    }
+
+    /**
+     * Checks that the string is a whole number between min and max: an
+     * optional sign and ASCII digits only, without parsing it
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     * @param min  Smallest value allowed
+     * @param max  Largest value allowed
+     */
+    public static void checkParsesAsInt(String mesg, String str, int min, int max) {
+        POLICY.get().checkParsesAsInt(mesg, str, min, max);
+    }
+
+    /**
+     * Checks that the string is a whole number that fits in a long: an
+     * optional sign and ASCII digits only, without parsing it
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     */
+    public static void checkParsesAsLong(String mesg, String str) {
+        POLICY.get().checkParsesAsLong(mesg, str);
+    }
+
+    /**
+     * Checks that the string is a whole number between min and max: an
+     * optional sign and ASCII digits only, without parsing it. Unlike
+     * Long.parseLong(), digits from other scripts are not accepted. A
+     * number outside the range, including one too large for a long, throws
+     * BorderInvalidLengthException
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     * @param min  Smallest value allowed
+     * @param max  Largest value allowed
+     */
+    public static void checkParsesAsLong(String mesg, String str, long min, long max) {
+        POLICY.get().checkParsesAsLong(mesg, str, min, max);
+    }
+
+    /**
+     * Checks that the string is a decimal, such as -12.50, that fits a SQL
+     * DECIMAL(precision, scale): at most precision - scale digits before the
+     * point, not counting leading zeros, and at most scale digits after it.
+     * Only ASCII digits are allowed, and no exponent. Too many digits throws
+     * BorderInvalidLengthException
+     *
+     * @param mesg      Error Message
+     * @param str       String being tested
+     * @param precision Most digits allowed in total, at least 1
+     * @param scale     Most digits allowed after the decimal point, from 0 to precision
+     * @throws IllegalArgumentException if the precision or scale is invalid
+     */
+    public static void checkDecimal(String mesg, String str, int precision, int scale) {
+        POLICY.get().checkDecimal(mesg, str, precision, scale);
+    }
+
+    /**
+     * Checks that the value satisfies the predicate. The predicate is only
+     * evaluated when the check runs, and a non-capturing lambda or method
+     * reference does not allocate per call.
+     *
+     * @param mesg      Error Message
+     * @param value     Value being tested
+     * @param predicate Predicate the value must satisfy
+     * @param <T>       Type of the value
+     */
+    public static <T> void checkThat(String mesg, T value, Predicate<? super T> predicate) {
+        POLICY.get().checkThat(mesg, value, predicate);
+    }
+
+    /**
+     * Checks that the int value satisfies the predicate, without boxing
+     *
+     * @param mesg      Error Message
+     * @param value     Value being tested
+     * @param predicate Predicate the value must satisfy
+     */
+    public static void checkIntThat(String mesg, int value, IntPredicate predicate) {
+        POLICY.get().checkIntThat(mesg, value, predicate);
+    }
+
+    /**
+     * Checks that the long value satisfies the predicate, without boxing
+     *
+     * @param mesg      Error Message
+     * @param value     Value being tested
+     * @param predicate Predicate the value must satisfy
+     */
+    public static void checkLongThat(String mesg, long value, LongPredicate predicate) {
+        POLICY.get().checkLongThat(mesg, value, predicate);
     }
 
     public static void fail(String mesg) {
-        throw new BorderException(findReference(), mesg);
+        POLICY.get().fail(mesg);
     }
 
     //
     // Internal Methods...
     //
 
-    private static String findReference() {
-        StackTraceElement[] ste = new Exception().getStackTrace();
-        if (ste.length > 2) {
-            String clzName = ste[2].getClassName();
-            int lno = ste[2].getLineNumber();
-            if (lno >= 0) {
-                return clzName.substring(clzName.lastIndexOf(".") + 1).trim() + ":" + lno;
-            } else {
-                return clzName.substring(clzName.lastIndexOf(".") + 1).trim();
-            }
-        } else {
-            return "-";
+    static void recordFailure(BorderException ex) {
+        FailureRecorder recorder = failureRecorder;
+        if (recorder != null) {
+            recorder.record(ex);
         }
     }
 }
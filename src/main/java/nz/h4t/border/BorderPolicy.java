@@ -0,0 +1,1468 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+import jdk.jfr.FlightRecorder;
+import nz.h4t.border.diagnostics.LatencyRecorder;
+import nz.h4t.border.diagnostics.SlowCheckEvent;
+import nz.h4t.border.diagnostics.ValidationFailureEvent;
+import nz.h4t.border.exceptions.*;
+import nz.h4t.border.index.StringIndex;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * A BorderPolicy is an immutable set of rules for how the Border checks
+ * behave: the email regex, the pattern cache, the optional result cache,
+ * whether exceptions capture a stack trace and how the reference code is
+ * found.
+ * <p>
+ * Policies are safe to share between threads. Border delegates to a
+ * default policy, and services that need different rules, such as one
+ * per tenant, can hold their own.
+ */
+public final class BorderPolicy {
+    private static final int DEFAULT_PATTERN_CACHE_SIZE = 256;
+    private static final int MATCHER_SLOTS = 8;
+    private static final ThreadLocal<Matcher[]> MATCHERS = ThreadLocal.withInitial(() -> new Matcher[MATCHER_SLOTS]);
+    private static final int REUSED_SET_VALUES = 1024;
+    private static final ThreadLocal<LongHashSet> LONG_SETS = new ThreadLocal<>();
+
+    /**
+     * Whether the exceptions thrown capture a stack trace
+     */
+    public enum ExceptionMode {
+        /**
+         * Exceptions capture a stack trace, as any other exception would
+         */
+        STACK_TRACE,
+        /**
+         * Exceptions have no stack trace, which makes failures much cheaper
+         * when they are expected and handled, such as when validating input
+         */
+        NO_STACK_TRACE
+    }
+
+    /**
+     * How the reference code of an exception is found
+     */
+    public enum ReferenceStrategy {
+        /**
+         * The simple class name and line number of the code that called the
+         * check, such as "OrderService:42"
+         */
+        CALLER,
+        /**
+         * No reference, the code is always "-", which avoids walking the stack
+         */
+        NONE
+    }
+
+    private final Pattern emailPattern;
+    private final PatternCache patternCache;
+    private final ResultCache resultCache;
+    private final ExceptionMode exceptionMode;
+    private final ReferenceStrategy referenceStrategy;
+    private final boolean writableStackTrace;
+    private final LatencyRecorder latencyRecorder;
+    private final CheckSampler sampler;
+    /**
+     * Sampler handles of the sampled checks, null for checks that always run
+     */
+    private final CheckSampler.Check patternSample;
+    private final CheckSampler.Check emailSample;
+    private final CheckSampler.Check thatSample;
+    private final CheckSampler.Check intThatSample;
+    private final CheckSampler.Check longThatSample;
+
+    private BorderPolicy(Builder builder) {
+        this.emailPattern = builder.emailPattern;
+        this.patternCache = new PatternCache(builder.patternCacheSize);
+        this.resultCache = builder.resultCacheSize == 0 ? null : new ResultCache(builder.resultCacheSize);
+        this.exceptionMode = builder.exceptionMode;
+        this.referenceStrategy = builder.referenceStrategy;
+        this.writableStackTrace = exceptionMode == ExceptionMode.STACK_TRACE;
+        this.latencyRecorder = builder.latencyRecorder;
+        this.sampler = builder.sampler;
+        this.patternSample = sampled("checkPattern");
+        this.emailSample = sampled("checkValidEmail");
+        this.thatSample = sampled("checkThat");
+        this.intThatSample = sampled("checkIntThat");
+        this.longThatSample = sampled("checkLongThat");
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return a builder holding the settings of this policy
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.emailPattern = emailPattern;
+        return builder
+                .patternCacheSize(patternCache.getMaxSize())
+                .resultCacheSize(resultCache == null ? 0 : resultCache.getCapacity())
+                .exceptionMode(exceptionMode)
+                .referenceStrategy(referenceStrategy)
+                .latencyRecorder(latencyRecorder)
+                .sampler(sampler);
+    }
+
+    public Pattern getEmailPattern() {
+        return emailPattern != null ? emailPattern : Email.ADDRESS;
+    }
+
+    public int getPatternCacheSize() {
+        return patternCache.getMaxSize();
+    }
+
+    public int getResultCacheSize() {
+        return resultCache == null ? 0 : resultCache.getCapacity();
+    }
+
+    /**
+     * @return the counters of the result cache, or null if it is disabled
+     */
+    public CacheStats getResultCacheStats() {
+        return resultCache == null ? null : resultCache.stats();
+    }
+
+    public ExceptionMode getExceptionMode() {
+        return exceptionMode;
+    }
+
+    public ReferenceStrategy getReferenceStrategy() {
+        return referenceStrategy;
+    }
+
+    /**
+     * @return the recorder of check latencies, or null if latencies are not recorded
+     */
+    public LatencyRecorder getLatencyRecorder() {
+        return latencyRecorder;
+    }
+
+    /**
+     * @return the sampler of expensive checks, or null if every check always runs
+     */
+    public CheckSampler getSampler() {
+        return sampler;
+    }
+
+    /**
+     * Throws a BorderNotNullException with a specified error message and reference.
+     *
+     * @param mesg the error message to be included in the exception
+     */
+    public void checkAlways(String mesg) {
+        throw failure(BorderNotNullException::new, mesg);
+    }
+
+    /**
+     * checkIsNull checks that the object provided is not null
+     *
+     * @param mesg Error Message
+     * @param obj  test object
+     */
+    public void checkIsNull(String mesg, Object obj) {
+        if (obj != null) {
+            throw failure(BorderNotNullException::new, mesg);
+        }
+    }
+
+    /**
+     * Checks that the test object is not null
+     *
+     * @param mesg Error Message
+     * @param obj  test object
+     */
+    public void checkNotNull(String mesg, Object obj) {
+        if (obj == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+    }
+
+    /**
+     * Checks that obj1 and obj2 are equal
+     *
+     * @param mesg Error Message
+     * @param obj1 test object1
+     * @param obj2 test object2
+     */
+    public void checkEqual(String mesg, Object obj1, Object obj2) {
+        if (obj1 == null && obj2 != null) {
+            throw failure(BorderNotEqualException::new, mesg);
+        }
+        if (obj1 != null && obj2 == null) {
+            throw failure(BorderNotEqualException::new, mesg);
+        }
+        if (!obj1.equals(obj2)) {
+            throw failure(BorderNotEqualException::new, mesg);
+        }
+    }
+
+    /**
+     * Checks that obj1 and obj2 are not equal
+     *
+     * @param mesg Error Message
+     * @param obj1 test object1
+     * @param obj2 test object2
+     */
+    public void checkNotEqual(String mesg, Object obj1, Object obj2) {
+        if (obj1 == null && obj2 == null) {
+            throw failure(BorderEqualException::new, mesg);
+        }
+        if ((obj1 == null && obj2 != null) || (obj1 != null && obj2 == null)) {
+            return;
+        }
+        if (obj1.equals(obj2)) {
+            throw failure(BorderEqualException::new, mesg);
+        }
+    }
+
+    /**
+     * Checks that str is not empty
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     */
+    public void checkNotEmpty(String mesg, String str) {
+        if (str == null) {
+            throw failure(BorderIsEmptyException::new, mesg);
+        }
+        if (str == null || "".equals(str)) {
+            throw failure(BorderIsEmptyException::new, mesg);
+        }
+    }
+
+    /**
+     * Checks that str is not empty
+     *
+     * @param mesg Error Message
+     * @param coll Collection being tested
+     */
+    public void checkCollectionNotEmpty(String mesg, Collection coll) {
+        if (coll == null) {
+            throw failure(BorderIsEmptyException::new, mesg);
+        }
+        if (coll.isEmpty()) {
+            throw failure(BorderIsEmptyException::new, mesg);
+        }
+    }
+
+    /**
+     * Checks not null or empty
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     */
+    public void checkNotNullOrEmpty(String mesg, String str) {
+        if (str == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        if (str == null || "".equals(str)) {
+            throw failure(BorderIsEmptyException::new, mesg);
+        }
+    }
+
+    /**
+     * Check  that the state is true
+     *
+     * @param mesg  Error Message
+     * @param state State being tested as true
+     */
+    public void checkIsTrue(String mesg, boolean state) {
+        if (!state) {
+            throw failure(BorderIsFalseException::new, mesg);
+        }
+    }
+
+    /**
+     * Check  that the state is false
+     *
+     * @param mesg  Error Message
+     * @param state State being tested as false
+     */
+    public void checkIsFalse(String mesg, boolean state) {
+        if (state) {
+            throw failure(BorderIsTrueException::new, mesg);
+        }
+    }
+
+    /**
+     * Checks that the string is not greater than the max length
+     *
+     * @param mesg   Error Message
+     * @param str    String being tested
+     * @param maxLen Max length of the string
+     */
+    public void checkTooLong(String mesg, String str, int maxLen) {
+        if (str == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        if (str.length() > maxLen) {
+            throw failure(BorderTooLongException::new, mesg);
+        }
+    }
+
+    /**
+     * Checks that the string is not less than the min length
+     *
+     * @param mesg   Error Message
+     * @param str    String being tested
+     * @param minLen Min length of the string
+     */
+    public void checkTooShort(String mesg, String str, int minLen) {
+        if (str == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        if (str.length() < minLen) {
+            throw failure(BorderTooShortException::new, mesg);
+        }
+    }
+
+    /**
+     * Checks that the string matches the pattern provided
+     *
+     * @param mesg    Error Message
+     * @param str     String being tested
+     * @param pattern Pattern being matched
+     */
+    public void checkPattern(String mesg, String str, String pattern) {
+        if (str == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        if (skipped(patternSample)) {
+            return;
+        }
+        long start = startTiming();
+        boolean valid = matchesPattern(str, pattern);
+        stopTiming("checkPattern", start);
+        if (!valid) {
+            throw failure(BorderPatternException::new, mesg);
+        }
+    }
+
+    /**
+     * Checks that the string matches a pattern compiled by the caller, which
+     * can carry flags and is not held in the pattern cache
+     *
+     * @param mesg    Error Message
+     * @param str     String being tested
+     * @param pattern Pattern being matched
+     */
+    public void checkPattern(String mesg, String str, Pattern pattern) {
+        if (str == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        if (skipped(patternSample)) {
+            return;
+        }
+        long start = startTiming();
+        boolean valid = matchesPattern(str, pattern);
+        stopTiming("checkPattern", start);
+        if (!valid) {
+            throw failure(BorderPatternException::new, mesg);
+        }
+    }
+
+    /**
+     * Checks that every character of the string is in the character class,
+     * without a regex
+     *
+     * @param mesg      Error Message
+     * @param str       String being tested
+     * @param charClass Character class the string must be made of
+     */
+    public void checkCharClass(String mesg, String str, CharClass charClass) {
+        if (str == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        if (!charClass.matches(str)) {
+            throw failure(BorderPatternException::new, mesg);
+        }
+    }
+
+    /**
+     * Checks that every character of the string is in the character class,
+     * and that its length is within the bounds, as a regex such as
+     * ^[0-9]{6}$ would
+     *
+     * @param mesg      Error Message
+     * @param str       String being tested
+     * @param charClass Character class the string must be made of
+     * @param minLen    Min length of the string
+     * @param maxLen    Max length of the string
+     */
+    public void checkCharClass(String mesg, String str, CharClass charClass, int minLen, int maxLen) {
+        if (str == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        if (str.length() < minLen || str.length() > maxLen || !charClass.matches(str)) {
+            throw failure(BorderPatternException::new, mesg);
+        }
+    }
+
+    /**
+     * Check that the sample date is between the specified dates
+     *
+     * @param mesg     Error Message
+     * @param dt       LocalDate being tested
+     * @param fromDate From Date
+     * @param toDate   To Date
+     */
+    public void checkIsBetween(String mesg, LocalDate dt, LocalDate fromDate, LocalDate toDate) {
+        if (dt == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        if (fromDate != null && dt.isBefore(fromDate)) {
+            throw failure(BorderInvalidDateException::new, mesg);
+        }
+        if (toDate != null && dt.isAfter(toDate)) {
+            throw failure(BorderInvalidDateException::new, mesg);
+        }
+    }
+
+    /**
+     * Check that the sample date is between the specified dates
+     *
+     * @param mesg     Error Message
+     * @param dt       LocalDate being tested
+     * @param fromDate From Date
+     * @param toDate   To Date
+     */
+    public void checkIsBetween(String mesg, LocalDateTime dt, LocalDateTime fromDate, LocalDateTime toDate) {
+        if (dt == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        if (fromDate != null && dt.isBefore(fromDate)) {
+            throw failure(BorderInvalidDateException::new, mesg);
+        }
+        if (toDate != null && dt.isAfter(toDate)) {
+            throw failure(BorderInvalidDateException::new, mesg);
+        }
+    }
+
+    /**
+     * Checks that the string is an ISO date, yyyy-MM-dd, without parsing it
+     * into a LocalDate
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     */
+    public void checkValidDate(String mesg, String str) {
+        checkValidDate(mesg, str, null, null);
+    }
+
+    /**
+     * Checks that the string is an ISO date, yyyy-MM-dd, between the
+     * specified dates
+     *
+     * @param mesg     Error Message
+     * @param str      String being tested
+     * @param fromDate From Date, or null for no lower limit
+     * @param toDate   To Date, or null for no upper limit
+     */
+    public void checkValidDate(String mesg, String str, LocalDate fromDate, LocalDate toDate) {
+        checkValidDate(mesg, str, DatePattern.ISO_DATE, fromDate, toDate);
+    }
+
+    /**
+     * Checks that the string is a date in the pattern, such as dd/MM/yyyy,
+     * between the specified dates. The pattern is compiled once and cached
+     *
+     * @param mesg     Error Message
+     * @param str      String being tested
+     * @param pattern  DateTimeFormatter pattern of the date
+     * @param fromDate From Date, or null for no lower limit
+     * @param toDate   To Date, or null for no upper limit
+     */
+    public void checkValidDate(String mesg, String str, String pattern, LocalDate fromDate, LocalDate toDate) {
+        checkValidDate(mesg, str, DatePattern.of(pattern), fromDate, toDate);
+    }
+
+    /**
+     * Checks that the string is an ISO date-time, yyyy-MM-ddTHH:mm with
+     * optional seconds and fraction, without parsing it into a LocalDateTime
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     */
+    public void checkValidDateTime(String mesg, String str) {
+        checkValidDateTime(mesg, str, null, null);
+    }
+
+    /**
+     * Checks that the string is an ISO date-time between the specified
+     * date-times
+     *
+     * @param mesg     Error Message
+     * @param str      String being tested
+     * @param fromDate From Date, or null for no lower limit
+     * @param toDate   To Date, or null for no upper limit
+     */
+    public void checkValidDateTime(String mesg, String str, LocalDateTime fromDate, LocalDateTime toDate) {
+        checkValidDateTime(mesg, str, DatePattern.ISO_DATE_TIME, fromDate, toDate);
+    }
+
+    /**
+     * Checks that the string is a date-time in the pattern, such as
+     * yyyyMMddHHmmss, between the specified date-times. The pattern is
+     * compiled once and cached
+     *
+     * @param mesg     Error Message
+     * @param str      String being tested
+     * @param pattern  DateTimeFormatter pattern of the date-time
+     * @param fromDate From Date, or null for no lower limit
+     * @param toDate   To Date, or null for no upper limit
+     */
+    public void checkValidDateTime(String mesg, String str, String pattern,
+                                   LocalDateTime fromDate, LocalDateTime toDate) {
+        checkValidDateTime(mesg, str, DatePattern.of(pattern), fromDate, toDate);
+    }
+
+    /**
+     * Checks whether the sample value is one of the possible values.
+     *
+     * @param mesg         Error Message
+     * @param obj          Sample be tested
+     * @param possibleVals Possible values that the sample could be
+     */
+    public void checkPossibleValues(String mesg, Object obj, Object... possibleVals) {
+        if (obj == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        if (possibleVals.length == 0) {
+            throw failure(BorderNoMatchException::new, mesg);
+        }
+        long start = startTiming();
+        boolean found = false;
+        for (Object possibleVal : possibleVals) {
+            if (obj.equals(possibleVal)) {
+                found = true;
+                break;
+            }
+        }
+        stopTiming("checkPossibleValues", start);
+        if (!found) {
+            throw failure(BorderNoMatchException::new, mesg);
+        }
+    }
+
+    /**
+     * Checks whether the size of a collection.
+     *
+     * @param mesg Error Message
+     * @param coll Sample be tested
+     * @param size Size of a collection
+     */
+    public void checkSize(String mesg, Collection coll, int size) {
+        if (coll == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        if (coll.size() != size) {
+            throw failure(BorderNoMatchException::new, mesg);
+        }
+    }
+
+    /**
+     * Checks whether the size of a collection.
+     *
+     * @param mesg Error Message
+     * @param coll Sample be tested
+     * @param size Size of a collection
+     */
+    public void checkMinSize(String mesg, Collection coll, int size) {
+        if (coll == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        if (coll.size() < size) {
+            throw failure(BorderNoMatchException::new, mesg);
+        }
+    }
+
+    /**
+     * Checks whether the sample value is one of the possible values.
+     *
+     * @param mesg         Error Message
+     * @param obj          Sample be tested
+     * @param possibleVals Possible values that the sample could be
+     */
+    public void checkInCollection(String mesg, Object obj, Collection<? extends Object> possibleVals) {
+        if (obj == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        if (possibleVals.size() == 0) {
+            throw failure(BorderNoMatchException::new, mesg);
+        }
+        long start = startTiming();
+        boolean found = contains(possibleVals, obj);
+        stopTiming("checkInCollection", start);
+        if (!found) {
+            throw failure(BorderNoMatchException::new, mesg);
+        }
+    }
+
+    /**
+     * Checks that no element of the collection is null
+     *
+     * @param mesg Error Message
+     * @param coll Collection being tested
+     */
+    public void checkAllNotNull(String mesg, Collection<?> coll) {
+        if (coll == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        int index = firstEmpty(coll, false);
+        if (index >= 0) {
+            throw failure((code, m, w) -> new BorderNullElementException(code, m, w, index), mesg);
+        }
+    }
+
+    /**
+     * Checks that no element of the collection is null or empty
+     *
+     * @param mesg Error Message
+     * @param coll Collection being tested
+     */
+    public void checkAllNotEmpty(String mesg, Collection<? extends CharSequence> coll) {
+        if (coll == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        int index = firstEmpty(coll, true);
+        if (index >= 0) {
+            throw failure((code, m, w) -> new BorderEmptyElementException(code, m, w, index), mesg);
+        }
+    }
+
+    /**
+     * Checks that the collection does not hold the same value twice, by equals()
+     *
+     * @param mesg Error Message
+     * @param coll Collection being tested
+     */
+    public void checkNoDuplicates(String mesg, Collection<?> coll) {
+        if (coll == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        long start = startTiming();
+        Set<Object> seen = new HashSet<>(Math.max(16, (int) (coll.size() / 0.75f) + 1));
+        int index = 0;
+        for (Object element : coll) {
+            if (!seen.add(element)) {
+                stopTiming("checkNoDuplicates", start);
+                throw duplicate(mesg, index, element);
+            }
+            index++;
+        }
+        stopTiming("checkNoDuplicates", start);
+    }
+
+    /**
+     * Checks that the array does not hold the same value twice, without boxing.
+     * An array of up to 1024 values reuses a set kept by the thread
+     *
+     * @param mesg   Error Message
+     * @param values Array being tested
+     */
+    public void checkNoDuplicates(String mesg, long[] values) {
+        if (values == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        long start = startTiming();
+        LongHashSet seen = longSet(values.length);
+        for (int i = 0; i < values.length; i++) {
+            if (!seen.add(values[i])) {
+                stopTiming("checkNoDuplicates", start);
+                throw duplicate(mesg, i, values[i]);
+            }
+        }
+        stopTiming("checkNoDuplicates", start);
+    }
+
+    /**
+     * Checks that the array does not hold the same value twice, without boxing.
+     * An array of up to 1024 values reuses a set kept by the thread
+     *
+     * @param mesg   Error Message
+     * @param values Array being tested
+     */
+    public void checkNoDuplicates(String mesg, int[] values) {
+        if (values == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        long start = startTiming();
+        LongHashSet seen = longSet(values.length);
+        for (int i = 0; i < values.length; i++) {
+            if (!seen.add(values[i])) {
+                stopTiming("checkNoDuplicates", start);
+                throw duplicate(mesg, i, values[i]);
+            }
+        }
+        stopTiming("checkNoDuplicates", start);
+    }
+
+    /**
+     * Checks whether the sample value is in a string index.
+     *
+     * @param mesg         Error Message
+     * @param str          Sample be tested
+     * @param possibleVals Index of the possible values that the sample could be
+     */
+    public void checkInCollection(String mesg, String str, StringIndex possibleVals) {
+        if (str == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        long start = startTiming();
+        boolean found = possibleVals.contains(str);
+        stopTiming("checkInCollection", start);
+        if (!found) {
+            throw failure(BorderNoMatchException::new, mesg);
+        }
+    }
+
+    /**
+     * Checks that the test object is not null
+     *
+     * @param mesg         Error Message
+     * @param emailAddress test email address
+     */
+    public void checkValidEmail(String mesg, String emailAddress) {
+        if (emailAddress == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        if (skipped(emailSample)) {
+            return;
+        }
+        long start = startTiming();
+        boolean valid = isValidEmail(emailAddress);
+        stopTiming("checkValidEmail", start);
+        if (!valid) {
+            throw failure(BorderInvalidEmailException::new, mesg);
+        }
+    }
+
+    /**
+     * Checks that the string is a UUID in its text form, such as
+     * 123e4567-e89b-12d3-a456-426614174000, in either case
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     */
+    public void checkUuid(String mesg, String str) {
+        if (str == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        checkIdentifier(mesg, Identifiers.uuid(str));
+    }
+
+    /**
+     * Checks that the string is a card number: 12 to 19 digits, with no
+     * spaces, ending in a valid Luhn check digit
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     */
+    public void checkCardNumber(String mesg, String str) {
+        if (str == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        checkIdentifier(mesg, Identifiers.cardNumber(str));
+    }
+
+    /**
+     * Checks that the string is an IBAN, with or without the spaces it is
+     * printed with, whose check digits are valid. The length for each
+     * country is not checked
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     */
+    public void checkIban(String mesg, String str) {
+        if (str == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        checkIdentifier(mesg, Identifiers.iban(str));
+    }
+
+    /**
+     * Checks that the string is an ISBN-10 or ISBN-13, with or without
+     * hyphens, whose check digit is valid
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     */
+    public void checkIsbn(String mesg, String str) {
+        if (str == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        checkIdentifier(mesg, Identifiers.isbn(str));
+    }
+
+    /**
+     * Checks that the string is one or more digits, 0 to 9, with no sign
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     */
+    public void checkNumeric(String mesg, String str) {
+        if (str == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        checkNumber(mesg, Numbers.digits(str));
+    }
+
+    /**
+     * Checks that the string is a whole number that fits in an int: an
+     * optional sign and ASCII digits only, without parsing it
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     */
+    public void checkParsesAsInt(String mesg, String str) {
+        checkParsesAsLong(mesg, str, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Checks that the string is a whole number between min and max: an
+     * optional sign and ASCII digits only, without parsing it
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     * @param min  Smallest value allowed
+     * @param max  Largest value allowed
+     */
+    public void checkParsesAsInt(String mesg, String str, int min, int max) {
+        checkParsesAsLong(mesg, str, min, max);
+    }
+
+    /**
+     * Checks that the string is a whole number that fits in a long: an
+     * optional sign and ASCII digits only, without parsing it
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     */
+    public void checkParsesAsLong(String mesg, String str) {
+        checkParsesAsLong(mesg, str, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Checks that the string is a whole number between min and max: an
+     * optional sign and ASCII digits only, without parsing it. Unlike
+     * Long.parseLong(), digits from other scripts are not accepted. A
+     * number outside the range, including one too large for a long, throws
+     * BorderInvalidLengthException
+     *
+     * @param mesg Error Message
+     * @param str  String being tested
+     * @param min  Smallest value allowed
+     * @param max  Largest value allowed
+     */
+    public void checkParsesAsLong(String mesg, String str, long min, long max) {
+        if (str == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        checkNumber(mesg, Numbers.wholeNumber(str, min, max));
+    }
+
+    /**
+     * Checks that the string is a decimal, such as -12.50, that fits a SQL
+     * DECIMAL(precision, scale): at most precision - scale digits before the
+     * point, not counting leading zeros, and at most scale digits after it.
+     * Only ASCII digits are allowed, and no exponent. Too many digits throws
+     * BorderInvalidLengthException
+     *
+     * @param mesg      Error Message
+     * @param str       String being tested
+     * @param precision Most digits allowed in total, at least 1
+     * @param scale     Most digits allowed after the decimal point, from 0 to precision
+     * @throws IllegalArgumentException if the precision or scale is invalid
+     */
+    public void checkDecimal(String mesg, String str, int precision, int scale) {
+        if (precision < 1) {
+            throw new IllegalArgumentException("precision must be at least 1");
+        }
+        if (scale < 0 || scale > precision) {
+            throw new IllegalArgumentException("scale must be from 0 to precision");
+        }
+        if (str == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        checkNumber(mesg, Numbers.decimal(str, precision, scale));
+    }
+
+    /**
+     * Checks that the value satisfies the predicate. The predicate is only
+     * evaluated when the check runs, and a non-capturing lambda or method
+     * reference does not allocate per call.
+     *
+     * @param mesg      Error Message
+     * @param value     Value being tested
+     * @param predicate Predicate the value must satisfy
+     * @param <T>       Type of the value
+     */
+    public <T> void checkThat(String mesg, T value, Predicate<? super T> predicate) {
+        if (skipped(thatSample)) {
+            return;
+        }
+        long start = startTiming();
+        boolean valid = predicate.test(value);
+        stopTiming("checkThat", start);
+        if (!valid) {
+            throw failure(BorderCustomException::new, mesg);
+        }
+    }
+
+    /**
+     * Checks that the int value satisfies the predicate, without boxing
+     *
+     * @param mesg      Error Message
+     * @param value     Value being tested
+     * @param predicate Predicate the value must satisfy
+     */
+    public void checkIntThat(String mesg, int value, IntPredicate predicate) {
+        if (skipped(intThatSample)) {
+            return;
+        }
+        long start = startTiming();
+        boolean valid = predicate.test(value);
+        stopTiming("checkIntThat", start);
+        if (!valid) {
+            throw failure(BorderCustomException::new, mesg);
+        }
+    }
+
+    /**
+     * Checks that the long value satisfies the predicate, without boxing
+     *
+     * @param mesg      Error Message
+     * @param value     Value being tested
+     * @param predicate Predicate the value must satisfy
+     */
+    public void checkLongThat(String mesg, long value, LongPredicate predicate) {
+        if (skipped(longThatSample)) {
+            return;
+        }
+        long start = startTiming();
+        boolean valid = predicate.test(value);
+        stopTiming("checkLongThat", start);
+        if (!valid) {
+            throw failure(BorderCustomException::new, mesg);
+        }
+    }
+
+    public void fail(String mesg) {
+        throw failure(BorderException::new, mesg);
+    }
+
+    //
+    // Internal Methods...
+    //
+
+    private void checkValidDate(String mesg, String str, DatePattern pattern, LocalDate fromDate, LocalDate toDate) {
+        if (str == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        if (!pattern.isDateBetween(str, fromDate, toDate)) {
+            throw failure(BorderInvalidDateException::new, mesg);
+        }
+    }
+
+    private void checkValidDateTime(String mesg, String str, DatePattern pattern,
+                                    LocalDateTime fromDate, LocalDateTime toDate) {
+        if (str == null) {
+            throw failure(BorderIsNullException::new, mesg);
+        }
+        if (!pattern.isDateTimeBetween(str, fromDate, toDate)) {
+            throw failure(BorderInvalidDateException::new, mesg);
+        }
+    }
+
+    private boolean matchesPattern(String str, String pattern) {
+        if (resultCache == null) {
+            return matches("checkPattern", patternCache.get(pattern), str, 0, str.length());
+        }
+        int hash = 31 * pattern.hashCode() + str.hashCode();
+        int cached = resultCache.get(pattern, str, hash);
+        if (cached != ResultCache.MISSING) {
+            return cached == ResultCache.VALID;
+        }
+        boolean valid = matches("checkPattern", patternCache.get(pattern), str, 0, str.length());
+        resultCache.put(pattern, str, hash, valid);
+        return valid;
+    }
+
+    /**
+     * Only a pattern without flags shares the result cache with its regex
+     */
+    private boolean matchesPattern(String str, Pattern pattern) {
+        if (resultCache == null || pattern.flags() != 0) {
+            return matches("checkPattern", pattern, str, 0, str.length());
+        }
+        String regex = pattern.pattern();
+        int hash = 31 * regex.hashCode() + str.hashCode();
+        int cached = resultCache.get(regex, str, hash);
+        if (cached != ResultCache.MISSING) {
+            return cached == ResultCache.VALID;
+        }
+        boolean valid = matches("checkPattern", pattern, str, 0, str.length());
+        resultCache.put(regex, str, hash, valid);
+        return valid;
+    }
+
+    /**
+     * With the default email regex the result is cached per domain and only
+     * the local part is scanned. With any other regex the result is cached
+     * per email address.
+     */
+    private boolean isValidEmail(String email) {
+        if (resultCache == null) {
+            return matches("checkValidEmail", getEmailPattern(), email, 0, email.length());
+        }
+        if (emailPattern != null) {
+            int cached = resultCache.get(email, null, email.hashCode());
+            if (cached != ResultCache.MISSING) {
+                return cached == ResultCache.VALID;
+            }
+            boolean valid = matches("checkValidEmail", emailPattern, email, 0, email.length());
+            resultCache.put(email, null, email.hashCode(), valid);
+            return valid;
+        }
+        int at = email.indexOf('@');
+        if (at <= 0) {
+            return false;
+        }
+        for (int i = 0; i < at; i++) {
+            char c = email.charAt(i);
+            if (c >= 128 || !Email.LOCAL_CHARS[c]) {
+                return false;
+            }
+        }
+        int len = email.length();
+        int hash = ResultCache.hash(email, at + 1, len);
+        int cached = resultCache.get(email, at + 1, len, hash);
+        if (cached != ResultCache.MISSING) {
+            return cached == ResultCache.VALID;
+        }
+        boolean valid = matches("checkValidEmail", Email.DOMAIN, email, at + 1, len);
+        resultCache.put(email.substring(at + 1), null, hash, valid);
+        return valid;
+    }
+
+    /**
+     * Matches the region [from, to) of str, committing a SlowCheckEvent if
+     * the match takes longer than the event threshold. The event classes are
+     * not touched until Flight Recorder is running, as loading them before
+     * then starts much of Flight Recorder.
+     */
+    private static boolean matches(String check, Pattern pattern, String str, int from, int to) {
+        if (!FlightRecorder.isInitialized()) {
+            return regionMatches(pattern, str, from, to);
+        }
+        SlowCheckEvent event = new SlowCheckEvent();
+        event.begin();
+        boolean valid = regionMatches(pattern, str, from, to);
+        event.end();
+        if (event.shouldCommit()) {
+            event.setCheck(check);
+            event.setPattern(pattern.pattern());
+            event.setInputLength(to - from);
+            event.setValid(valid);
+            event.commit();
+        }
+        return valid;
+    }
+
+    /**
+     * Matches with a Matcher kept by the thread for the pattern, in a small
+     * table indexed by the pattern's identity hash, so that a check with a
+     * cached pattern creates no objects. The matcher is reset afterwards so
+     * it does not hold on to the input.
+     */
+    private static boolean regionMatches(Pattern pattern, String str, int from, int to) {
+        Matcher[] matchers = MATCHERS.get();
+        int slot = System.identityHashCode(pattern) & (MATCHER_SLOTS - 1);
+        Matcher matcher = matchers[slot];
+        if (matcher == null || matcher.pattern() != pattern) {
+            matcher = pattern.matcher(str);
+            matchers[slot] = matcher;
+        } else {
+            matcher.reset(str);
+        }
+        boolean valid = matcher.region(from, to).matches();
+        matcher.reset("");
+        return valid;
+    }
+
+    /**
+     * Index of the first null element, or of the first null or empty one,
+     * or -1. Lists with random access are read by index, so that no
+     * iterator is created.
+     */
+    private static int firstEmpty(Collection<?> coll, boolean orEmpty) {
+        if (coll instanceof List && coll instanceof RandomAccess) {
+            List<?> list = (List<?>) coll;
+            int size = list.size();
+            for (int i = 0; i < size; i++) {
+                if (isEmptyElement(list.get(i), orEmpty)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int index = 0;
+        for (Object element : coll) {
+            if (isEmptyElement(element, orEmpty)) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+    private static boolean isEmptyElement(Object element, boolean orEmpty) {
+        return element == null || (orEmpty && ((CharSequence) element).length() == 0);
+    }
+
+    private BorderException duplicate(String mesg, int index, Object value) {
+        return failure((code, m, w) -> new BorderDuplicateException(code, m, w, index, value), mesg);
+    }
+
+    /**
+     * A malformed number throws BorderPatternException, and a number out of
+     * range or with too many digits BorderInvalidLengthException
+     */
+    private void checkNumber(String mesg, int result) {
+        switch (result) {
+            case Numbers.VALID:
+                return;
+            case Numbers.WRONG_FORMAT:
+                throw failure(BorderPatternException::new, mesg);
+            default:
+                throw failure(BorderInvalidLengthException::new, mesg);
+        }
+    }
+
+    /**
+     * A wrong length throws BorderInvalidLengthException, a character out of
+     * place BorderPatternException and a wrong check digit BorderNoMatchException
+     */
+    private void checkIdentifier(String mesg, int result) {
+        switch (result) {
+            case Identifiers.VALID:
+                return;
+            case Identifiers.WRONG_LENGTH:
+                throw failure(BorderInvalidLengthException::new, mesg);
+            case Identifiers.WRONG_FORMAT:
+                throw failure(BorderPatternException::new, mesg);
+            default:
+                throw failure(BorderNoMatchException::new, mesg);
+        }
+    }
+
+    /**
+     * Matches with the value's equals(), whatever the collection's own
+     * notion of containment is (a TreeSet with a comparator, an identity
+     * set). A plain HashSet or LinkedHashSet already looks up by equals(),
+     * so it is asked directly, and a random access list is walked by index,
+     * neither of which allocates.
+     */
+    private static boolean contains(Collection<?> coll, Object obj) {
+        if (coll.getClass() == HashSet.class || coll.getClass() == LinkedHashSet.class) {
+            return coll.contains(obj);
+        }
+        if (coll instanceof List && coll instanceof RandomAccess) {
+            List<?> list = (List<?>) coll;
+            for (int i = 0, size = list.size(); i < size; i++) {
+                if (obj.equals(list.get(i))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (Object val : coll) {
+            if (obj.equals(val)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return an empty set for the values, the thread's own one if it is
+     * small enough to keep, so that checking a short array allocates nothing
+     */
+    private static LongHashSet longSet(int expected) {
+        LongHashSet set = LONG_SETS.get();
+        if (set != null && set.reset(expected)) {
+            return set;
+        }
+        set = new LongHashSet(expected);
+        if (expected <= REUSED_SET_VALUES) {
+            LONG_SETS.set(set);
+        }
+        return set;
+    }
+
+    /**
+     * @return the sampler's handle for the check, or null if the check is not sampled
+     */
+    private CheckSampler.Check sampled(String check) {
+        return sampler != null && sampler.getChecks().contains(check) ? sampler.check(check) : null;
+    }
+
+    /**
+     * @return true if the sampled check is skipped on this thread's current request
+     */
+    private static boolean skipped(CheckSampler.Check sample) {
+        return sample != null && !sample.shouldRun();
+    }
+
+    /**
+     * @return the start time of a check being timed, or 0 if latencies are not recorded
+     */
+    private long startTiming() {
+        return latencyRecorder == null ? 0 : System.nanoTime();
+    }
+
+    private void stopTiming(String check, long start) {
+        if (latencyRecorder != null) {
+            long nanos = System.nanoTime() - start;
+            latencyRecorder.record(check, latencyRecorder.isByReference() ? findReference().getCode() : null, nanos);
+        }
+    }
+
+    private BorderException failure(ExceptionFactory factory, String mesg) {
+        BorderReference reference = findReference();
+        BorderException ex = factory.create(reference.getCode(), mesg, writableStackTrace);
+        ex.setReference(reference);
+        Border.recordFailure(ex);
+        if (FlightRecorder.isInitialized()) {
+            ValidationFailureEvent event = new ValidationFailureEvent();
+            if (event.isEnabled()) {
+                event.setCheck(ex.getClass().getSimpleName());
+                event.setCode(ex.getCode());
+                event.setMessage(mesg);
+                event.commit();
+            }
+        }
+        return ex;
+    }
+
+    private BorderReference findReference() {
+        if (referenceStrategy == ReferenceStrategy.NONE) {
+            return BorderReference.NONE;
+        }
+        return Caller.WALKER.walk(Caller.FIND);
+    }
+
+    /**
+     * Creates the exception thrown by a failed check
+     */
+    @FunctionalInterface
+    private interface ExceptionFactory {
+        BorderException create(String code, String message, boolean writableStackTrace);
+    }
+
+    /**
+     * Holds the default email regex, compiled when an email is first checked
+     * rather than when the policy is created
+     */
+    private static final class Email {
+        static final Pattern ADDRESS = Pattern.compile("^[A-Z0-9.!#$%&'*+/=?^_`{|}~-]+@[A-Z0-9](?:[a-zA-Z0-9-]{0,61}[A-Z0-9])?(?:\\.[A-Z0-9](?:[A-Z0-9-]{0,61}[a-zA-Z0-9])?)*$", Pattern.CASE_INSENSITIVE);
+
+        /**
+         * The domain part of ADDRESS, used to cache results per domain
+         */
+        static final Pattern DOMAIN = Pattern.compile("[A-Z0-9](?:[a-zA-Z0-9-]{0,61}[A-Z0-9])?(?:\\.[A-Z0-9](?:[A-Z0-9-]{0,61}[a-zA-Z0-9])?)*", Pattern.CASE_INSENSITIVE);
+
+        /**
+         * The characters allowed in the local part of ADDRESS
+         */
+        static final boolean[] LOCAL_CHARS = new boolean[128];
+
+        static {
+            String specials = ".!#$%&'*+/=?^_`{|}~-";
+            for (char c = 'A'; c <= 'Z'; c++) {
+                LOCAL_CHARS[c] = true;
+                LOCAL_CHARS[Character.toLowerCase(c)] = true;
+            }
+            for (char c = '0'; c <= '9'; c++) {
+                LOCAL_CHARS[c] = true;
+            }
+            for (int i = 0; i < specials.length(); i++) {
+                LOCAL_CHARS[specials.charAt(i)] = true;
+            }
+        }
+    }
+
+    /**
+     * Finds the reference of the code that called a check. Loaded on the
+     * first failure, and written without lambdas or stream operations so
+     * that the first failure does not have to bootstrap them. The reference
+     * is interned by class and line, so its code is only built once.
+     * Classes marked as a CheckHelper are skipped too, so that the failures
+     * of rules read from a rule file refer to the code that applied them.
+     */
+    private static final class Caller implements Function<Stream<StackWalker.StackFrame>, BorderReference> {
+        static final StackWalker WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+        static final Caller FIND = new Caller();
+        private static final ClassValue<Boolean> HELPERS = new ClassValue<Boolean>() {
+            @Override
+            protected Boolean computeValue(Class<?> type) {
+                return type.isAnnotationPresent(CheckHelper.class);
+            }
+        };
+
+        @Override
+        public BorderReference apply(Stream<StackWalker.StackFrame> frames) {
+            Iterator<StackWalker.StackFrame> it = frames.iterator();
+            while (it.hasNext()) {
+                StackWalker.StackFrame frame = it.next();
+                Class<?> clz = frame.getDeclaringClass();
+                if (clz != Border.class && clz != BorderPolicy.class && !HELPERS.get(clz)) {
+                    return BorderReference.of(clz, frame.getLineNumber());
+                }
+            }
+            return BorderReference.NONE;
+        }
+    }
+
+    public static final class Builder {
+        /**
+         * Null for the default email regex, which is only compiled when first used
+         */
+        private Pattern emailPattern;
+        private int patternCacheSize = DEFAULT_PATTERN_CACHE_SIZE;
+        private int resultCacheSize;
+        private ExceptionMode exceptionMode = ExceptionMode.STACK_TRACE;
+        private ReferenceStrategy referenceStrategy = ReferenceStrategy.CALLER;
+        private LatencyRecorder latencyRecorder;
+        private CheckSampler sampler;
+
+        private Builder() {
+        }
+
+        /**
+         * @param emailRegex Regex that valid email addresses match
+         * @return this builder
+         */
+        public Builder emailRegex(String emailRegex) {
+            this.emailPattern = Pattern.compile(emailRegex);
+            return this;
+        }
+
+        /**
+         * @param emailPattern Pattern that valid email addresses match
+         * @return this builder
+         */
+        public Builder emailPattern(Pattern emailPattern) {
+            this.emailPattern = Objects.requireNonNull(emailPattern, "emailPattern");
+            return this;
+        }
+
+        /**
+         * @param patternCacheSize Max number of compiled checkPattern patterns kept, 0 to compile every time
+         * @return this builder
+         */
+        public Builder patternCacheSize(int patternCacheSize) {
+            if (patternCacheSize < 0) {
+                throw new IllegalArgumentException("patternCacheSize must not be negative");
+            }
+            this.patternCacheSize = patternCacheSize;
+            return this;
+        }
+
+        /**
+         * @param resultCacheSize Max number of checkPattern and checkValidEmail results kept, 0 to disable
+         * @return this builder
+         */
+        public Builder resultCacheSize(int resultCacheSize) {
+            if (resultCacheSize < 0) {
+                throw new IllegalArgumentException("resultCacheSize must not be negative");
+            }
+            this.resultCacheSize = resultCacheSize;
+            return this;
+        }
+
+        public Builder exceptionMode(ExceptionMode exceptionMode) {
+            this.exceptionMode = Objects.requireNonNull(exceptionMode, "exceptionMode");
+            return this;
+        }
+
+        public Builder referenceStrategy(ReferenceStrategy referenceStrategy) {
+            this.referenceStrategy = Objects.requireNonNull(referenceStrategy, "referenceStrategy");
+            return this;
+        }
+
+        /**
+         * Records the checks listed in LatencyRecorder. A recorder that
+         * records by reference code walks the stack on every recorded
+         * check, including those that pass.
+         *
+         * @param latencyRecorder Recorder of how long checks take, null to not record
+         * @return this builder
+         */
+        public Builder latencyRecorder(LatencyRecorder latencyRecorder) {
+            this.latencyRecorder = latencyRecorder;
+            return this;
+        }
+
+        /**
+         * @param sampler Sampler deciding when its checks run, null to always run every check
+         * @return this builder
+         */
+        public Builder sampler(CheckSampler sampler) {
+            this.sampler = sampler;
+            return this;
+        }
+
+        public BorderPolicy build() {
+            return new BorderPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Combinators for the predicates given to Border.checkThat.
+ * <p>
+ * Unlike Predicate.and() and or(), which build a chain of nested lambdas,
+ * allOf and anyOf hold their predicates in one array and test them in a
+ * single loop. Combining the result of allOf with allOf again (or anyOf
+ * with anyOf) flattens into the same array instead of nesting.
+ */
+public class BorderPredicates {
+    private BorderPredicates() {
+    }
+
+    /**
+     * @param predicates Predicates that must all be satisfied, tested in order
+     * @param <T>        Type of the value
+     * @return a predicate satisfied when every predicate is
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T> Predicate<T> allOf(Predicate<? super T>... predicates) {
+        return new AllOf<T>(BorderPredicates.<Predicate<? super T>>flatten(AllOf.class, predicates));
+    }
+
+    /**
+     * @param predicates Predicates of which at least one must be satisfied, tested in order
+     * @param <T>        Type of the value
+     * @return a predicate satisfied when any predicate is
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T> Predicate<T> anyOf(Predicate<? super T>... predicates) {
+        return new AnyOf<T>(BorderPredicates.<Predicate<? super T>>flatten(AnyOf.class, predicates));
+    }
+
+    /**
+     * @param predicates Predicates that must all be satisfied, tested in order
+     * @return a predicate satisfied when every predicate is
+     */
+    public static IntPredicate allOfInt(IntPredicate... predicates) {
+        return new AllOfInt(flatten(AllOfInt.class, predicates));
+    }
+
+    /**
+     * @param predicates Predicates of which at least one must be satisfied, tested in order
+     * @return a predicate satisfied when any predicate is
+     */
+    public static IntPredicate anyOfInt(IntPredicate... predicates) {
+        return new AnyOfInt(flatten(AnyOfInt.class, predicates));
+    }
+
+    /**
+     * @param predicates Predicates that must all be satisfied, tested in order
+     * @return a predicate satisfied when every predicate is
+     */
+    public static LongPredicate allOfLong(LongPredicate... predicates) {
+        return new AllOfLong(flatten(AllOfLong.class, predicates));
+    }
+
+    /**
+     * @param predicates Predicates of which at least one must be satisfied, tested in order
+     * @return a predicate satisfied when any predicate is
+     */
+    public static LongPredicate anyOfLong(LongPredicate... predicates) {
+        return new AnyOfLong(flatten(AnyOfLong.class, predicates));
+    }
+
+    /**
+     * @param min Min value, inclusive
+     * @param max Max value, inclusive
+     * @return a predicate satisfied by values between min and max
+     */
+    public static IntPredicate between(int min, int max) {
+        return value -> value >= min && value <= max;
+    }
+
+    /**
+     * @param min Min value, inclusive
+     * @param max Max value, inclusive
+     * @return a predicate satisfied by values between min and max
+     */
+    public static LongPredicate between(long min, long max) {
+        return value -> value >= min && value <= max;
+    }
+
+    //
+    // Internal Methods...
+    //
+
+    /**
+     * Copies the predicates, splicing in the parts of any that are the same combinator
+     */
+    @SuppressWarnings("unchecked")
+    private static <P> P[] flatten(Class<?> type, P[] predicates) {
+        List<P> parts = new ArrayList<>(predicates.length);
+        for (P predicate : predicates) {
+            if (predicate == null) {
+                throw new NullPointerException("predicate");
+            }
+            if (predicate.getClass() == type) {
+                for (Object part : ((Combinator<?>) predicate).parts()) {
+                    parts.add((P) part);
+                }
+            } else {
+                parts.add(predicate);
+            }
+        }
+        return parts.toArray(Arrays.copyOf(predicates, 0));
+    }
+
+    private interface Combinator<P> {
+        P[] parts();
+    }
+
+    private static final class AllOf<T> implements Predicate<T>, Combinator<Predicate<? super T>> {
+        private final Predicate<? super T>[] parts;
+
+        AllOf(Predicate<? super T>[] parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public boolean test(T value) {
+            for (Predicate<? super T> part : parts) {
+                if (!part.test(value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Predicate<? super T>[] parts() {
+            return parts;
+        }
+    }
+
+    private static final class AnyOf<T> implements Predicate<T>, Combinator<Predicate<? super T>> {
+        private final Predicate<? super T>[] parts;
+
+        AnyOf(Predicate<? super T>[] parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public boolean test(T value) {
+            for (Predicate<? super T> part : parts) {
+                if (part.test(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Predicate<? super T>[] parts() {
+            return parts;
+        }
+    }
+
+    private static final class AllOfInt implements IntPredicate, Combinator<IntPredicate> {
+        private final IntPredicate[] parts;
+
+        AllOfInt(IntPredicate[] parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public boolean test(int value) {
+            for (IntPredicate part : parts) {
+                if (!part.test(value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public IntPredicate[] parts() {
+            return parts;
+        }
+    }
+
+    private static final class AnyOfInt implements IntPredicate, Combinator<IntPredicate> {
+        private final IntPredicate[] parts;
+
+        AnyOfInt(IntPredicate[] parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public boolean test(int value) {
+            for (IntPredicate part : parts) {
+                if (part.test(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public IntPredicate[] parts() {
+            return parts;
+        }
+    }
+
+    private static final class AllOfLong implements LongPredicate, Combinator<LongPredicate> {
+        private final LongPredicate[] parts;
+
+        AllOfLong(LongPredicate[] parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public boolean test(long value) {
+            for (LongPredicate part : parts) {
+                if (!part.test(value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public LongPredicate[] parts() {
+            return parts;
+        }
+    }
+
+    private static final class AnyOfLong implements LongPredicate, Combinator<LongPredicate> {
+        private final LongPredicate[] parts;
+
+        AnyOfLong(LongPredicate[] parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public boolean test(long value) {
+            for (LongPredicate part : parts) {
+                if (part.test(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public LongPredicate[] parts() {
+            return parts;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Common character classes that checkCharClass tests without a regex.
+ * <p>
+ * Strings are scanned a char at a time against a 128 bit mask. Bytes, as
+ * read by the bulk validators, are scanned 8 at a time: each range of the
+ * class is tested on a whole long with two additions, so a run of valid
+ * characters costs a few instructions per 8 bytes.
+ */
+public enum CharClass {
+    /**
+     * ASCII printable characters, space to tilde: [ -~]*
+     */
+    PRINTABLE(' ', '~'),
+    /**
+     * ASCII digits: [0-9]*
+     */
+    DIGITS('0', '9'),
+    /**
+     * ASCII letters and digits: [A-Za-z0-9]*
+     */
+    ALPHANUMERIC('A', 'Z', 'a', 'z', '0', '9'),
+    /**
+     * Hex digits in either case: [0-9A-Fa-f]*
+     */
+    HEX('0', '9', 'A', 'F', 'a', 'f'),
+    /**
+     * Standard base64, a multiple of 4 characters including up to two '=' of padding
+     */
+    BASE64('A', 'Z', 'a', 'z', '0', '9', '+', '+', '/', '/'),
+    /**
+     * URL safe base64, with '-' and '_' in place of '+' and '/', and the padding optional
+     */
+    BASE64URL('A', 'Z', 'a', 'z', '0', '9', '-', '-', '_', '_'),
+    /**
+     * A lowercase slug: words of [a-z0-9] joined by single '-', such as "order-42"
+     */
+    SLUG('a', 'z', '0', '9', '-', '-');
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private final long low;
+    private final long high;
+    private final long[] atLeast;
+    private final long[] above;
+
+    CharClass(char... ranges) {
+        long low = 0;
+        long high = 0;
+        atLeast = new long[ranges.length / 2];
+        above = new long[ranges.length / 2];
+        for (int r = 0; r < ranges.length; r += 2) {
+            for (char c = ranges[r]; c <= ranges[r + 1]; c++) {
+                if (c < 64) {
+                    low |= 1L << c;
+                } else {
+                    high |= 1L << (c - 64);
+                }
+            }
+            // Per byte x < 128: x + (0x80 - first) has the high bit set when x >= first,
+            // and x + (0x7f - last) has it set when x > last, without carrying between bytes
+            atLeast[r / 2] = (0x80 - ranges[r]) * ONES;
+            above[r / 2] = (0x7f - ranges[r + 1]) * ONES;
+        }
+        this.low = low;
+        this.high = high;
+    }
+
+    /**
+     * @param c Character being tested
+     * @return true if the character is in the class
+     */
+    public boolean contains(int c) {
+        if (c < 64) {
+            return c >= 0 && (low & (1L << c)) != 0;
+        }
+        return c < 128 && (high & (1L << (c - 64))) != 0;
+    }
+
+    /**
+     * @param value Value being tested
+     * @return true if every character of the value is in the class, and it has the shape the class needs
+     */
+    public boolean matches(CharSequence value) {
+        int len = value.length();
+        int end = len;
+        if (this == BASE64 || this == BASE64URL) {
+            while (end > 0 && len - end < 2 && value.charAt(end - 1) == '=') {
+                end--;
+            }
+            if (!validLength(len, len - end)) {
+                return false;
+            }
+        }
+        for (int i = 0; i < end; i++) {
+            if (!contains(value.charAt(i))) {
+                return false;
+            }
+        }
+        if (this == SLUG) {
+            for (int i = 0; i < len; i++) {
+                if (value.charAt(i) == '-' && (i == 0 || i == len - 1 || value.charAt(i - 1) == '-')) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tests the bytes in [from, to) of the buffer, each one an ISO-8859-1
+     * character, 8 bytes at a time
+     *
+     * @param buf  Buffer holding the value
+     * @param from Index of the first byte
+     * @param to   Index after the last byte
+     * @return true if every character of the value is in the class, and it has the shape the class needs
+     */
+    public boolean matches(ByteBuffer buf, int from, int to) {
+        int len = to - from;
+        int end = to;
+        if (this == BASE64 || this == BASE64URL) {
+            while (end > from && to - end < 2 && buf.get(end - 1) == '=') {
+                end--;
+            }
+            if (!validLength(len, to - end)) {
+                return false;
+            }
+        }
+        int i = from;
+        for (; i + 8 <= end; i += 8) {
+            long x = buf.getLong(i);
+            if ((x & HIGH_BITS) != 0) {
+                return false;
+            }
+            long in = 0;
+            for (int r = 0; r < atLeast.length; r++) {
+                in |= (x + atLeast[r]) & ~(x + above[r]);
+            }
+            if ((in & HIGH_BITS) != HIGH_BITS) {
+                return false;
+            }
+        }
+        for (; i < end; i++) {
+            if (!contains(buf.get(i) & 0xff)) {
+                return false;
+            }
+        }
+        if (this == SLUG && len > 0) {
+            if (buf.get(from) == '-' || buf.get(to - 1) == '-') {
+                return false;
+            }
+            for (i = from + 1; i < to; i++) {
+                if (buf.get(i) == '-' && buf.get(i - 1) == '-') {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Padded base64 is a multiple of 4 characters. Unpadded URL safe base64
+     * can stop anywhere but one character into a group of 4.
+     */
+    private boolean validLength(int len, int padding) {
+        if (this == BASE64 || padding > 0) {
+            return len % 4 == 0;
+        }
+        return len % 4 != 1;
+    }
+}
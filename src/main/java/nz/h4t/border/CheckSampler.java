@@ -0,0 +1,270 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs expensive checks on only some requests, so that validation stays
+ * within a latency budget under load instead of traffic being shed.
+ * <p>
+ * Requests are marked with begin(), in a try-with-resources block. At the
+ * start of each request the sampler decides whether the request runs its
+ * sampled checks; if not, those checks pass without running, while every
+ * other check runs as normal. Checks made outside a request always run.
+ * Requests do not nest: a thread must close its request before beginning
+ * another on the same sampler.
+ * <p>
+ * The sampler keeps moving averages of how long requests take with and
+ * without their sampled checks, and picks the rate so that the average
+ * request fits the budget: rate = (budget - without) / (with - without),
+ * between minRate and 1.
+ * <p>
+ * Given to BorderPolicy.Builder.sampler(), the sampled checks are
+ * checkPattern, checkValidEmail and the checkThat variants, or those of
+ * them that are named; null and length checks inside them still run. Validator rules
+ * added with sampledRule() are sampled by the validator's sampler. The
+ * number of sampled checks run and skipped is counted by check, to measure
+ * how much validation coverage was lost.
+ */
+public final class CheckSampler {
+    /**
+     * The checks sampled unless some of them are named, and the only
+     * BorderPolicy checks that can be sampled
+     */
+    public static final Set<String> DEFAULT_CHECKS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "checkPattern", "checkValidEmail", "checkThat", "checkIntThat", "checkLongThat")));
+
+    private static final double DEFAULT_MIN_RATE = 0.01;
+    private static final double WEIGHT = 0.05;
+
+    private final long budgetNanos;
+    private final double minRate;
+    private final Set<String> checks;
+    private final ConcurrentHashMap<String, Check> counts = new ConcurrentHashMap<>();
+    private final ThreadLocal<Request> requests = ThreadLocal.withInitial(Request::new);
+    /**
+     * Moving averages of request nanoseconds, as double bits
+     */
+    private final AtomicLong withChecks = new AtomicLong(Double.doubleToRawLongBits(Double.NaN));
+    private final AtomicLong withoutChecks = new AtomicLong(Double.doubleToRawLongBits(0));
+
+    /**
+     * Samples the default checks, never running them on fewer than 1% of requests
+     *
+     * @param budget Average time a request may spend validating
+     */
+    public CheckSampler(Duration budget) {
+        this(budget, DEFAULT_MIN_RATE, DEFAULT_CHECKS);
+    }
+
+    /**
+     * @param budget  Average time a request may spend validating
+     * @param minRate Lowest fraction of requests that run the sampled checks
+     * @param checks  Names of the BorderPolicy checks to sample, from DEFAULT_CHECKS
+     */
+    public CheckSampler(Duration budget, double minRate, Set<String> checks) {
+        if (budget.isNegative() || budget.isZero()) {
+            throw new IllegalArgumentException("budget must be positive");
+        }
+        if (minRate < 0 || minRate > 1) {
+            throw new IllegalArgumentException("minRate must be between 0 and 1");
+        }
+        for (String check : checks) {
+            if (!DEFAULT_CHECKS.contains(check)) {
+                throw new IllegalArgumentException("Cannot sample " + check + ", only " + new TreeSet<>(DEFAULT_CHECKS));
+            }
+        }
+        this.budgetNanos = budget.toNanos();
+        this.minRate = minRate;
+        this.checks = Collections.unmodifiableSet(new HashSet<>(checks));
+    }
+
+    /**
+     * Starts a request on this thread. The same object is returned for
+     * every request on a thread, so marking a request allocates nothing.
+     *
+     * @return the request, to be closed when the request is validated
+     * @throws IllegalStateException if the thread has not closed its last request
+     */
+    public Request begin() {
+        Request request = requests.get();
+        if (request.active) {
+            throw new IllegalStateException("A request is already in progress on this thread");
+        }
+        request.active = true;
+        request.runChecks = ThreadLocalRandom.current().nextDouble() < getSamplingRate();
+        request.start = System.nanoTime();
+        return request;
+    }
+
+    /**
+     * @return the fraction of requests currently running the sampled checks
+     */
+    public double getSamplingRate() {
+        double with = Double.longBitsToDouble(withChecks.get());
+        if (Double.isNaN(with)) {
+            return 1;
+        }
+        double without = Double.longBitsToDouble(withoutChecks.get());
+        if (with <= budgetNanos || with <= without) {
+            return 1;
+        }
+        double rate = (budgetNanos - without) / (with - without);
+        return Math.max(minRate, Math.min(1, rate));
+    }
+
+    /**
+     * @return the names of the BorderPolicy checks sampled
+     */
+    public Set<String> getChecks() {
+        return checks;
+    }
+
+    /**
+     * @param check Name of a check or rule
+     * @return the number of times it ran
+     */
+    public long getExecutedCount(String check) {
+        Check counter = counts.get(check);
+        return counter == null ? 0 : counter.executed.sum();
+    }
+
+    /**
+     * @param check Name of a check or rule
+     * @return the number of times it was skipped
+     */
+    public long getSkippedCount(String check) {
+        Check counter = counts.get(check);
+        return counter == null ? 0 : counter.skipped.sum();
+    }
+
+    /**
+     * @return the fraction of sampled checks that ran, by check or rule name
+     */
+    public Map<String, Double> getCoverage() {
+        Map<String, Double> coverage = new TreeMap<>();
+        for (Map.Entry<String, Check> entry : counts.entrySet()) {
+            long executed = entry.getValue().executed.sum();
+            long total = executed + entry.getValue().skipped.sum();
+            coverage.put(entry.getKey(), total == 0 ? 1.0 : (double) executed / total);
+        }
+        return coverage;
+    }
+
+    /**
+     * @param name Name of a check or rule
+     * @return the handle that decides whether it runs and counts it
+     */
+    Check check(String name) {
+        return counts.computeIfAbsent(name, n -> new Check(this));
+    }
+
+    //
+    // Internal Methods...
+    //
+
+    private void update(AtomicLong average, long nanos) {
+        long bits;
+        double next;
+        do {
+            bits = average.get();
+            double current = Double.longBitsToDouble(bits);
+            next = Double.isNaN(current) ? nanos : current + WEIGHT * (nanos - current);
+        } while (!average.compareAndSet(bits, Double.doubleToRawLongBits(next)));
+    }
+
+    /**
+     * A sampled check or rule, resolved once so that deciding and counting
+     * does not look up the name
+     */
+    static final class Check {
+        private final CheckSampler sampler;
+        private final LongAdder executed = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+
+        private Check(CheckSampler sampler) {
+            this.sampler = sampler;
+        }
+
+        /**
+         * @return true if the check should run on this thread's current request
+         */
+        boolean shouldRun() {
+            Request request = sampler.requests.get();
+            if (!request.active || request.runChecks) {
+                executed.increment();
+                return true;
+            }
+            skipped.increment();
+            return false;
+        }
+    }
+
+    /**
+     * A request being validated on one thread
+     */
+    public final class Request implements AutoCloseable {
+        private boolean active;
+        private boolean runChecks;
+        private long start;
+
+        private Request() {
+        }
+
+        /**
+         * @return true if this request runs its sampled checks
+         */
+        public boolean isRunningChecks() {
+            return runChecks;
+        }
+
+        /**
+         * Ends the request and records how long it took
+         */
+        @Override
+        public void close() {
+            if (!active) {
+                return;
+            }
+            active = false;
+            update(runChecks ? withChecks : withoutChecks, System.nanoTime() - start);
+        }
+    }
+}
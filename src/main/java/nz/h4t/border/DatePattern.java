@@ -0,0 +1,483 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A date or date-time text format that checkValidDate and checkValidDateTime
+ * test strings against.
+ * <p>
+ * Patterns made only of 4 digit years (yyyy or uuuu), 2 digit months, days,
+ * hours, minutes and seconds (MM dd HH mm ss) and literal text, such as
+ * dd/MM/yyyy or yyyyMMddHHmmss, are validated by a hand-written parser in
+ * one pass over the characters, without creating any objects or
+ * exceptions. ISO_DATE and ISO_DATE_TIME are parsed the same way, except
+ * for years beyond 9999, which are rare enough to be left to the
+ * DateTimeFormatter. Other patterns are parsed by a DateTimeFormatter that
+ * is created once and cached, with invalid text found without an exception
+ * being thrown. Either way, days that do not exist, such as 30 February,
+ * are invalid.
+ */
+public final class DatePattern {
+    /**
+     * An ISO date, yyyy-MM-dd, as read by LocalDate.parse()
+     */
+    public static final DatePattern ISO_DATE = new DatePattern("uuuu-MM-dd",
+            DateTimeFormatter.ISO_LOCAL_DATE, true, false);
+    /**
+     * An ISO date-time, yyyy-MM-ddTHH:mm with optional seconds and fraction,
+     * as read by LocalDateTime.parse()
+     */
+    public static final DatePattern ISO_DATE_TIME = new DatePattern("uuuu-MM-dd'T'HH:mm",
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME, true, true);
+
+    private static final int MAX_CACHED = 256;
+    private static final ConcurrentHashMap<String, DatePattern> CACHE = new ConcurrentHashMap<>();
+
+    private static final long INVALID = Long.MIN_VALUE;
+    private static final long DAYS_0000_TO_1970 = 719_528;
+
+    private static final byte LITERAL = 0;
+    private static final byte YEAR = 1;
+    private static final byte MONTH = 2;
+    private static final byte DAY = 3;
+    private static final byte HOUR = 4;
+    private static final byte MINUTE = 5;
+    private static final byte SECOND = 6;
+
+    private final String pattern;
+    private final DateTimeFormatter formatter;
+    private final boolean iso;
+    /**
+     * Whether seconds and a fraction may follow the layout, as in an ISO time
+     */
+    private final boolean isoTime;
+    /**
+     * What each character of the text is, or null if the pattern is left to the formatter
+     */
+    private final byte[] layout;
+    private final char[] literals;
+    private final boolean hasDate;
+    private final boolean hasTime;
+    /**
+     * A year of era, yyyy, starts at 1 rather than 0
+     */
+    private final int minYear;
+
+    private DatePattern(String pattern, DateTimeFormatter formatter, boolean iso, boolean isoTime) {
+        this.pattern = pattern;
+        this.formatter = formatter;
+        this.iso = iso;
+        this.isoTime = isoTime;
+        byte[] layout = new byte[pattern.length()];
+        char[] literals = new char[pattern.length()];
+        int len = compile(pattern, layout, literals);
+        this.layout = len < 0 ? null : Arrays.copyOf(layout, len);
+        this.literals = len < 0 ? null : Arrays.copyOf(literals, len);
+        this.hasDate = has(YEAR) && has(MONTH) && has(DAY);
+        this.hasTime = has(HOUR) && has(MINUTE);
+        this.minYear = pattern.indexOf('y') >= 0 ? 1 : 0;
+    }
+
+    /**
+     * Returns the date pattern for a DateTimeFormatter pattern. Up to 256
+     * patterns are cached; further patterns are created on every call.
+     *
+     * @param pattern Pattern, as given to DateTimeFormatter.ofPattern()
+     * @return the date pattern
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public static DatePattern of(String pattern) {
+        DatePattern datePattern = CACHE.get(pattern);
+        if (datePattern == null) {
+            datePattern = new DatePattern(pattern, DateTimeFormatter.ofPattern(pattern), false, false);
+            if (CACHE.size() < MAX_CACHED) {
+                DatePattern existing = CACHE.putIfAbsent(pattern, datePattern);
+                if (existing != null) {
+                    datePattern = existing;
+                }
+            }
+        }
+        return datePattern;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @param str Text being tested
+     * @return true if the text is a valid date in this pattern
+     */
+    public boolean isValidDate(CharSequence str) {
+        return isDateBetween(str, null, null);
+    }
+
+    /**
+     * @param str  Text being tested
+     * @param from Earliest date allowed, or null for no lower limit
+     * @param to   Latest date allowed, or null for no upper limit
+     * @return true if the text is a valid date in this pattern, between the dates
+     */
+    public boolean isDateBetween(CharSequence str, LocalDate from, LocalDate to) {
+        if (layout != null && hasDate) {
+            long seconds = parse(str);
+            if (seconds != INVALID) {
+                long day = Math.floorDiv(seconds, 86_400);
+                return (from == null || day >= from.toEpochDay()) && (to == null || day <= to.toEpochDay());
+            }
+            if (!isExtendedYear(str)) {
+                return false;
+            }
+        }
+        LocalDate date = parseDate(str);
+        return date != null && (from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to));
+    }
+
+    /**
+     * @param str Text being tested
+     * @return true if the text is a valid date-time in this pattern
+     */
+    public boolean isValidDateTime(CharSequence str) {
+        return isDateTimeBetween(str, null, null);
+    }
+
+    /**
+     * @param str  Text being tested
+     * @param from Earliest date-time allowed, or null for no lower limit
+     * @param to   Latest date-time allowed, or null for no upper limit
+     * @return true if the text is a valid date-time in this pattern, between the date-times
+     */
+    public boolean isDateTimeBetween(CharSequence str, LocalDateTime from, LocalDateTime to) {
+        if (layout != null && hasDate && hasTime) {
+            long seconds = parse(str);
+            if (seconds != INVALID) {
+                return (from == null || compare(str, seconds, from) >= 0)
+                        && (to == null || compare(str, seconds, to) <= 0);
+            }
+            if (!isExtendedYear(str)) {
+                return false;
+            }
+        }
+        LocalDateTime dateTime = parseDateTime(str);
+        return dateTime != null && (from == null || !dateTime.isBefore(from)) && (to == null || !dateTime.isAfter(to));
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+
+    //
+    // Internal Methods...
+    //
+
+    /**
+     * Fills in the layout of a pattern the hand-written parser can read
+     *
+     * @return the length of text the pattern matches, or -1 if the formatter must be used
+     */
+    private static int compile(String pattern, byte[] layout, char[] literals) {
+        int len = 0;
+        int i = 0;
+        int seen = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                int end = pattern.indexOf('\'', i + 1);
+                if (end < 0) {
+                    return -1;
+                }
+                if (end == i + 1) {
+                    literals[len++] = '\'';
+                }
+                for (int j = i + 1; j < end; j++) {
+                    literals[len++] = pattern.charAt(j);
+                }
+                i = end + 1;
+            } else if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')) {
+                int run = i;
+                while (run < pattern.length() && pattern.charAt(run) == c) {
+                    run++;
+                }
+                int count = run - i;
+                byte field = field(c);
+                if (field == LITERAL || count != (field == YEAR ? 4 : 2) || (seen & (1 << field)) != 0) {
+                    return -1;
+                }
+                seen |= 1 << field;
+                for (int j = 0; j < count; j++) {
+                    layout[len++] = field;
+                }
+                i = run;
+            } else if (c == '[' || c == ']' || c == '{' || c == '}' || c == '#') {
+                return -1;
+            } else {
+                literals[len++] = c;
+                i++;
+            }
+        }
+        return len;
+    }
+
+    private static byte field(char c) {
+        switch (c) {
+            case 'y':
+            case 'u':
+                return YEAR;
+            case 'M':
+                return MONTH;
+            case 'd':
+                return DAY;
+            case 'H':
+                return HOUR;
+            case 'm':
+                return MINUTE;
+            case 's':
+                return SECOND;
+            default:
+                return LITERAL;
+        }
+    }
+
+    private boolean has(byte field) {
+        if (layout == null) {
+            return false;
+        }
+        for (byte b : layout) {
+            if (b == field) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses the text with the layout
+     *
+     * @return seconds since 1970-01-01T00:00, or INVALID
+     */
+    private long parse(CharSequence str) {
+        int len = layout.length;
+        int strLen = str.length();
+        if (strLen < len || (strLen > len && !isoTime)) {
+            return INVALID;
+        }
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        for (int i = 0; i < len; i++) {
+            char c = str.charAt(i);
+            byte field = layout[i];
+            if (field == LITERAL) {
+                if (c != literals[i]) {
+                    return INVALID;
+                }
+                continue;
+            }
+            int digit = c - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID;
+            }
+            switch (field) {
+                case YEAR:
+                    year = year * 10 + digit;
+                    break;
+                case MONTH:
+                    month = month * 10 + digit;
+                    break;
+                case DAY:
+                    day = day * 10 + digit;
+                    break;
+                case HOUR:
+                    hour = hour * 10 + digit;
+                    break;
+                case MINUTE:
+                    minute = minute * 10 + digit;
+                    break;
+                default:
+                    second = second * 10 + digit;
+                    break;
+            }
+        }
+        if (strLen > len && (second = isoSeconds(str, len)) < 0) {
+            return INVALID;
+        }
+        if (year < minYear || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+                || hour > 23 || minute > 59 || second > 59) {
+            return INVALID;
+        }
+        return epochDay(year, month, day) * 86_400 + hour * 3600 + minute * 60 + second;
+    }
+
+    /**
+     * Reads the optional :ss and .fraction after an ISO time
+     *
+     * @return the seconds, or -1 if the rest of the text is invalid
+     */
+    private static int isoSeconds(CharSequence str, int pos) {
+        int len = str.length();
+        if (len < pos + 3 || str.charAt(pos) != ':' || !isDigit(str.charAt(pos + 1)) || !isDigit(str.charAt(pos + 2))) {
+            return -1;
+        }
+        int second = (str.charAt(pos + 1) - '0') * 10 + str.charAt(pos + 2) - '0';
+        pos += 3;
+        if (pos < len) {
+            if (str.charAt(pos) != '.' || len - pos - 1 < 1 || len - pos - 1 > 9) {
+                return -1;
+            }
+            for (int i = pos + 1; i < len; i++) {
+                if (!isDigit(str.charAt(i))) {
+                    return -1;
+                }
+            }
+        }
+        return second;
+    }
+
+    /**
+     * Compares a date-time read by parse() with a bound, looking at the
+     * fraction of a second only when the seconds are equal
+     */
+    private int compare(CharSequence str, long seconds, LocalDateTime bound) {
+        long boundSeconds = bound.toEpochSecond(ZoneOffset.UTC);
+        if (seconds != boundSeconds) {
+            return seconds < boundSeconds ? -1 : 1;
+        }
+        return Integer.compare(nanos(str), bound.getNano());
+    }
+
+    private int nanos(CharSequence str) {
+        int pos = layout.length + 3;
+        if (!isoTime || str.length() <= pos) {
+            return 0;
+        }
+        int nanos = 0;
+        for (int i = pos + 1; i < pos + 10; i++) {
+            nanos = nanos * 10 + (i < str.length() ? str.charAt(i) - '0' : 0);
+        }
+        return nanos;
+    }
+
+    /**
+     * ISO years beyond 9999 start with a sign, and are left to the formatter
+     */
+    private boolean isExtendedYear(CharSequence str) {
+        return iso && str.length() > 0 && (str.charAt(0) == '+' || str.charAt(0) == '-');
+    }
+
+    private LocalDate parseDate(CharSequence str) {
+        TemporalAccessor fields = parseFields(str);
+        if (fields == null) {
+            return null;
+        }
+        try {
+            LocalDate date = LocalDate.from(formatter.parse(str));
+            return sameDay(fields, date.getDayOfMonth()) ? date : null;
+        } catch (DateTimeException ex) {
+            return null;
+        }
+    }
+
+    private LocalDateTime parseDateTime(CharSequence str) {
+        TemporalAccessor fields = parseFields(str);
+        if (fields == null) {
+            return null;
+        }
+        try {
+            LocalDateTime dateTime = LocalDateTime.from(formatter.parse(str));
+            return sameDay(fields, dateTime.getDayOfMonth()) ? dateTime : null;
+        } catch (DateTimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses the text without resolving it, which reports malformed text
+     * without throwing an exception
+     */
+    private TemporalAccessor parseFields(CharSequence str) {
+        ParsePosition pos = new ParsePosition(0);
+        TemporalAccessor fields = formatter.parseUnresolved(str, pos);
+        return fields == null || pos.getErrorIndex() >= 0 || pos.getIndex() != str.length() ? null : fields;
+    }
+
+    /**
+     * A formatter that resolves smartly moves a day past the end of the
+     * month back to its last day, so the day parsed is checked as well
+     */
+    private static boolean sameDay(TemporalAccessor fields, int dayOfMonth) {
+        return !fields.isSupported(ChronoField.DAY_OF_MONTH) || fields.getLong(ChronoField.DAY_OF_MONTH) == dayOfMonth;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * The same as LocalDate.toEpochDay(), for years 0 to 9999
+     */
+    private static long epochDay(int year, int month, int day) {
+        long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12 + day - 1;
+        if (month > 2) {
+            total--;
+            if (lengthOfMonth(year, 2) == 28) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+/**
+ * Format and checksum validation of structured identifiers, each in a
+ * single pass over the characters without creating any objects.
+ */
+final class Identifiers {
+    static final int VALID = 0;
+    static final int WRONG_LENGTH = 1;
+    static final int WRONG_FORMAT = 2;
+    static final int WRONG_CHECKSUM = 3;
+
+    private Identifiers() {
+    }
+
+    /**
+     * A UUID in its text form, 8-4-4-4-12 hex digits in either case
+     */
+    static int uuid(CharSequence str) {
+        if (str.length() != 36) {
+            return WRONG_LENGTH;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = str.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return WRONG_FORMAT;
+                }
+            } else if (!isHex(c)) {
+                return WRONG_FORMAT;
+            }
+        }
+        return VALID;
+    }
+
+    /**
+     * A card number of 12 to 19 digits, with a Luhn check digit
+     */
+    static int cardNumber(CharSequence str) {
+        int len = str.length();
+        if (len < 12 || len > 19) {
+            return WRONG_LENGTH;
+        }
+        int sum = 0;
+        for (int i = 0; i < len; i++) {
+            int digit = str.charAt(len - 1 - i) - '0';
+            if (digit < 0 || digit > 9) {
+                return WRONG_FORMAT;
+            }
+            if ((i & 1) == 1) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+        }
+        return sum % 10 == 0 ? VALID : WRONG_CHECKSUM;
+    }
+
+    /**
+     * An IBAN of 15 to 34 characters, ignoring spaces: a country code of two
+     * capital letters, two check digits and capital letters or digits, with
+     * a mod 97 checksum. The length for each country is not checked.
+     */
+    static int iban(CharSequence str) {
+        int len = str.length();
+        int n = 0;
+        int head = 0;
+        int remainder = 0;
+        for (int i = 0; i < len; i++) {
+            char c = str.charAt(i);
+            if (c == ' ') {
+                continue;
+            }
+            int value;
+            if (c >= '0' && c <= '9') {
+                if (n < 2) {
+                    return WRONG_FORMAT;
+                }
+                value = c - '0';
+            } else if (c >= 'A' && c <= 'Z') {
+                if (n == 2 || n == 3) {
+                    return WRONG_FORMAT;
+                }
+                value = c - 'A' + 10;
+            } else {
+                return WRONG_FORMAT;
+            }
+            if (n < 4) {
+                // The country code and check digits count as if moved to the end
+                head = value < 10 ? head * 10 + value : head * 100 + value;
+            } else {
+                remainder = (value < 10 ? remainder * 10 + value : remainder * 100 + value) % 97;
+            }
+            n++;
+        }
+        if (n < 15 || n > 34) {
+            return WRONG_LENGTH;
+        }
+        // head is 6 digits: the two letters of the country code then the check digits
+        remainder = (int) ((remainder * 1_000_000L + head) % 97);
+        return remainder == 1 ? VALID : WRONG_CHECKSUM;
+    }
+
+    /**
+     * An ISBN-10 or ISBN-13, ignoring hyphens and spaces. An ISBN-10 may end
+     * in X, and an ISBN-13 starts with 978 or 979.
+     */
+    static int isbn(CharSequence str) {
+        int len = str.length();
+        int n = 0;
+        int sum10 = 0;
+        int sum13 = 0;
+        int prefix = 0;
+        boolean x = false;
+        for (int i = 0; i < len; i++) {
+            char c = str.charAt(i);
+            if (c == '-' || c == ' ') {
+                continue;
+            }
+            if (x) {
+                return WRONG_FORMAT;
+            }
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            } else if (c == 'X' && n == 9) {
+                digit = 10;
+                x = true;
+            } else {
+                return WRONG_FORMAT;
+            }
+            if (n < 3) {
+                prefix = prefix * 10 + digit;
+            }
+            if (n < 10) {
+                sum10 += (10 - n) * digit;
+            }
+            sum13 += (n & 1) == 0 ? digit : 3 * digit;
+            n++;
+            if (n > 13) {
+                return WRONG_LENGTH;
+            }
+        }
+        if (n == 10) {
+            return sum10 % 11 == 0 ? VALID : WRONG_CHECKSUM;
+        }
+        if (n == 13) {
+            if (x || (prefix != 978 && prefix != 979)) {
+                return WRONG_FORMAT;
+            }
+            return sum13 % 10 == 0 ? VALID : WRONG_CHECKSUM;
+        }
+        return WRONG_LENGTH;
+    }
+
+    private static boolean isHex(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+}
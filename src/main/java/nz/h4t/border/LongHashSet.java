@@ -0,0 +1,101 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+import java.util.Arrays;
+
+/**
+ * A set of longs for finding duplicates, sized up front for a known number
+ * of values. Keys are stored unboxed in one array with open addressing and
+ * linear probing, and 0 is tracked apart so that it can mark an empty slot.
+ * A set can be emptied and reused for another run of values that fits it.
+ */
+final class LongHashSet {
+    private static final int MAX_VALUES = 1 << 29;
+
+    private final long[] keys;
+    private int mask;
+    private boolean hasZero;
+
+    /**
+     * @param expected Most values that will be added
+     */
+    LongHashSet(int expected) {
+        this.keys = new long[capacity(expected)];
+        this.mask = keys.length - 1;
+    }
+
+    /**
+     * Empties the set, clearing only as much of the table as the values need
+     *
+     * @param expected Most values that will be added
+     * @return false, leaving the set as it was, if the table is too small
+     */
+    boolean reset(int expected) {
+        int capacity = capacity(expected);
+        if (capacity > keys.length) {
+            return false;
+        }
+        Arrays.fill(keys, 0, capacity, 0);
+        mask = capacity - 1;
+        hasZero = false;
+        return true;
+    }
+
+    /**
+     * @return true if the key was added, false if it was already present
+     */
+    boolean add(long key) {
+        if (key == 0) {
+            if (hasZero) {
+                return false;
+            }
+            hasZero = true;
+            return true;
+        }
+        long h = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h ^ (h >>> 32)) & mask;
+        long existing;
+        while ((existing = keys[slot]) != 0) {
+            if (existing == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        return true;
+    }
+
+    private static int capacity(int expected) {
+        if (expected > MAX_VALUES) {
+            throw new IllegalArgumentException("Too many values: " + expected);
+        }
+        // At most half full, so that probes stay short
+        return Math.max(16, Integer.highestOneBit(Math.max(expected, 1) * 2 - 1) << 1);
+    }
+}
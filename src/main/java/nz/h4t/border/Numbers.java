@@ -0,0 +1,141 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+/**
+ * Validation of numbers written as text, each in a single pass over the
+ * characters with overflow detection, without creating any objects or
+ * catching a NumberFormatException.
+ */
+final class Numbers {
+    static final int VALID = 0;
+    static final int WRONG_FORMAT = 1;
+    static final int OUT_OF_RANGE = 2;
+
+    private Numbers() {
+    }
+
+    /**
+     * One or more ASCII digits, with no sign
+     */
+    static int digits(CharSequence str) {
+        int len = str.length();
+        if (len == 0) {
+            return WRONG_FORMAT;
+        }
+        for (int i = 0; i < len; i++) {
+            char c = str.charAt(i);
+            if (c < '0' || c > '9') {
+                return WRONG_FORMAT;
+            }
+        }
+        return VALID;
+    }
+
+    /**
+     * A whole number: an optional sign and one or more ASCII digits,
+     * between min and max. Long.parseLong() also takes digits from other
+     * scripts, which are malformed here. A number too large for a long is
+     * out of range rather than malformed.
+     */
+    static int wholeNumber(CharSequence str, long min, long max) {
+        int len = str.length();
+        int i = 0;
+        boolean negative = false;
+        if (len > 0 && (str.charAt(0) == '-' || str.charAt(0) == '+')) {
+            negative = str.charAt(0) == '-';
+            i = 1;
+        }
+        if (i == len) {
+            return WRONG_FORMAT;
+        }
+        // Accumulated negatively, as Long.MIN_VALUE has no positive counterpart
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long value = 0;
+        boolean overflow = false;
+        for (; i < len; i++) {
+            int digit = str.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return WRONG_FORMAT;
+            }
+            if (value < limit / 10 || value * 10 < limit + digit) {
+                overflow = true;
+            } else {
+                value = value * 10 - digit;
+            }
+        }
+        if (overflow) {
+            return OUT_OF_RANGE;
+        }
+        if (!negative) {
+            value = -value;
+        }
+        return value < min || value > max ? OUT_OF_RANGE : VALID;
+    }
+
+    /**
+     * A decimal without an exponent: an optional sign, then ASCII digits
+     * with an optional decimal point and at least one digit. As for a SQL
+     * DECIMAL(precision, scale), at most precision - scale digits, not
+     * counting leading zeros, may come before the point and at most scale
+     * digits after it.
+     */
+    static int decimal(CharSequence str, int precision, int scale) {
+        int len = str.length();
+        int i = 0;
+        if (len > 0 && (str.charAt(0) == '-' || str.charAt(0) == '+')) {
+            i = 1;
+        }
+        int integerDigits = 0;
+        int fractionDigits = 0;
+        boolean point = false;
+        boolean anyDigit = false;
+        for (; i < len; i++) {
+            char c = str.charAt(i);
+            if (c == '.') {
+                if (point) {
+                    return WRONG_FORMAT;
+                }
+                point = true;
+            } else if (c >= '0' && c <= '9') {
+                anyDigit = true;
+                if (point) {
+                    fractionDigits++;
+                } else if (integerDigits > 0 || c != '0') {
+                    integerDigits++;
+                }
+            } else {
+                return WRONG_FORMAT;
+            }
+        }
+        if (!anyDigit) {
+            return WRONG_FORMAT;
+        }
+        return integerDigits > precision - scale || fractionDigits > scale ? OUT_OF_RANGE : VALID;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * A bounded cache of compiled patterns. Once full, further patterns are
+ * compiled on every use rather than evicting the ones already cached.
+ */
+final class PatternCache {
+    private final int maxSize;
+    private final ConcurrentHashMap<String, Pattern> patterns;
+
+    PatternCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.patterns = maxSize == 0 ? null : new ConcurrentHashMap<>();
+    }
+
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    Pattern get(String regex) {
+        if (patterns == null) {
+            return Pattern.compile(regex);
+        }
+        Pattern pattern = patterns.get(regex);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            if (patterns.size() < maxSize) {
+                Pattern existing = patterns.putIfAbsent(regex, pattern);
+                if (existing != null) {
+                    pattern = existing;
+                }
+            }
+        }
+        return pattern;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, direct mapped cache of the results of pure string checks.
+ * <p>
+ * Each key hashes to a single slot and a new entry replaces whatever was in
+ * its slot, so the cache never grows past its capacity and needs no locks.
+ * Entries are immutable and published through final fields, so a reader
+ * sees either a whole entry or a stale one, which is harmless for a cache.
+ * A lookup that hits does not allocate.
+ */
+final class ResultCache {
+    static final int MISSING = -1;
+    static final int INVALID = 0;
+    static final int VALID = 1;
+
+    private final Entry[] entries;
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    ResultCache(int capacity) {
+        int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.entries = new Entry[size];
+        this.mask = size - 1;
+    }
+
+    int getCapacity() {
+        return entries.length;
+    }
+
+    /**
+     * Looks up the result for a key made of one or two strings
+     *
+     * @return VALID, INVALID or MISSING
+     */
+    int get(String first, String second, int hash) {
+        Entry entry = entries[slot(hash)];
+        if (entry != null && entry.hash == hash && entry.first.equals(first)
+                && (second == null ? entry.second == null : second.equals(entry.second))) {
+            hits.increment();
+            return entry.valid ? VALID : INVALID;
+        }
+        misses.increment();
+        return MISSING;
+    }
+
+    /**
+     * Looks up the result for a key that is the region [from, to) of source
+     *
+     * @return VALID, INVALID or MISSING
+     */
+    int get(String source, int from, int to, int hash) {
+        Entry entry = entries[slot(hash)];
+        if (entry != null && entry.hash == hash && entry.second == null && entry.first.length() == to - from
+                && source.regionMatches(from, entry.first, 0, to - from)) {
+            hits.increment();
+            return entry.valid ? VALID : INVALID;
+        }
+        misses.increment();
+        return MISSING;
+    }
+
+    void put(String first, String second, int hash, boolean valid) {
+        int slot = slot(hash);
+        if (entries[slot] != null) {
+            evictions.increment();
+        }
+        entries[slot] = new Entry(first, second, hash, valid);
+    }
+
+    CacheStats stats() {
+        int size = 0;
+        for (Entry entry : entries) {
+            if (entry != null) {
+                size++;
+            }
+        }
+        return new CacheStats(entries.length, size, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    /**
+     * Same result as String.hashCode() over the region, without creating the String
+     */
+    static int hash(String source, int from, int to) {
+        int h = 0;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + source.charAt(i);
+        }
+        return h;
+    }
+
+    private int slot(int hash) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static final class Entry {
+        final String first;
+        final String second;
+        final int hash;
+        final boolean valid;
+
+        Entry(String first, String second, int hash, boolean valid) {
+            this.first = first;
+            this.second = second;
+            this.hash = hash;
+            this.valid = valid;
+        }
+    }
+}
@@ -0,0 +1,453 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+import nz.h4t.border.exceptions.BorderException;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * A fail-fast validator for one type, built from named rules that each make
+ * one or more Border checks.
+ * <p>
+ * By default the rules run in the order they were added. In adaptive mode
+ * the validator times a sample of its calls, estimates each rule's cost and
+ * failure rate, and periodically reorders the rules by cost divided by
+ * failure rate, which minimises the expected cost of validation when the
+ * rules are independent: cheap rules that often fail run first, and
+ * expensive rules that rarely fail run last.
+ * <p>
+ * Adaptive mode assumes that the rules have no side effects and do not
+ * depend on each other. It still throws the exception of the first rule, in
+ * the order added, that fails: when a rule fails, the rules added before it
+ * that have not yet run are run too. The FailureRecorder and Flight Recorder
+ * events can therefore see more than one failure for an input that breaks
+ * several rules. With deterministic(false) the first failure found is
+ * thrown instead, and which one that is depends on the current order.
+ * <p>
+ * The rules first run in a loop over an array. Once the rules have run
+ * about compileThreshold times in one order, a class that calls them in
+ * that order in straight-line code is generated and used instead, so that the
+ * JIT can inline each rule rather than sharing one call site between every
+ * rule of every validator. Sampled calls in adaptive mode always run in
+ * the loop, and a new order starts counting again. In a native image,
+ * which cannot define classes at run time, the rules always run in the
+ * loop.
+ *
+ * <pre>
+ * Validator&lt;Customer&gt; validator = Validator.&lt;Customer&gt;builder()
+ *         .rule("email", c -&gt; Border.checkValidEmail("Invalid email", c.getEmail()))
+ *         .rule("name", c -&gt; Border.checkNotEmpty("Name is required", c.getName()))
+ *         .adaptive(true)
+ *         .build();
+ * validator.validate(customer);
+ * </pre>
+ *
+ * @param <T> Type of the value validated
+ */
+public final class Validator<T> {
+    private static final int DEFAULT_SAMPLE_INTERVAL = 64;
+    private static final int DEFAULT_REORDER_INTERVAL = 256;
+    private static final int DEFAULT_COMPILE_THRESHOLD = 10_000;
+    private static final int COUNTED_CALLS = 64;
+
+    private final String[] names;
+    private final Consumer<? super T>[] rules;
+    private final boolean adaptive;
+    private final boolean deterministic;
+    private final int sampleInterval;
+    private final int reorderInterval;
+    private final int compileThreshold;
+    /**
+     * Calls are counted one in countInterval, at random, so that threads
+     * running the loop rarely write to the shared count
+     */
+    private final int countInterval;
+    private final int countedThreshold;
+
+    /**
+     * Per rule: sampled runs, sampled failures and nanoseconds taken by the
+     * sampled runs that passed, at [rule * 3], [rule * 3 + 1] and [rule * 3 + 2]
+     */
+    private final AtomicLongArray stats;
+    private final AtomicInteger samples = new AtomicInteger();
+    private volatile Ordering ordering;
+
+    private Validator(Builder<T> builder) {
+        this.names = builder.names.toArray(new String[0]);
+        this.rules = toArray(builder.rules);
+        this.adaptive = builder.adaptive;
+        this.deterministic = builder.deterministic;
+        this.sampleInterval = builder.sampleInterval;
+        this.reorderInterval = builder.reorderInterval;
+        this.compileThreshold = builder.compileThreshold;
+        this.countInterval = Math.max(1, compileThreshold / COUNTED_CALLS);
+        this.countedThreshold = compileThreshold / countInterval;
+        this.stats = new AtomicLongArray(rules.length * 3);
+        int[] order = new int[rules.length];
+        Arrays.setAll(order, i -> i);
+        this.ordering = new Ordering(order);
+    }
+
+    /**
+     * @param <T> Type of the value validated
+     * @return a new builder
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Runs the rules, stopping at the first that fails
+     *
+     * @param value Value being validated
+     * @throws BorderException from the first rule that fails
+     */
+    public void validate(T value) {
+        Ordering current = ordering;
+        if (adaptive && ThreadLocalRandom.current().nextInt(sampleInterval) == 0) {
+            validateSampled(value, current);
+            return;
+        }
+        Consumer<Object> compiled = current.compiled;
+        if (compiled != null) {
+            compiled.accept(value);
+            return;
+        }
+        if (compileThreshold > 0 && !current.compileAttempted && counted()
+                && current.calls.incrementAndGet() >= countedThreshold) {
+            compile(current);
+        }
+        int[] order = current.order;
+        for (int pos = 0; pos < order.length; pos++) {
+            try {
+                rules[order[pos]].accept(value);
+            } catch (BorderException ex) {
+                throw firstFailure(value, current, pos, ex);
+            }
+        }
+    }
+
+    /**
+     * @return the rule names in the order they currently run
+     */
+    public List<String> getOrder() {
+        int[] order = ordering.order;
+        List<String> result = new ArrayList<>(order.length);
+        for (int rule : order) {
+            result.add(names[rule]);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    //
+    // Internal Methods...
+    //
+
+    private void validateSampled(T value, Ordering current) {
+        int[] order = current.order;
+        try {
+            for (int pos = 0; pos < order.length; pos++) {
+                int rule = order[pos];
+                long start = System.nanoTime();
+                try {
+                    rules[rule].accept(value);
+                } catch (BorderException ex) {
+                    record(rule, true, 0);
+                    throw firstFailure(value, current, pos, ex);
+                }
+                record(rule, false, System.nanoTime() - start);
+            }
+        } finally {
+            if (samples.incrementAndGet() % reorderInterval == 0) {
+                reorder();
+            }
+        }
+    }
+
+    /**
+     * @return true if this call is one of those counted towards compiling
+     */
+    private boolean counted() {
+        return countInterval == 1 || ThreadLocalRandom.current().nextInt(countInterval) == 0;
+    }
+
+    /**
+     * The rule at pos has failed with ex. Runs the rules added before it
+     * that have not run yet, and returns the exception of the first that
+     * fails, or ex.
+     */
+    private BorderException firstFailure(T value, Ordering current, int pos, BorderException ex) {
+        if (!deterministic) {
+            return ex;
+        }
+        int failed = current.order[pos];
+        for (int rule = 0; rule < failed; rule++) {
+            if (current.rank[rule] > pos) {
+                try {
+                    rules[rule].accept(value);
+                } catch (BorderException earlier) {
+                    return earlier;
+                }
+            }
+        }
+        return ex;
+    }
+
+    /**
+     * Generates the straight-line class for an order. If the class cannot
+     * be generated, for any reason short of the JVM failing, the rules stay
+     * in the loop.
+     */
+    @SuppressWarnings("unchecked")
+    private void compile(Ordering current) {
+        synchronized (current) {
+            if (current.compileAttempted) {
+                return;
+            }
+            current.compileAttempted = true;
+            int n = current.order.length;
+            if (n == 0 || n > ValidatorCompiler.MAX_RULES || !ValidatorCompiler.SUPPORTED) {
+                return;
+            }
+            Consumer<?>[] ordered = new Consumer<?>[n];
+            for (int pos = 0; pos < n; pos++) {
+                ordered[pos] = rules[current.order[pos]];
+            }
+            try {
+                current.compiled = ValidatorCompiler.compile(ordered,
+                        (value, pos, ex) -> firstFailure((T) value, current, pos, ex), MethodHandles.lookup());
+            } catch (VirtualMachineError ex) {
+                throw ex;
+            } catch (RuntimeException | Error ex) {
+                // Stay in the loop, such as when a platform cannot define hidden classes
+            }
+        }
+    }
+
+    /**
+     * @return true if the current order runs in a generated class
+     */
+    boolean isCompiled() {
+        return ordering.compiled != null;
+    }
+
+    private void record(int rule, boolean failed, long nanos) {
+        stats.incrementAndGet(rule * 3);
+        if (failed) {
+            stats.incrementAndGet(rule * 3 + 1);
+        }
+        stats.addAndGet(rule * 3 + 2, nanos);
+    }
+
+    /**
+     * Sorts the rules by mean cost over failure rate, then halves the
+     * statistics so that recent samples count for more than old ones. The
+     * failure rate is smoothed so that a rule not yet sampled counts as
+     * free and failing half the time, and is tried early. Only passing runs
+     * count towards the cost, as the cost of creating the exception is paid
+     * once whichever rule fails.
+     */
+    private void reorder() {
+        int n = rules.length;
+        double[] score = new double[n];
+        Integer[] sorted = new Integer[n];
+        for (int rule = 0; rule < n; rule++) {
+            long runs = stats.get(rule * 3);
+            long failures = stats.get(rule * 3 + 1);
+            long nanos = stats.get(rule * 3 + 2);
+            long passes = runs - failures;
+            double cost = passes <= 0 ? 0 : (double) nanos / passes;
+            double failureRate = (failures + 1.0) / (runs + 2.0);
+            score[rule] = cost / failureRate;
+            sorted[rule] = rule;
+            stats.set(rule * 3, runs / 2);
+            stats.set(rule * 3 + 1, failures / 2);
+            stats.set(rule * 3 + 2, nanos / 2);
+        }
+        Arrays.sort(sorted, (a, b) -> Double.compare(score[a], score[b]));
+        int[] order = new int[n];
+        for (int pos = 0; pos < n; pos++) {
+            order[pos] = sorted[pos];
+        }
+        if (!Arrays.equals(order, ordering.order)) {
+            ordering = new Ordering(order);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Consumer<? super T>[] toArray(List<Consumer<? super T>> rules) {
+        return (Consumer<? super T>[]) rules.toArray(new Consumer<?>[0]);
+    }
+
+    /**
+     * Called by a generated class when the rule at pos fails
+     */
+    interface Failure {
+        BorderException failed(Object value, int pos, BorderException ex);
+    }
+
+    /**
+     * An order to run the rules in, with the position of each rule in it,
+     * and the generated class running them in this order once there is one
+     */
+    private static final class Ordering {
+        final int[] order;
+        final int[] rank;
+        volatile Consumer<Object> compiled;
+        volatile boolean compileAttempted;
+        /**
+         * Counted calls in this order
+         */
+        final AtomicInteger calls = new AtomicInteger();
+
+        Ordering(int[] order) {
+            this.order = order;
+            this.rank = new int[order.length];
+            for (int pos = 0; pos < order.length; pos++) {
+                rank[order[pos]] = pos;
+            }
+        }
+    }
+
+    public static final class Builder<T> {
+        private final List<String> names = new ArrayList<>();
+        private final List<Consumer<? super T>> rules = new ArrayList<>();
+        private boolean adaptive;
+        private boolean deterministic = true;
+        private int sampleInterval = DEFAULT_SAMPLE_INTERVAL;
+        private int reorderInterval = DEFAULT_REORDER_INTERVAL;
+        private int compileThreshold = DEFAULT_COMPILE_THRESHOLD;
+
+        private Builder() {
+        }
+
+        /**
+         * @param name Name of the rule, as reported by getOrder()
+         * @param rule Rule that throws a BorderException when the value is invalid
+         * @return this builder
+         */
+        public Builder<T> rule(String name, Consumer<? super T> rule) {
+            names.add(Objects.requireNonNull(name, "name"));
+            rules.add(Objects.requireNonNull(rule, "rule"));
+            return this;
+        }
+
+        /**
+         * Adds a rule that only runs on the requests the sampler picks, and
+         * passes without running on the others
+         *
+         * @param name    Name of the rule, as reported by getOrder() and the sampler's counts
+         * @param sampler Sampler deciding when the rule runs
+         * @param rule    Rule that throws a BorderException when the value is invalid
+         * @return this builder
+         */
+        public Builder<T> sampledRule(String name, CheckSampler sampler, Consumer<? super T> rule) {
+            Objects.requireNonNull(rule, "rule");
+            CheckSampler.Check sample = sampler.check(Objects.requireNonNull(name, "name"));
+            return rule(name, value -> {
+                if (sample.shouldRun()) {
+                    rule.accept(value);
+                }
+            });
+        }
+
+        /**
+         * @param adaptive true to reorder the rules by their observed cost and failure rate
+         * @return this builder
+         */
+        public Builder<T> adaptive(boolean adaptive) {
+            this.adaptive = adaptive;
+            return this;
+        }
+
+        /**
+         * @param deterministic false to throw the first failure found in adaptive mode,
+         *                      rather than the failure of the first rule added
+         * @return this builder
+         */
+        public Builder<T> deterministic(boolean deterministic) {
+            this.deterministic = deterministic;
+            return this;
+        }
+
+        /**
+         * @param sampleInterval Time one call in this many, on average, in adaptive mode
+         * @return this builder
+         */
+        public Builder<T> sampleInterval(int sampleInterval) {
+            if (sampleInterval < 1) {
+                throw new IllegalArgumentException("sampleInterval must be at least 1");
+            }
+            this.sampleInterval = sampleInterval;
+            return this;
+        }
+
+        /**
+         * @param reorderInterval Reorder the rules after this many timed calls, in adaptive mode
+         * @return this builder
+         */
+        public Builder<T> reorderInterval(int reorderInterval) {
+            if (reorderInterval < 1) {
+                throw new IllegalArgumentException("reorderInterval must be at least 1");
+            }
+            this.reorderInterval = reorderInterval;
+            return this;
+        }
+
+        /**
+         * @param compileThreshold Calls in one order before a class running the rules in that order
+         *                         is generated, or 0 to always run the rules in a loop. Above 127
+         *                         the calls are sampled, so the class comes after about this many
+         * @return this builder
+         */
+        public Builder<T> compileThreshold(int compileThreshold) {
+            if (compileThreshold < 0) {
+                throw new IllegalArgumentException("compileThreshold must not be negative");
+            }
+            this.compileThreshold = compileThreshold;
+            return this;
+        }
+
+        /**
+         * @return a new validator
+         */
+        public Validator<T> build() {
+            return new Validator<>(this);
+        }
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+import nz.h4t.border.exceptions.BorderException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Generates a class that runs a fixed sequence of Validator rules in
+ * straight-line code, one call site per rule, instead of in a loop over an
+ * array. Each call site sees only one rule, so the JIT can inline every
+ * rule, where the shared call site of a loop goes megamorphic once a
+ * service has many validators.
+ * <p>
+ * The class is defined as a hidden class, so it is unloaded with the
+ * validator. The rules are passed as class data and held in static final
+ * fields, which the JIT treats as constants. The bytecode is written by
+ * hand in class file version 49, which needs no stack map frames.
+ */
+final class ValidatorCompiler {
+    /**
+     * Most rules compiled into one class, well inside the 64KB method limit
+     */
+    static final int MAX_RULES = 2000;
+
+    /**
+     * False in a native image, which cannot define classes at run time
+     */
+    static final boolean SUPPORTED = System.getProperty("org.graalvm.nativeimage.imagecode") == null;
+
+    private static final String NAME = "nz/h4t/border/Validator$Compiled";
+    private static final String CONSUMER = "java/util/function/Consumer";
+    private static final String FAILURE = "nz/h4t/border/Validator$Failure";
+    private static final String FAILED_DESC = "(Ljava/lang/Object;ILnz/h4t/border/exceptions/BorderException;)"
+            + "Lnz/h4t/border/exceptions/BorderException;";
+
+    private ValidatorCompiler() {
+    }
+
+    /**
+     * @param rules   Rules, in the order to run them
+     * @param failure Called with the position of the rule that failed
+     * @param lookup  Full privilege lookup in this package
+     * @return a consumer running the rules in order
+     */
+    @SuppressWarnings("unchecked")
+    static Consumer<Object> compile(Consumer<?>[] rules, Validator.Failure failure, MethodHandles.Lookup lookup) {
+        if (rules.length > MAX_RULES) {
+            throw new IllegalArgumentException("Too many rules to compile: " + rules.length);
+        }
+        List<Object> data = new ArrayList<>(rules.length + 1);
+        for (Consumer<?> rule : rules) {
+            data.add(rule);
+        }
+        data.add(failure);
+        try {
+            MethodHandles.Lookup hidden = lookup.defineHiddenClassWithClassData(classFile(rules.length), data, true);
+            return (Consumer<Object>) hidden.findConstructor(hidden.lookupClass(), MethodType.methodType(void.class))
+                    .invoke();
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException("Cannot create compiled validator", ex);
+        }
+    }
+
+    //
+    // Internal Methods...
+    //
+
+    /**
+     * <pre>
+     * final class Validator$Compiled implements Consumer {
+     *     private static final Consumer R0, R1, ...;
+     *     private static final Validator.Failure F;
+     *
+     *     static {
+     *         List data = MethodHandles.classData(MethodHandles.lookup(), "_", List.class);
+     *         R0 = (Consumer) data.get(0); ...
+     *         F = (Validator.Failure) data.get(n);
+     *     }
+     *
+     *     public void accept(Object value) {
+     *         int pos = 0;
+     *         try {
+     *             R0.accept(value); pos = 1;
+     *             R1.accept(value); pos = 2; ...
+     *         } catch (BorderException ex) {
+     *             throw F.failed(value, pos, ex);
+     *         }
+     *     }
+     * }
+     * </pre>
+     */
+    private static byte[] classFile(int n) {
+        Pool cp = new Pool();
+        int thisClass = cp.classRef(NAME);
+        int objectClass = cp.classRef("java/lang/Object");
+        int consumerClass = cp.classRef(CONSUMER);
+        int failureClass = cp.classRef(FAILURE);
+        int listClass = cp.classRef("java/util/List");
+        int exClass = cp.classRef("nz/h4t/border/exceptions/BorderException");
+        int[] ruleFields = new int[n];
+        for (int i = 0; i < n; i++) {
+            ruleFields[i] = cp.member(9, NAME, "R" + i, "L" + CONSUMER + ";");
+        }
+        int failureField = cp.member(9, NAME, "F", "L" + FAILURE + ";");
+        int objectInit = cp.member(10, "java/lang/Object", "<init>", "()V");
+        int accept = cp.member(11, CONSUMER, "accept", "(Ljava/lang/Object;)V");
+        int failed = cp.member(11, FAILURE, "failed", FAILED_DESC);
+        int listGet = cp.member(11, "java/util/List", "get", "(I)Ljava/lang/Object;");
+        int lookup = cp.member(10, "java/lang/invoke/MethodHandles", "lookup",
+                "()Ljava/lang/invoke/MethodHandles$Lookup;");
+        int classData = cp.member(10, "java/lang/invoke/MethodHandles", "classData",
+                "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/Object;");
+        int dataName = cp.string("_");
+        int code = cp.utf8("Code");
+
+        Code init = new Code();
+        init.op(0x2a).op(0xb7).u2(objectInit).op(0xb1);
+
+        Code clinit = new Code();
+        clinit.op(0xb8).u2(lookup).op(0x13).u2(dataName).op(0x13).u2(listClass);
+        clinit.op(0xb8).u2(classData).op(0xc0).u2(listClass).op(0x4b);
+        for (int i = 0; i <= n; i++) {
+            clinit.op(0x2a).pushInt(i).op(0xb9).u2(listGet).op(2).op(0);
+            clinit.op(0xc0).u2(i < n ? consumerClass : failureClass);
+            clinit.op(0xb3).u2(i < n ? ruleFields[i] : failureField);
+        }
+        clinit.op(0xb1);
+
+        Code run = new Code();
+        run.op(0x03).op(0x3d);
+        int start = run.size();
+        for (int i = 0; i < n; i++) {
+            run.op(0xb2).u2(ruleFields[i]).op(0x2b).op(0xb9).u2(accept).op(2).op(0);
+            run.pushInt(i + 1).op(0x3d);
+        }
+        int end = run.size();
+        run.op(0xb1);
+        int handler = run.size();
+        run.op(0x4e).op(0xb2).u2(failureField).op(0x2b).op(0x1c).op(0x2d);
+        run.op(0xb9).u2(failed).op(4).op(0).op(0xbf);
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(49);
+            int initName = cp.utf8("<init>");
+            int clinitName = cp.utf8("<clinit>");
+            int acceptName = cp.utf8("accept");
+            int voidDesc = cp.utf8("()V");
+            int acceptDesc = cp.utf8("(Ljava/lang/Object;)V");
+            int[] fieldNames = new int[n + 1];
+            for (int i = 0; i <= n; i++) {
+                fieldNames[i] = cp.utf8(i < n ? "R" + i : "F");
+            }
+            int consumerDesc = cp.utf8("L" + CONSUMER + ";");
+            int failureDesc = cp.utf8("L" + FAILURE + ";");
+            cp.writeTo(out);
+            out.writeShort(0x0030);
+            out.writeShort(thisClass);
+            out.writeShort(objectClass);
+            out.writeShort(1);
+            out.writeShort(consumerClass);
+            out.writeShort(n + 1);
+            for (int i = 0; i <= n; i++) {
+                out.writeShort(0x001A);
+                out.writeShort(fieldNames[i]);
+                out.writeShort(i < n ? consumerDesc : failureDesc);
+                out.writeShort(0);
+            }
+            out.writeShort(3);
+            init.writeMethod(out, 0x0001, initName, voidDesc, code, 1, 1, null);
+            clinit.writeMethod(out, 0x0008, clinitName, voidDesc, code, 3, 1, null);
+            run.writeMethod(out, 0x0001, acceptName, acceptDesc, code, 4, 4, new int[]{start, end, handler, exClass});
+            out.writeShort(0);
+            return bytes.toByteArray();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Constant pool, with entries shared by value
+     */
+    private static final class Pool {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> entries = new HashMap<>();
+        private int count = 1;
+
+        int utf8(String value) {
+            return entry("U" + value, () -> {
+                out.writeByte(1);
+                out.writeUTF(value);
+            });
+        }
+
+        int classRef(String name) {
+            int nameIndex = utf8(name);
+            return entry("C" + name, () -> {
+                out.writeByte(7);
+                out.writeShort(nameIndex);
+            });
+        }
+
+        int string(String value) {
+            int valueIndex = utf8(value);
+            return entry("S" + value, () -> {
+                out.writeByte(8);
+                out.writeShort(valueIndex);
+            });
+        }
+
+        /**
+         * @param tag 9 for a field, 10 for a class method, 11 for an interface method
+         */
+        int member(int tag, String owner, String name, String desc) {
+            int ownerIndex = classRef(owner);
+            int nameIndex = utf8(name);
+            int descIndex = utf8(desc);
+            int nameAndType = entry("N" + name + ";" + desc, () -> {
+                out.writeByte(12);
+                out.writeShort(nameIndex);
+                out.writeShort(descIndex);
+            });
+            return entry(tag + owner + "." + name + desc, () -> {
+                out.writeByte(tag);
+                out.writeShort(ownerIndex);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        void writeTo(DataOutputStream dest) throws IOException {
+            dest.writeShort(count);
+            bytes.writeTo(dest);
+        }
+
+        private int entry(String key, Writer writer) {
+            Integer index = entries.get(key);
+            if (index != null) {
+                return index;
+            }
+            try {
+                writer.write();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            entries.put(key, count);
+            return count++;
+        }
+
+        private interface Writer {
+            void write() throws IOException;
+        }
+    }
+
+    /**
+     * Bytecode of one method
+     */
+    private static final class Code {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        Code op(int b) {
+            bytes.write(b);
+            return this;
+        }
+
+        Code u2(int value) {
+            bytes.write(value >>> 8);
+            bytes.write(value);
+            return this;
+        }
+
+        Code pushInt(int value) {
+            if (value <= 5) {
+                return op(0x03 + value);
+            } else if (value <= Byte.MAX_VALUE) {
+                return op(0x10).op(value);
+            }
+            return op(0x11).u2(value);
+        }
+
+        int size() {
+            return bytes.size();
+        }
+
+        void writeMethod(DataOutputStream out, int access, int name, int desc, int codeName, int maxStack,
+                         int maxLocals, int[] handler) throws IOException {
+            out.writeShort(access);
+            out.writeShort(name);
+            out.writeShort(desc);
+            out.writeShort(1);
+            out.writeShort(codeName);
+            out.writeInt(12 + bytes.size() + (handler == null ? 0 : 8));
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+            if (handler == null) {
+                out.writeShort(0);
+            } else {
+                out.writeShort(1);
+                for (int value : handler) {
+                    out.writeShort(value);
+                }
+            }
+            out.writeShort(0);
+        }
+    }
+}
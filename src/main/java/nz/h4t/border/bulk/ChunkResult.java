@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.bulk;
+
+import nz.h4t.border.exceptions.BorderException;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The failures found in one chunk of a file. Failures are held in parallel
+ * arrays with line numbers relative to the start of the chunk, and are only
+ * turned into ValidationFailures once the chunks are merged.
+ */
+final class ChunkResult {
+    private final int maxFailures;
+    long lines;
+    long records;
+    long failureCount;
+    private int size;
+    private long[] lineNos = new long[16];
+    private int[] columns = new int[16];
+    private long[] offsets = new long[16];
+    private String[] fields = new String[16];
+    private Class<?>[] kinds = new Class<?>[16];
+
+    ChunkResult(int maxFailures) {
+        this.maxFailures = maxFailures;
+    }
+
+    void fail(long line, int column, String field, long offset, Class<? extends BorderException> kind) {
+        failureCount++;
+        if (size >= maxFailures) {
+            return;
+        }
+        if (size == lineNos.length) {
+            int len = size * 2;
+            lineNos = Arrays.copyOf(lineNos, len);
+            columns = Arrays.copyOf(columns, len);
+            offsets = Arrays.copyOf(offsets, len);
+            fields = Arrays.copyOf(fields, len);
+            kinds = Arrays.copyOf(kinds, len);
+        }
+        lineNos[size] = line;
+        columns[size] = column;
+        offsets[size] = offset;
+        fields[size] = field;
+        kinds[size] = kind;
+        size++;
+    }
+
+    /**
+     * Adds this chunk's failures to the list, numbering lines from lineBase.
+     */
+    @SuppressWarnings("unchecked")
+    void drainTo(List<ValidationFailure> out, long lineBase, int limit) {
+        for (int i = 0; i < size && out.size() < limit; i++) {
+            out.add(new ValidationFailure(lineBase + lineNos[i] + 1, columns[i], fields[i], offsets[i],
+                    (Class<? extends BorderException>) kinds[i]));
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.bulk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The layout of a CSV record: the separator, whether the first line is a
+ * header, and the checks to apply to each column.
+ */
+public final class CsvLayout {
+    private final char separator;
+    private final char quote;
+    private final boolean header;
+    private final List<Column> columns;
+
+    private CsvLayout(char separator, char quote, boolean header, List<Column> columns) {
+        this.separator = separator;
+        this.quote = quote;
+        this.header = header;
+        this.columns = Collections.unmodifiableList(columns);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public char getSeparator() {
+        return separator;
+    }
+
+    public char getQuote() {
+        return quote;
+    }
+
+    public boolean hasHeader() {
+        return header;
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    /**
+     * A single column of the layout
+     */
+    public static final class Column {
+        private final String name;
+        private final int index;
+        private final FieldCheck[] checks;
+
+        Column(String name, int index, FieldCheck[] checks) {
+            this.name = name;
+            this.index = index;
+            this.checks = checks;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        FieldCheck[] checks() {
+            return checks;
+        }
+    }
+
+    public static final class Builder {
+        private char separator = ',';
+        private char quote = '"';
+        private boolean header;
+        private final List<Column> columns = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder separator(char separator) {
+            this.separator = separator;
+            return this;
+        }
+
+        public Builder quote(char quote) {
+            this.quote = quote;
+            return this;
+        }
+
+        /**
+         * Skips the first line of the file
+         *
+         * @param header true if the first line is a header
+         * @return this builder
+         */
+        public Builder header(boolean header) {
+            this.header = header;
+            return this;
+        }
+
+        /**
+         * Adds a column to the layout
+         *
+         * @param name   Name of the column, used in failure reports
+         * @param index  Index of the column, starting at 0
+         * @param checks Checks applied to the column, in order, stopping at the first failure
+         * @return this builder
+         */
+        public Builder column(String name, int index, FieldCheck... checks) {
+            if (index < 0) {
+                throw new IllegalArgumentException("Invalid index for column " + name);
+            }
+            for (Column column : columns) {
+                if (column.getIndex() == index) {
+                    throw new IllegalArgumentException("Column " + index + " is already defined");
+                }
+            }
+            columns.add(new Column(name, index, checks.clone()));
+            return this;
+        }
+
+        public CsvLayout build() {
+            if (separator == quote || separator > 0xff || quote > 0xff) {
+                throw new IllegalArgumentException("Invalid separator or quote");
+            }
+            return new CsvLayout(separator, quote, header, new ArrayList<>(columns));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.bulk;
+
+import nz.h4t.border.exceptions.BorderException;
+import nz.h4t.border.exceptions.BorderPatternException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Validates CSV files, applying the checks of a CsvLayout to each column
+ * directly on the memory mapped bytes. Rows are never turned into String
+ * arrays; only quoted values containing escaped quotes are copied, into a
+ * buffer that is reused.
+ * <p>
+ * Values are read as ISO-8859-1, one byte per character. Quoted values may
+ * contain separators and escaped quotes but not line breaks, as the file is
+ * split into chunks on line boundaries. A column missing from a row has a
+ * null value. A quoted value with no closing quote, or with anything but a
+ * separator after its closing quote, is reported as a BorderPatternException
+ * for its column, whether or not the column has checks.
+ */
+public class CsvValidator extends MappedFileValidator {
+    private final CsvLayout layout;
+    private final byte separator;
+    private final byte quote;
+    private final CsvLayout.Column[] columns;
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    public CsvValidator(CsvLayout layout) {
+        this.layout = layout;
+        this.separator = (byte) layout.getSeparator();
+        this.quote = (byte) layout.getQuote();
+        int max = -1;
+        for (CsvLayout.Column column : layout.getColumns()) {
+            max = Math.max(max, column.getIndex());
+        }
+        this.columns = new CsvLayout.Column[max + 1];
+        for (CsvLayout.Column column : layout.getColumns()) {
+            columns[column.getIndex()] = column;
+        }
+    }
+
+    @Override
+    boolean validateLine(ByteBuffer buf, int start, int end, long fileOffset, long line, ChunkResult result) {
+        if (start == end || (layout.hasHeader() && fileOffset == 0)) {
+            return false;
+        }
+        Scratch s = scratch.get();
+        int index = 0;
+        int pos = start;
+        while (true) {
+            int fieldStart = pos;
+            boolean quoted = pos < end && buf.get(pos) == quote;
+            boolean escaped = false;
+            boolean malformed = false;
+            int valueStart;
+            int valueEnd;
+            if (quoted) {
+                valueStart = ++pos;
+                while (pos < end) {
+                    if (buf.get(pos) == quote) {
+                        if (pos + 1 < end && buf.get(pos + 1) == quote) {
+                            escaped = true;
+                            pos += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    pos++;
+                }
+                valueEnd = pos;
+                if (pos == end) {
+                    malformed = true;
+                } else {
+                    pos++;
+                    if (pos < end && buf.get(pos) != separator) {
+                        malformed = true;
+                        while (pos < end && buf.get(pos) != separator) {
+                            pos++;
+                        }
+                    }
+                }
+            } else {
+                valueStart = pos;
+                while (pos < end && buf.get(pos) != separator) {
+                    pos++;
+                }
+                valueEnd = pos;
+            }
+            CsvLayout.Column column = index < columns.length ? columns[index] : null;
+            if (malformed) {
+                result.fail(line, index + 1, column == null ? null : column.getName(),
+                        fileOffset + (fieldStart - start), BorderPatternException.class);
+            } else if (column != null) {
+                CharSequence value = escaped
+                        ? s.unescape(buf, valueStart, valueEnd, quote)
+                        : s.bytes.wrap(buf, valueStart, valueEnd);
+                check(column, value, line, fileOffset + (fieldStart - start), result);
+            }
+            index++;
+            if (pos >= end) {
+                break;
+            }
+            pos++;
+        }
+        for (; index < columns.length; index++) {
+            if (columns[index] != null) {
+                check(columns[index], null, line, fileOffset + (end - start), result);
+            }
+        }
+        return true;
+    }
+
+    //
+    // Internal Methods...
+    //
+
+    private static void check(CsvLayout.Column column, CharSequence value, long line, long offset, ChunkResult result) {
+        for (FieldCheck check : column.checks()) {
+            Class<? extends BorderException> failure = check.check(value);
+            if (failure != null) {
+                result.fail(line, column.getIndex() + 1, column.getName(), offset, failure);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Per thread buffers, reused for every value
+     */
+    private static final class Scratch {
+        final ByteSequence bytes = new ByteSequence();
+        final StringBuilder chars = new StringBuilder();
+
+        CharSequence unescape(ByteBuffer buf, int from, int to, byte quote) {
+            chars.setLength(0);
+            for (int i = from; i < to; i++) {
+                byte b = buf.get(i);
+                chars.append((char) (b & 0xff));
+                if (b == quote) {
+                    i++;
+                }
+            }
+            return chars;
+        }
+    }
+}
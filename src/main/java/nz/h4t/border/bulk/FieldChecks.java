@@ -0,0 +1,243 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.bulk;
+
+import nz.h4t.border.Border;
+import nz.h4t.border.CharClass;
+import nz.h4t.border.DatePattern;
+import nz.h4t.border.exceptions.*;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Factory methods for the FieldChecks that mirror the Border checks.
+ */
+public class FieldChecks {
+    private FieldChecks() {
+    }
+
+    /**
+     * Checks that the value is not null
+     *
+     * @return the check
+     */
+    public static FieldCheck notNull() {
+        return value -> value == null ? BorderIsNullException.class : null;
+    }
+
+    /**
+     * Checks that the value is not empty
+     *
+     * @return the check
+     */
+    public static FieldCheck notEmpty() {
+        return value -> value == null || value.length() == 0 ? BorderIsEmptyException.class : null;
+    }
+
+    /**
+     * Checks that the value is not null or empty
+     *
+     * @return the check
+     */
+    public static FieldCheck notNullOrEmpty() {
+        return value -> {
+            if (value == null) {
+                return BorderIsNullException.class;
+            }
+            return value.length() == 0 ? BorderIsEmptyException.class : null;
+        };
+    }
+
+    /**
+     * Checks that the value is not greater than the max length
+     *
+     * @param maxLen Max length of the value
+     * @return the check
+     */
+    public static FieldCheck tooLong(int maxLen) {
+        return value -> {
+            if (value == null) {
+                return BorderIsNullException.class;
+            }
+            return value.length() > maxLen ? BorderTooLongException.class : null;
+        };
+    }
+
+    /**
+     * Checks that the value is not less than the min length
+     *
+     * @param minLen Min length of the value
+     * @return the check
+     */
+    public static FieldCheck tooShort(int minLen) {
+        return value -> {
+            if (value == null) {
+                return BorderIsNullException.class;
+            }
+            return value.length() < minLen ? BorderTooShortException.class : null;
+        };
+    }
+
+    /**
+     * Checks that the value matches the pattern provided
+     *
+     * @param pattern Pattern being matched
+     * @return the check
+     */
+    public static FieldCheck pattern(String pattern) {
+        return matches(Pattern.compile(pattern), BorderPatternException.class);
+    }
+
+    /**
+     * Checks that every character of the value is in the character class.
+     * Values read from a file are scanned 8 bytes at a time.
+     *
+     * @param charClass Character class the value must be made of
+     * @return the check
+     */
+    public static FieldCheck charClass(CharClass charClass) {
+        return charClass(charClass, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Checks that every character of the value is in the character class,
+     * and that its length is within the bounds
+     *
+     * @param charClass Character class the value must be made of
+     * @param minLen    Min length of the value
+     * @param maxLen    Max length of the value
+     * @return the check
+     */
+    public static FieldCheck charClass(CharClass charClass, int minLen, int maxLen) {
+        return value -> {
+            if (value == null) {
+                return BorderIsNullException.class;
+            }
+            int len = value.length();
+            if (len < minLen || len > maxLen) {
+                return BorderPatternException.class;
+            }
+            boolean valid;
+            if (value instanceof ByteSequence) {
+                ByteSequence bytes = (ByteSequence) value;
+                valid = charClass.matches(bytes.buffer(), bytes.start(), bytes.start() + len);
+            } else {
+                valid = charClass.matches(value);
+            }
+            return valid ? null : BorderPatternException.class;
+        };
+    }
+
+    /**
+     * Checks that the value is a valid email address, using the email
+     * regex that Border has at the time the check is created.
+     *
+     * @return the check
+     */
+    public static FieldCheck validEmail() {
+        return matches(Border.getEmailRegex(), BorderInvalidEmailException.class);
+    }
+
+    /**
+     * Checks whether the value is one of the possible values.
+     *
+     * @param possibleVals Possible values that the value could be
+     * @return the check
+     */
+    public static FieldCheck possibleValues(String... possibleVals) {
+        String[] vals = possibleVals.clone();
+        Arrays.sort(vals, (a, b) -> Integer.compare(a.hashCode(), b.hashCode()));
+        int[] hashes = new int[vals.length];
+        for (int i = 0; i < vals.length; i++) {
+            hashes[i] = vals[i].hashCode();
+        }
+        return value -> {
+            if (value == null) {
+                return BorderIsNullException.class;
+            }
+            int h = hashCode(value);
+            int idx = Arrays.binarySearch(hashes, h);
+            if (idx < 0) {
+                return BorderNoMatchException.class;
+            }
+            while (idx > 0 && hashes[idx - 1] == h) {
+                idx--;
+            }
+            for (; idx < hashes.length && hashes[idx] == h; idx++) {
+                if (CharSequence.compare(vals[idx], value) == 0) {
+                    return null;
+                }
+            }
+            return BorderNoMatchException.class;
+        };
+    }
+
+    /**
+     * Checks that the value is an ISO date (yyyy-MM-dd) between the specified dates
+     *
+     * @param fromDate From Date, or null for no lower limit
+     * @param toDate   To Date, or null for no upper limit
+     * @return the check
+     */
+    public static FieldCheck isBetween(LocalDate fromDate, LocalDate toDate) {
+        return value -> {
+            if (value == null) {
+                return BorderIsNullException.class;
+            }
+            return DatePattern.ISO_DATE.isDateBetween(value, fromDate, toDate) ? null : BorderInvalidDateException.class;
+        };
+    }
+
+    //
+    // Internal Methods...
+    //
+
+    private static FieldCheck matches(Pattern pat, Class<? extends BorderException> failure) {
+        ThreadLocal<Matcher> matchers = ThreadLocal.withInitial(() -> pat.matcher(""));
+        return value -> {
+            if (value == null) {
+                return BorderIsNullException.class;
+            }
+            return matchers.get().reset(value).matches() ? null : failure;
+        };
+    }
+
+    /**
+     * Same result as String.hashCode() without creating the String
+     */
+    private static int hashCode(CharSequence value) {
+        int h = 0;
+        for (int i = 0; i < value.length(); i++) {
+            h = 31 * h + value.charAt(i);
+        }
+        return h;
+    }
+}
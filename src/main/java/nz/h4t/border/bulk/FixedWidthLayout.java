@@ -0,0 +1,114 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.bulk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The layout of a fixed width record: the name, offset and length of each
+ * field, and the checks to apply to it. Field values have leading and
+ * trailing spaces removed before they are checked.
+ */
+public final class FixedWidthLayout {
+    private final List<Field> fields;
+
+    private FixedWidthLayout(List<Field> fields) {
+        this.fields = Collections.unmodifiableList(fields);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public List<Field> getFields() {
+        return fields;
+    }
+
+    /**
+     * A single field of the layout
+     */
+    public static final class Field {
+        private final String name;
+        private final int offset;
+        private final int length;
+        private final FieldCheck[] checks;
+
+        Field(String name, int offset, int length, FieldCheck[] checks) {
+            this.name = name;
+            this.offset = offset;
+            this.length = length;
+            this.checks = checks;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        FieldCheck[] checks() {
+            return checks;
+        }
+    }
+
+    public static final class Builder {
+        private final List<Field> fields = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a field to the layout
+         *
+         * @param name   Name of the field, used in failure reports
+         * @param offset Offset of the field from the start of the record, starting at 0
+         * @param length Length of the field
+         * @param checks Checks applied to the field, in order, stopping at the first failure
+         * @return this builder
+         */
+        public Builder field(String name, int offset, int length, FieldCheck... checks) {
+            if (offset < 0 || length < 0) {
+                throw new IllegalArgumentException("Invalid offset or length for field " + name);
+            }
+            fields.add(new Field(name, offset, length, checks.clone()));
+            return this;
+        }
+
+        public FixedWidthLayout build() {
+            return new FixedWidthLayout(new ArrayList<>(fields));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.bulk;
+
+import nz.h4t.border.exceptions.BorderException;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Validates files of fixed width records, one record per line, applying
+ * the checks of a FixedWidthLayout directly to the memory mapped bytes.
+ * <p>
+ * Fields are read as ISO-8859-1, one byte per character. A field that runs
+ * past the end of its line is cut short, and a field that starts after the
+ * end of its line is empty. Empty lines are skipped.
+ */
+public class FixedWidthValidator extends MappedFileValidator {
+    private final FixedWidthLayout.Field[] fields;
+    private final ThreadLocal<ByteSequence> sequences = ThreadLocal.withInitial(ByteSequence::new);
+
+    public FixedWidthValidator(FixedWidthLayout layout) {
+        List<FixedWidthLayout.Field> list = layout.getFields();
+        this.fields = list.toArray(new FixedWidthLayout.Field[0]);
+    }
+
+    @Override
+    boolean validateLine(ByteBuffer buf, int start, int end, long fileOffset, long line, ChunkResult result) {
+        if (start == end) {
+            return false;
+        }
+        ByteSequence seq = sequences.get();
+        for (FixedWidthLayout.Field field : fields) {
+            int from = Math.min(start + field.getOffset(), end);
+            int to = (int) Math.min((long) from + field.getLength(), end);
+            while (from < to && buf.get(from) == ' ') {
+                from++;
+            }
+            while (to > from && buf.get(to - 1) == ' ') {
+                to--;
+            }
+            seq.wrap(buf, from, to);
+            for (FieldCheck check : field.checks()) {
+                Class<? extends BorderException> failure = check.check(seq);
+                if (failure != null) {
+                    result.fail(line, field.getOffset() + 1, field.getName(), fileOffset + field.getOffset(), failure);
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.bulk;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The checks to apply to a JSON document, each addressed by a path from the
+ * root, $, through object fields, .name, and every element of an array,
+ * [*], such as $.customer.email or $.items[*].sku.
+ */
+public final class JsonLayout {
+    private static final int MAX_FIELDS = 64;
+
+    private final List<String> paths;
+    private final Node root;
+
+    private JsonLayout(List<String> paths, Node root) {
+        this.paths = Collections.unmodifiableList(paths);
+        this.root = root;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the paths that have checks, in the order added
+     */
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    Node root() {
+        return root;
+    }
+
+    /**
+     * A step of the paths, holding the checks of the path that ends there
+     * and the steps that follow it
+     */
+    static final class Node {
+        final String name;
+        final byte[] key;
+        final long bit;
+        FieldCheck[] checks;
+        Node[] fields = new Node[0];
+        Node items;
+
+        Node(String name, long bit) {
+            this.name = name;
+            this.key = name == null ? null : name.getBytes(StandardCharsets.UTF_8);
+            this.bit = bit;
+        }
+
+        /**
+         * @return the field whose UTF-8 name is the len bytes of key from start, or null
+         */
+        Node field(byte[] key, int start, int len) {
+            for (Node field : fields) {
+                if (Arrays.equals(field.key, 0, field.key.length, key, start, start + len)) {
+                    return field;
+                }
+            }
+            return null;
+        }
+
+        Node addField(String name) {
+            for (Node field : fields) {
+                if (field.name.equals(name)) {
+                    return field;
+                }
+            }
+            if (fields.length == MAX_FIELDS) {
+                throw new IllegalArgumentException("More than " + MAX_FIELDS + " fields checked in one object");
+            }
+            Node field = new Node(name, 1L << fields.length);
+            fields = Arrays.copyOf(fields, fields.length + 1);
+            fields[fields.length - 1] = field;
+            return field;
+        }
+
+        Node copy() {
+            Node copy = new Node(name, bit);
+            copy.checks = checks;
+            copy.fields = new Node[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                copy.fields[i] = fields[i].copy();
+            }
+            copy.items = items == null ? null : items.copy();
+            return copy;
+        }
+
+        boolean hasChildren() {
+            return fields.length > 0 || items != null;
+        }
+    }
+
+    public static final class Builder {
+        private final List<String> paths = new ArrayList<>();
+        private final Node root = new Node(null, 0);
+
+        private Builder() {
+        }
+
+        /**
+         * Adds the checks for a path
+         *
+         * @param path   Path of the value, such as $.items[*].sku
+         * @param checks Checks applied to the value, in order, stopping at the first failure
+         * @return this builder
+         */
+        public Builder field(String path, FieldCheck... checks) {
+            if (path.isEmpty() || path.charAt(0) != '$') {
+                throw new IllegalArgumentException("Path must start with $: " + path);
+            }
+            Node node = root;
+            int i = 1;
+            while (i < path.length()) {
+                char c = path.charAt(i);
+                if (c == '.') {
+                    int end = i + 1;
+                    while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                        end++;
+                    }
+                    if (end == i + 1) {
+                        throw new IllegalArgumentException("Empty field name in path: " + path);
+                    }
+                    node = node.addField(path.substring(i + 1, end));
+                    i = end;
+                } else if (path.startsWith("[*]", i)) {
+                    if (node.items == null) {
+                        node.items = new Node(null, 0);
+                    }
+                    node = node.items;
+                    i += 3;
+                } else {
+                    throw new IllegalArgumentException("Invalid path, expected .name or [*] at " + i + ": " + path);
+                }
+            }
+            if (node.checks != null) {
+                throw new IllegalArgumentException("Path " + path + " is already defined");
+            }
+            node.checks = checks.clone();
+            paths.add(path);
+            return this;
+        }
+
+        public JsonLayout build() {
+            return new JsonLayout(new ArrayList<>(paths), root.copy());
+        }
+    }
+}
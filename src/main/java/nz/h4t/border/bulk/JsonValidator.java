@@ -0,0 +1,681 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.bulk;
+
+import nz.h4t.border.exceptions.BorderException;
+import nz.h4t.border.exceptions.BorderPatternException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Validates JSON documents as they are read, applying the checks of a
+ * JsonLayout to the values at its paths without building a tree.
+ * <p>
+ * The input is read through a fixed buffer, and only values that have
+ * checks, and field names of objects that have checked fields, are decoded,
+ * into buffers that are reused. Memory use is bounded by the buffer size,
+ * the max depth and the longest value checked, rather than the size of the
+ * document. The whole input is parsed, and every string is checked to be
+ * valid UTF-8, so a document that is not valid JSON fails with an
+ * IOException giving the byte offset of the error.
+ * <p>
+ * Strings are given to the checks decoded, numbers and booleans as they are
+ * written, and null as null. A checked field missing from its object is
+ * checked as null, as are the checked fields below it. An object or array
+ * where a path with checks ends is reported as a BorderPatternException.
+ * Failures give the path of the value, such as $.items[3].sku, and the
+ * line, column and byte offset where the value starts. The input may hold
+ * several documents, one after another, such as a JSON Lines file; each is
+ * counted as a record. A document that is a number or a literal must be
+ * followed by whitespace or the end of the input, so 01 or truefalse are
+ * rejected rather than read as two documents.
+ */
+public class JsonValidator {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JsonLayout layout;
+    private int maxFailures = 1000;
+    private int maxDepth = 256;
+
+    public JsonValidator(JsonLayout layout) {
+        this.layout = layout;
+    }
+
+    public int getMaxFailures() {
+        return maxFailures;
+    }
+
+    public void setMaxFailures(int maxFailures) {
+        if (maxFailures < 0) {
+            throw new IllegalArgumentException("maxFailures must not be negative");
+        }
+        this.maxFailures = maxFailures;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @param maxDepth Deepest nesting of objects and arrays allowed before the input is rejected
+     */
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("maxDepth must be at least 1");
+        }
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Validates the JSON in a file
+     *
+     * @param file File being validated, in UTF-8
+     * @return the report of the failures found
+     * @throws IOException if the file cannot be read or is not valid JSON
+     */
+    public ValidationReport validate(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return validate(in);
+        }
+    }
+
+    /**
+     * Validates the JSON read from a stream, which is not closed
+     *
+     * @param in Stream being validated, in UTF-8
+     * @return the report of the failures found
+     * @throws IOException if the stream cannot be read or is not valid JSON
+     */
+    public ValidationReport validate(InputStream in) throws IOException {
+        long begin = System.nanoTime();
+        Parser parser = new Parser(in, maxDepth, new ChunkResult(maxFailures));
+        parser.parse(layout.root());
+        List<ValidationFailure> failures = new ArrayList<>();
+        parser.result.drainTo(failures, 0, maxFailures);
+        return new ValidationReport(parser.result.records, parser.base + parser.pos, parser.result.failureCount,
+                failures, System.nanoTime() - begin);
+    }
+
+    //
+    // Internal Methods...
+    //
+
+    /**
+     * A recursive descent parser over one input. The path to the current
+     * value is kept as a field name or array index per level, and only
+     * turned into a String when a check fails.
+     */
+    private static final class Parser {
+        private final InputStream in;
+        private final int maxDepth;
+        private final ChunkResult result;
+        private final byte[] buf = new byte[BUFFER_SIZE];
+        private final StringBuilder chars = new StringBuilder();
+        private String[] names;
+        private long[] indexes;
+        private byte[] key = new byte[64];
+        private int keyLength;
+        private int pos;
+        private int limit;
+        /**
+         * Offset of buf[0] within the input
+         */
+        private long base;
+        private long line;
+        private long lineStart;
+
+        Parser(InputStream in, int maxDepth, ChunkResult result) {
+            this.in = in;
+            this.maxDepth = maxDepth;
+            this.result = result;
+            this.names = new String[maxDepth + 2];
+            this.indexes = new long[maxDepth + 2];
+        }
+
+        void parse(JsonLayout.Node root) throws IOException {
+            while (true) {
+                int c = nextToken();
+                if (c < 0) {
+                    return;
+                }
+                value(c, root, 0);
+                result.records++;
+                if (c != '{' && c != '[' && c != '"') {
+                    int next = peek();
+                    if (next >= 0 && next != ' ' && next != '\t' && next != '\r' && next != '\n') {
+                        throw error("Expected whitespace between documents", base + pos);
+                    }
+                }
+            }
+        }
+
+        private void value(int c, JsonLayout.Node node, int depth) throws IOException {
+            long offset = base + pos - 1;
+            long valueLine = line;
+            int column = (int) (offset - lineStart) + 1;
+            boolean checked = node != null && node.checks != null;
+            switch (c) {
+                case '{':
+                    if (checked) {
+                        fail(depth, valueLine, column, offset, BorderPatternException.class);
+                    }
+                    object(node, depth);
+                    return;
+                case '[':
+                    if (checked) {
+                        fail(depth, valueLine, column, offset, BorderPatternException.class);
+                    }
+                    array(node, depth);
+                    if (node != null) {
+                        // An array where an object is expected has none of its fields
+                        for (JsonLayout.Node field : node.fields) {
+                            missing(field, depth + 1, valueLine, column, offset);
+                        }
+                    }
+                    return;
+                case '"':
+                    if (checked) {
+                        chars.setLength(0);
+                        string(chars);
+                    } else {
+                        skipString();
+                    }
+                    break;
+                case 't':
+                    literal(c, "rue", checked);
+                    break;
+                case 'f':
+                    literal(c, "alse", checked);
+                    break;
+                case 'n':
+                    literal(c, "ull", false);
+                    break;
+                default:
+                    if (c != '-' && (c < '0' || c > '9')) {
+                        throw error("Unexpected character '" + (char) c + "'", offset);
+                    }
+                    number(c, checked);
+                    break;
+            }
+            if (node != null) {
+                if (checked) {
+                    check(node, c == 'n' ? null : chars, depth, valueLine, column, offset);
+                }
+                if (node.fields.length > 0) {
+                    for (JsonLayout.Node field : node.fields) {
+                        missing(field, depth + 1, valueLine, column, offset);
+                    }
+                }
+            }
+        }
+
+        private void object(JsonLayout.Node node, int depth) throws IOException {
+            if (depth >= maxDepth) {
+                throw error("Nesting deeper than " + maxDepth, base + pos - 1);
+            }
+            boolean hasFields = node != null && node.fields.length > 0;
+            long seen = 0;
+            int c = nextToken();
+            if (c != '}') {
+                while (true) {
+                    if (c != '"') {
+                        throw error("Expected a field name", base + pos - 1);
+                    }
+                    JsonLayout.Node field = null;
+                    if (hasFields) {
+                        field = field(node);
+                    } else {
+                        skipString();
+                    }
+                    if (nextToken() != ':') {
+                        throw error("Expected ':'", base + pos - 1);
+                    }
+                    if (field != null) {
+                        seen |= field.bit;
+                        names[depth + 1] = field.name;
+                    }
+                    value(expectValue(), field, depth + 1);
+                    c = nextToken();
+                    if (c == '}') {
+                        break;
+                    }
+                    if (c != ',') {
+                        throw error("Expected ',' or '}'", base + pos - 1);
+                    }
+                    c = nextToken();
+                }
+            }
+            if (hasFields && seen != (-1L >>> (64 - node.fields.length))) {
+                long offset = base + pos - 1;
+                for (JsonLayout.Node field : node.fields) {
+                    if ((seen & field.bit) == 0) {
+                        missing(field, depth + 1, line, (int) (offset - lineStart) + 1, offset);
+                    }
+                }
+            }
+        }
+
+        private void array(JsonLayout.Node node, int depth) throws IOException {
+            if (depth >= maxDepth) {
+                throw error("Nesting deeper than " + maxDepth, base + pos - 1);
+            }
+            JsonLayout.Node items = node == null ? null : node.items;
+            int c = nextToken();
+            if (c == ']') {
+                return;
+            }
+            long index = 0;
+            while (true) {
+                names[depth + 1] = null;
+                indexes[depth + 1] = index++;
+                if (c < 0) {
+                    throw error("Unexpected end of input", base + pos);
+                }
+                value(c, items, depth + 1);
+                c = nextToken();
+                if (c == ']') {
+                    return;
+                }
+                if (c != ',') {
+                    throw error("Expected ',' or ']'", base + pos - 1);
+                }
+                c = nextToken();
+            }
+        }
+
+        /**
+         * Checks a field that is not in its object as null, and the fields
+         * below it that have checks
+         */
+        private void missing(JsonLayout.Node field, int depth, long valueLine, int column, long offset) {
+            if (depth == names.length) {
+                // Paths of the layout can be deeper than the input
+                names = Arrays.copyOf(names, depth * 2);
+                indexes = Arrays.copyOf(indexes, depth * 2);
+            }
+            names[depth] = field.name;
+            if (field.checks != null) {
+                check(field, null, depth, valueLine, column, offset);
+            }
+            for (JsonLayout.Node child : field.fields) {
+                missing(child, depth + 1, valueLine, column, offset);
+                names[depth] = field.name;
+            }
+        }
+
+        private void check(JsonLayout.Node node, CharSequence value, int depth, long valueLine, int column, long offset) {
+            for (FieldCheck check : node.checks) {
+                Class<? extends BorderException> failure = check.check(value);
+                if (failure != null) {
+                    fail(depth, valueLine, column, offset, failure);
+                    return;
+                }
+            }
+        }
+
+        private void fail(int depth, long valueLine, int column, long offset, Class<? extends BorderException> failure) {
+            result.fail(valueLine, column, path(depth), offset, failure);
+        }
+
+        private String path(int depth) {
+            StringBuilder sb = new StringBuilder("$");
+            for (int i = 1; i <= depth; i++) {
+                if (names[i] != null) {
+                    sb.append('.').append(names[i]);
+                } else {
+                    sb.append('[').append(indexes[i]).append(']');
+                }
+            }
+            return sb.toString();
+        }
+
+        //
+        // Tokens
+        //
+
+        private int read() throws IOException {
+            if (pos == limit && !fill()) {
+                return -1;
+            }
+            return buf[pos++] & 0xff;
+        }
+
+        private boolean fill() throws IOException {
+            base += limit;
+            pos = 0;
+            limit = 0;
+            int n;
+            do {
+                n = in.read(buf, 0, buf.length);
+            } while (n == 0);
+            if (n < 0) {
+                return false;
+            }
+            limit = n;
+            return true;
+        }
+
+        /**
+         * @return the next character that is not whitespace, or -1 at the end of the input
+         */
+        private int nextToken() throws IOException {
+            while (true) {
+                int c = read();
+                if (c == '\n') {
+                    line++;
+                    lineStart = base + pos;
+                } else if (c != ' ' && c != '\t' && c != '\r') {
+                    return c;
+                }
+            }
+        }
+
+        private int expectValue() throws IOException {
+            int c = nextToken();
+            if (c < 0) {
+                throw error("Unexpected end of input", base + pos);
+            }
+            return c;
+        }
+
+        private void skipString() throws IOException {
+            while (true) {
+                if (pos == limit && !fill()) {
+                    throw error("Unterminated string", base + pos);
+                }
+                byte b = buf[pos++];
+                if (b == '"') {
+                    return;
+                }
+                if (b == '\\') {
+                    escape(null);
+                } else if (b < 0) {
+                    utf8(b & 0xff);
+                } else if (b < 0x20) {
+                    throw error("Control character in string", base + pos - 1);
+                }
+            }
+        }
+
+        /**
+         * Decodes a string from UTF-8, after its opening quote, into chars
+         */
+        private void string(StringBuilder out) throws IOException {
+            while (true) {
+                int c = read();
+                if (c < 0) {
+                    throw error("Unterminated string", base + pos);
+                }
+                if (c == '"') {
+                    return;
+                }
+                if (c == '\\') {
+                    escape(out);
+                } else if (c < 0x20) {
+                    throw error("Control character in string", base + pos - 1);
+                } else if (c < 0x80) {
+                    out.append((char) c);
+                } else {
+                    out.appendCodePoint(utf8(c));
+                }
+            }
+        }
+
+        /**
+         * Reads the rest of a UTF-8 sequence after its lead byte. Overlong
+         * forms, surrogates and code points above 0x10FFFF are rejected, as
+         * are lead bytes that cannot start a sequence.
+         *
+         * @return the code point
+         */
+        private int utf8(int lead) throws IOException {
+            long offset = base + pos - 1;
+            int cp;
+            int more;
+            int min;
+            if (lead >= 0xc2 && lead <= 0xdf) {
+                cp = lead & 0x1f;
+                more = 1;
+                min = 0x80;
+            } else if (lead >= 0xe0 && lead <= 0xef) {
+                cp = lead & 0x0f;
+                more = 2;
+                min = 0x800;
+            } else if (lead >= 0xf0 && lead <= 0xf4) {
+                cp = lead & 0x07;
+                more = 3;
+                min = 0x10000;
+            } else {
+                throw error("Invalid UTF-8", offset);
+            }
+            for (int i = 0; i < more; i++) {
+                int b = read();
+                if ((b & 0xc0) != 0x80) {
+                    throw error("Invalid UTF-8", offset);
+                }
+                cp = (cp << 6) | (b & 0x3f);
+            }
+            if (cp < min || cp > Character.MAX_CODE_POINT || (cp >= 0xd800 && cp <= 0xdfff)) {
+                throw error("Invalid UTF-8", offset);
+            }
+            return cp;
+        }
+
+        /**
+         * Reads an escape after its backslash, appending the character to out unless null
+         */
+        private void escape(StringBuilder out) throws IOException {
+            int c = read();
+            char ch;
+            switch (c) {
+                case '"':
+                case '\\':
+                case '/':
+                    ch = (char) c;
+                    break;
+                case 'b':
+                    ch = '\b';
+                    break;
+                case 'f':
+                    ch = '\f';
+                    break;
+                case 'n':
+                    ch = '\n';
+                    break;
+                case 'r':
+                    ch = '\r';
+                    break;
+                case 't':
+                    ch = '\t';
+                    break;
+                case 'u':
+                    int cp = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(read(), 16);
+                        if (digit < 0) {
+                            throw error("Invalid \\u escape", base + pos - 1);
+                        }
+                        cp = cp * 16 + digit;
+                    }
+                    ch = (char) cp;
+                    break;
+                default:
+                    throw error("Invalid escape", base + pos - 1);
+            }
+            if (out != null) {
+                out.append(ch);
+            }
+        }
+
+        /**
+         * Reads a field name, after its opening quote, and finds the field of
+         * the node it names. An ASCII name without escapes that is all in the
+         * buffer is compared where it is, without being copied; any other
+         * name is decoded, which checks its UTF-8.
+         */
+        private JsonLayout.Node field(JsonLayout.Node node) throws IOException {
+            int end = pos;
+            byte b = 0;
+            while (end < limit && (b = buf[end]) != '"' && b != '\\' && b >= 0x20) {
+                end++;
+            }
+            if (end < limit && b == '"') {
+                JsonLayout.Node field = node.field(buf, pos, end - pos);
+                pos = end + 1;
+                return field;
+            }
+            key();
+            return node.field(key, 0, keyLength);
+        }
+
+        /**
+         * Decodes a field name, after its opening quote, into key as UTF-8
+         */
+        private void key() throws IOException {
+            chars.setLength(0);
+            string(chars);
+            keyLength = 0;
+            for (int i = 0; i < chars.length(); i++) {
+                char c = chars.charAt(i);
+                if (keyLength + 3 > key.length) {
+                    key = Arrays.copyOf(key, key.length * 2);
+                }
+                if (c < 0x80) {
+                    key[keyLength++] = (byte) c;
+                } else if (c < 0x800) {
+                    key[keyLength++] = (byte) (0xc0 | (c >> 6));
+                    key[keyLength++] = (byte) (0x80 | (c & 0x3f));
+                } else if (Character.isHighSurrogate(c) && i + 1 < chars.length()
+                        && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, chars.charAt(++i));
+                    if (keyLength + 4 > key.length) {
+                        key = Arrays.copyOf(key, key.length * 2);
+                    }
+                    key[keyLength++] = (byte) (0xf0 | (cp >> 18));
+                    key[keyLength++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                    key[keyLength++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                    key[keyLength++] = (byte) (0x80 | (cp & 0x3f));
+                } else {
+                    key[keyLength++] = (byte) (0xe0 | (c >> 12));
+                    key[keyLength++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                    key[keyLength++] = (byte) (0x80 | (c & 0x3f));
+                }
+            }
+        }
+
+        private void literal(int first, String rest, boolean keep) throws IOException {
+            for (int i = 0; i < rest.length(); i++) {
+                if (read() != rest.charAt(i)) {
+                    throw error("Invalid literal", base + pos - 1);
+                }
+            }
+            if (keep) {
+                chars.setLength(0);
+                chars.append((char) first).append(rest);
+            }
+        }
+
+        /**
+         * Reads a number as JSON writes it: -?(0|[1-9][0-9]*)(.[0-9]+)?([eE][+-]?[0-9]+)?
+         */
+        private void number(int first, boolean keep) throws IOException {
+            long offset = base + pos - 1;
+            if (keep) {
+                chars.setLength(0);
+                chars.append((char) first);
+            }
+            int c = first;
+            if (c == '-') {
+                c = isDigit(peek()) ? take(keep) : -1;
+            }
+            if (c >= '1' && c <= '9') {
+                digits(keep);
+            } else if (c != '0') {
+                throw error("Invalid number", offset);
+            }
+            if (peek() == '.') {
+                take(keep);
+                if (!isDigit(peek())) {
+                    throw error("Invalid number", offset);
+                }
+                digits(keep);
+            }
+            if (peek() == 'e' || peek() == 'E') {
+                take(keep);
+                if (peek() == '+' || peek() == '-') {
+                    take(keep);
+                }
+                if (!isDigit(peek())) {
+                    throw error("Invalid number", offset);
+                }
+                digits(keep);
+            }
+        }
+
+        private void digits(boolean keep) throws IOException {
+            while (isDigit(peek())) {
+                take(keep);
+            }
+        }
+
+        /**
+         * @return the next byte without reading it, or -1 at the end of the input
+         */
+        private int peek() throws IOException {
+            if (pos == limit && !fill()) {
+                return -1;
+            }
+            return buf[pos] & 0xff;
+        }
+
+        /**
+         * Reads the byte that peek() returned
+         */
+        private int take(boolean keep) {
+            int c = buf[pos++] & 0xff;
+            if (keep) {
+                chars.append((char) c);
+            }
+            return c;
+        }
+
+        private static boolean isDigit(int c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private IOException error(String message, long offset) {
+            return new IOException(message + " at offset " + offset);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.bulk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Base class for validators of line based files. The file is split on line
+ * boundaries into chunks, each chunk is memory mapped and validated on its
+ * own thread, and the results are merged back in file order.
+ * <p>
+ * Lines end with '\n' or "\r\n". Memory use is bounded by the chunk size and
+ * max failures rather than the size of the file.
+ */
+public abstract class MappedFileValidator {
+    private static final int MAX_CHUNK_SIZE = 1 << 30;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int chunkSize = 16 * 1024 * 1024;
+    private int maxFailures = 1000;
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("chunkSize must be between 1 and " + MAX_CHUNK_SIZE);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    public int getMaxFailures() {
+        return maxFailures;
+    }
+
+    public void setMaxFailures(int maxFailures) {
+        if (maxFailures < 0) {
+            throw new IllegalArgumentException("maxFailures must not be negative");
+        }
+        this.maxFailures = maxFailures;
+    }
+
+    /**
+     * Validates every line of the file
+     *
+     * @param file File being validated
+     * @return the report of the failures found
+     * @throws IOException if the file cannot be read
+     */
+    public ValidationReport validate(Path file) throws IOException {
+        long begin = System.nanoTime();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            long[] bounds = boundaries(ch, size);
+            int count = bounds.length - 1;
+            ChunkResult[] chunks = new ChunkResult[count];
+            if (parallelism == 1 || count <= 1) {
+                for (int i = 0; i < count; i++) {
+                    chunks[i] = validateChunk(ch, bounds[i], bounds[i + 1]);
+                }
+            } else {
+                ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, count));
+                try {
+                    List<Future<ChunkResult>> futures = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        long from = bounds[i];
+                        long to = bounds[i + 1];
+                        futures.add(pool.submit(() -> validateChunk(ch, from, to)));
+                    }
+                    for (int i = 0; i < count; i++) {
+                        chunks[i] = futures.get(i).get();
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted validating " + file, ex);
+                } catch (ExecutionException ex) {
+                    if (ex.getCause() instanceof IOException) {
+                        throw (IOException) ex.getCause();
+                    }
+                    throw new IOException("Failed validating " + file, ex.getCause());
+                } finally {
+                    pool.shutdownNow();
+                }
+            }
+            return merge(chunks, size, System.nanoTime() - begin);
+        }
+    }
+
+    /**
+     * Validates a single line
+     *
+     * @param buf        Buffer holding the line
+     * @param start      Index of the first byte of the line
+     * @param end        Index after the last byte of the line, excluding the line terminator
+     * @param fileOffset Offset of the first byte of the line within the file
+     * @param line       Line number within the chunk, starting at 0
+     * @param result     Collects the failures
+     * @return true if the line was a record, false if it was skipped
+     */
+    abstract boolean validateLine(ByteBuffer buf, int start, int end, long fileOffset, long line, ChunkResult result);
+
+    //
+    // Internal Methods...
+    //
+
+    private ChunkResult validateChunk(FileChannel ch, long from, long to) throws IOException {
+        ChunkResult result = new ChunkResult(maxFailures);
+        MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        int limit = buf.limit();
+        int start = 0;
+        long line = 0;
+        while (start < limit) {
+            int nl = start;
+            while (nl < limit && buf.get(nl) != '\n') {
+                nl++;
+            }
+            int end = nl;
+            if (end > start && buf.get(end - 1) == '\r') {
+                end--;
+            }
+            if (validateLine(buf, start, end, from + start, line, result)) {
+                result.records++;
+            }
+            line++;
+            start = nl + 1;
+        }
+        result.lines = line;
+        return result;
+    }
+
+    private ValidationReport merge(ChunkResult[] chunks, long size, long elapsed) {
+        List<ValidationFailure> failures = new ArrayList<>();
+        long lineBase = 0;
+        long records = 0;
+        long failureCount = 0;
+        for (ChunkResult chunk : chunks) {
+            chunk.drainTo(failures, lineBase, maxFailures);
+            lineBase += chunk.lines;
+            records += chunk.records;
+            failureCount += chunk.failureCount;
+        }
+        return new ValidationReport(records, size, failureCount, failures, elapsed);
+    }
+
+    /**
+     * Splits the file into chunks of roughly chunkSize bytes that start at
+     * the beginning of a line.
+     */
+    private long[] boundaries(FileChannel ch, long size) throws IOException {
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer scan = ByteBuffer.allocate(8192);
+        long pos = 0;
+        while (pos < size) {
+            long next = lineStart(ch, Math.min(size, pos + chunkSize), size, scan);
+            if (next - pos > MAX_CHUNK_SIZE) {
+                throw new IOException("Line longer than " + MAX_CHUNK_SIZE + " bytes at offset " + pos);
+            }
+            bounds.add(next);
+            pos = next;
+        }
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Finds the first line start at or after pos.
+     */
+    private static long lineStart(FileChannel ch, long pos, long size, ByteBuffer scan) throws IOException {
+        if (pos >= size) {
+            return size;
+        }
+        long at = pos - 1;
+        while (at < size) {
+            scan.clear();
+            int read = ch.read(scan, at);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return at + i + 1;
+                }
+            }
+            at += read;
+        }
+        return size;
+    }
+}
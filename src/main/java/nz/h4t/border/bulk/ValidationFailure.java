@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.bulk;
+
+import nz.h4t.border.exceptions.BorderException;
+
+/**
+ * A single failure found by a bulk validator.
+ */
+public final class ValidationFailure {
+    private final long line;
+    private final int column;
+    private final String field;
+    private final long offset;
+    private final Class<? extends BorderException> failure;
+
+    public ValidationFailure(long line, int column, String field, long offset, Class<? extends BorderException> failure) {
+        this.line = line;
+        this.column = column;
+        this.field = field;
+        this.offset = offset;
+        this.failure = failure;
+    }
+
+    /**
+     * @return the line (or record) number, starting at 1
+     */
+    public long getLine() {
+        return line;
+    }
+
+    /**
+     * @return the column the field starts at, starting at 1
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * @return the name of the field that failed
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * @return the byte offset of the field within the input
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the type of BorderException the equivalent Border check would have thrown
+     */
+    public Class<? extends BorderException> getFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        return line + ":" + column + " " + field + " " + failure.getSimpleName();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.bulk;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of validating a file with a bulk validator. Failures are in
+ * the order they occur in the file, limited to the validator's max failures.
+ */
+public final class ValidationReport {
+    private final long records;
+    private final long bytes;
+    private final long failureCount;
+    private final List<ValidationFailure> failures;
+    private final long elapsedNanos;
+
+    public ValidationReport(long records, long bytes, long failureCount, List<ValidationFailure> failures, long elapsedNanos) {
+        this.records = records;
+        this.bytes = bytes;
+        this.failureCount = failureCount;
+        this.failures = Collections.unmodifiableList(failures);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return true if no failures were found
+     */
+    public boolean isValid() {
+        return failureCount == 0;
+    }
+
+    /**
+     * @return the number of records validated
+     */
+    public long getRecordCount() {
+        return records;
+    }
+
+    /**
+     * @return the number of bytes validated
+     */
+    public long getByteCount() {
+        return bytes;
+    }
+
+    /**
+     * @return the total number of failures, including any that were not kept
+     */
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * @return the failures that were kept, in file order
+     */
+    public List<ValidationFailure> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return true if there were more failures than were kept
+     */
+    public boolean isTruncated() {
+        return failureCount > failures.size();
+    }
+
+    /**
+     * @return the wall clock time taken, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return the throughput in MB/s
+     */
+    public double getThroughput() {
+        if (elapsedNanos == 0) {
+            return 0.0;
+        }
+        return (bytes / (1024.0 * 1024.0)) / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d records, %d failures, %.1f MB/s", records, failureCount, getThroughput());
+    }
+}
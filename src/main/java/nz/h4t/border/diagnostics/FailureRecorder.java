@@ -0,0 +1,190 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.diagnostics;
+
+import nz.h4t.border.exceptions.BorderException;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.invoke.VarHandle;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed size, lock-free ring buffer of the most recent Border failures.
+ * <p>
+ * Recording a failure does not allocate or block: each slot is claimed with
+ * a single compare and set and published with a sequence number, so readers
+ * can take a snapshot while failures are still being recorded. If a writer
+ * laps another writer still filling the same slot, the newer failure is
+ * dropped rather than waiting.
+ * <p>
+ * Install with Border.setFailureRecorder(). Nothing is recorded until then.
+ */
+public class FailureRecorder implements FailureRecorderMBean {
+    public static final String OBJECT_NAME = "nz.h4t.border:type=FailureRecorder";
+
+    private static final long WRITING = -1;
+
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLongArray sequences;
+    private final Class<?>[] kinds;
+    private final String[] codes;
+    private final String[] messages;
+    private final long[] timestamps;
+    private volatile long clearedAt;
+
+    /**
+     * Creates a recorder
+     *
+     * @param capacity Number of failures kept, rounded up to a power of two
+     */
+    public FailureRecorder(int capacity) {
+        if (capacity < 1 || capacity > 1 << 20) {
+            throw new IllegalArgumentException("capacity must be between 1 and " + (1 << 20));
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        if (capacity == 1) {
+            size = 1;
+        }
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        this.kinds = new Class<?>[size];
+        this.codes = new String[size];
+        this.messages = new String[size];
+        this.timestamps = new long[size];
+    }
+
+    /**
+     * Records a failure
+     *
+     * @param ex Exception being thrown
+     */
+    public void record(BorderException ex) {
+        long seq = cursor.getAndIncrement();
+        int slot = (int) (seq & mask);
+        long current = sequences.get(slot);
+        if (current == WRITING || !sequences.compareAndSet(slot, current, WRITING)) {
+            dropped.increment();
+            return;
+        }
+        kinds[slot] = ex.getClass();
+        codes[slot] = ex.getCode();
+        messages[slot] = ex.getMessage();
+        timestamps[slot] = System.currentTimeMillis();
+        sequences.setRelease(slot, seq + 1);
+    }
+
+    /**
+     * @return the failures currently held, oldest first
+     */
+    public List<RecordedFailure> snapshot() {
+        long from = clearedAt;
+        List<RecordedFailure> out = new ArrayList<>(mask + 1);
+        for (int slot = 0; slot <= mask; slot++) {
+            long before = sequences.getAcquire(slot);
+            if (before <= from) {
+                continue;
+            }
+            Class<?> kind = kinds[slot];
+            String code = codes[slot];
+            String message = messages[slot];
+            long timestamp = timestamps[slot];
+            VarHandle.acquireFence();
+            if (sequences.get(slot) == before) {
+                out.add(new RecordedFailure(before - 1, kind, code, message, timestamp));
+            }
+        }
+        out.sort(Comparator.comparingLong(RecordedFailure::getSequence));
+        return out;
+    }
+
+    /**
+     * Registers this recorder with the platform MBean server
+     *
+     * @return the name it was registered under
+     * @throws JMException if it could not be registered
+     */
+    public ObjectName register() throws JMException {
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+        server.registerMBean(this, name);
+        return name;
+    }
+
+    /**
+     * Removes this recorder from the platform MBean server
+     *
+     * @throws JMException if it could not be removed
+     */
+    public void unregister() throws JMException {
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Override
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    @Override
+    public long getRecordedCount() {
+        return cursor.get() - dropped.sum();
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    public String[] recentFailures() {
+        return snapshot().stream()
+                .map(RecordedFailure::toString)
+                .toArray(String[]::new);
+    }
+
+    @Override
+    public void clear() {
+        clearedAt = cursor.get();
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.diagnostics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed size, lock-free histogram of latencies in nanoseconds.
+ * <p>
+ * Buckets are log-linear: values below 64 have a bucket each, and every
+ * power of two above that is split into 32 buckets, so a recorded value is
+ * known to within about 3%. Values up to about 68 seconds are tracked in
+ * 1024 buckets, and longer ones are counted in the last bucket. The exact
+ * max is kept as well.
+ * <p>
+ * Recording is safe from any number of threads. The counts start in one
+ * set of buckets; when threads collide updating a bucket, more sets are
+ * added, up to the number of processors rounded up to a power of two, and
+ * each thread records into the set picked by its id, so that threads
+ * recording at once mostly write different cache lines. A histogram that
+ * is never contended stays at 8KB. A reset that races with recording may
+ * lose the values recorded during it.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_SHIFT = 30;
+    static final int BUCKETS = (MAX_SHIFT + 2) * SUB_COUNT;
+    private static final int MAX_STRIPES = Math.min(64,
+            Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)));
+
+    /**
+     * Sets of buckets, of which the first stripeCount are in use; the others
+     * are null until contention calls for them
+     */
+    private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(MAX_STRIPES);
+    private volatile int stripeCount = 1;
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram() {
+        stripes.set(0, new AtomicLongArray(BUCKETS));
+    }
+
+    /**
+     * @param nanos Latency being recorded, negative values count as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        int bucket = bucket(value);
+        int count = stripeCount;
+        AtomicLongArray counts = stripes.get(count == 1 ? 0 : stripe(count));
+        long current = counts.get(bucket);
+        if (!counts.compareAndSet(bucket, current, current + 1)) {
+            counts.incrementAndGet(bucket);
+            if (count < MAX_STRIPES) {
+                grow(count);
+            }
+        }
+        total.add(value);
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // Retry until this value is recorded or a larger one is
+        }
+    }
+
+    /**
+     * @return a copy of the histogram as it is now
+     */
+    public LatencySnapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        int count = stripeCount;
+        for (int s = 0; s < count; s++) {
+            AtomicLongArray counts = stripes.get(s);
+            for (int i = 0; i < BUCKETS; i++) {
+                copy[i] += counts.get(i);
+            }
+        }
+        return new LatencySnapshot(copy, total.sum(), max.get());
+    }
+
+    /**
+     * Clears every recorded value
+     */
+    public void reset() {
+        int count = stripeCount;
+        for (int s = 0; s < count; s++) {
+            AtomicLongArray counts = stripes.get(s);
+            for (int i = 0; i < BUCKETS; i++) {
+                counts.set(i, 0);
+            }
+        }
+        total.reset();
+        max.set(0);
+    }
+
+    //
+    // Internal Methods...
+    //
+
+    /**
+     * Doubles the number of stripes in use, unless another thread already has
+     */
+    private synchronized void grow(int seen) {
+        if (stripeCount != seen) {
+            return;
+        }
+        int next = seen * 2;
+        for (int s = seen; s < next; s++) {
+            stripes.set(s, new AtomicLongArray(BUCKETS));
+        }
+        stripeCount = next;
+    }
+
+    private static int stripe(int count) {
+        long id = Thread.currentThread().threadId();
+        return (int) ((id * 0x9e3779b97f4a7c15L) >>> 32) & (count - 1);
+    }
+
+    static int bucket(long value) {
+        if (value < 2 * SUB_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        if (shift > MAX_SHIFT) {
+            return BUCKETS - 1;
+        }
+        return (shift + 1) * SUB_COUNT + (int) (value >>> shift) - SUB_COUNT;
+    }
+
+    /**
+     * @return the largest value that falls in the bucket
+     */
+    static long highestValue(int bucket) {
+        if (bucket < 2 * SUB_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_COUNT - 1;
+        long top = SUB_COUNT + bucket % SUB_COUNT;
+        return ((top + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.diagnostics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records how long checks take, in a LatencyHistogram per check and,
+ * optionally, per reference code. Give it to BorderPolicy.Builder.latencyRecorder()
+ * to record the checks whose cost depends on their input or arguments:
+ * checkPattern, checkValidEmail, checkInCollection, checkPossibleValues,
+ * checkNoDuplicates and the checkThat variants. The other checks, such as
+ * the null, length, character class, identifier, date and number checks,
+ * take tens of nanoseconds and are not timed, as reading the clock twice
+ * would cost as much as the check.
+ * <p>
+ * Recording by reference code walks the stack on every recorded check,
+ * passing or failing, which costs around a microsecond, so it is meant for
+ * finding the slow call sites rather than for leaving on. At most 256 reference codes get
+ * their own histogram and the rest are recorded under "other", so the
+ * memory used stays fixed.
+ */
+public final class LatencyRecorder {
+    public static final String OTHER = "other";
+
+    private static final int MAX_REFERENCES = 256;
+
+    private final boolean byReference;
+    private final ConcurrentHashMap<String, LatencyHistogram> checks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LatencyHistogram> references = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a recorder that records by check only
+     */
+    public LatencyRecorder() {
+        this(false);
+    }
+
+    /**
+     * @param byReference Whether to record by reference code as well as by check
+     */
+    public LatencyRecorder(boolean byReference) {
+        this.byReference = byReference;
+    }
+
+    public boolean isByReference() {
+        return byReference;
+    }
+
+    /**
+     * @param check     Name of the check, such as "checkPattern"
+     * @param reference Reference code of the caller, ignored unless recording by reference
+     * @param nanos     How long the check took
+     */
+    public void record(String check, String reference, long nanos) {
+        histogram(checks, check).record(nanos);
+        if (byReference && reference != null) {
+            if (references.size() >= MAX_REFERENCES && !references.containsKey(reference)) {
+                reference = OTHER;
+            }
+            histogram(references, reference).record(nanos);
+        }
+    }
+
+    /**
+     * @return a snapshot of each check recorded, by check name
+     */
+    public Map<String, LatencySnapshot> checkSnapshots() {
+        return snapshots(checks);
+    }
+
+    /**
+     * @return a snapshot of each reference code recorded, empty unless recording by reference
+     */
+    public Map<String, LatencySnapshot> referenceSnapshots() {
+        return snapshots(references);
+    }
+
+    /**
+     * Clears every histogram
+     */
+    public void reset() {
+        checks.values().forEach(LatencyHistogram::reset);
+        references.values().forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * Exports the histograms as text, one line per check or reference code,
+     * with latencies in nanoseconds:
+     * <pre>
+     * # kind name count mean p50 p99 p99.9 max
+     * check checkPattern 1000 310 250 1215 5439 10234
+     * reference OrderService:42 1000 310 250 1215 5439 10234
+     * </pre>
+     *
+     * @return the exported text
+     */
+    public String export() {
+        StringBuilder sb = new StringBuilder("# kind name count mean p50 p99 p99.9 max\n");
+        export(sb, "check", checkSnapshots());
+        export(sb, "reference", referenceSnapshots());
+        return sb.toString();
+    }
+
+    private static void export(StringBuilder sb, String kind, Map<String, LatencySnapshot> snapshots) {
+        for (Map.Entry<String, LatencySnapshot> entry : snapshots.entrySet()) {
+            LatencySnapshot snapshot = entry.getValue();
+            sb.append(kind).append(' ')
+                    .append(entry.getKey().replace(' ', '_')).append(' ')
+                    .append(snapshot.getCount()).append(' ')
+                    .append(Math.round(snapshot.getMean())).append(' ')
+                    .append(snapshot.getValueAtPercentile(50)).append(' ')
+                    .append(snapshot.getValueAtPercentile(99)).append(' ')
+                    .append(snapshot.getValueAtPercentile(99.9)).append(' ')
+                    .append(snapshot.getMax()).append('\n');
+        }
+    }
+
+    private static LatencyHistogram histogram(ConcurrentHashMap<String, LatencyHistogram> histograms, String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+        }
+        return histogram;
+    }
+
+    private static Map<String, LatencySnapshot> snapshots(ConcurrentHashMap<String, LatencyHistogram> histograms) {
+        Map<String, LatencySnapshot> snapshots = new TreeMap<>();
+        histograms.forEach((name, histogram) -> snapshots.put(name, histogram.snapshot()));
+        return snapshots;
+    }
+}
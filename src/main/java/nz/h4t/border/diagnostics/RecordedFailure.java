@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.diagnostics;
+
+import java.time.Instant;
+
+/**
+ * A failure taken from a FailureRecorder
+ */
+public final class RecordedFailure {
+    private final long sequence;
+    private final Class<?> kind;
+    private final String code;
+    private final String message;
+    private final long timestamp;
+
+    RecordedFailure(long sequence, Class<?> kind, String code, String message, long timestamp) {
+        this.sequence = sequence;
+        this.kind = kind;
+        this.code = code;
+        this.message = message;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * @return the order the failure was recorded in, starting at 0
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return the type of BorderException thrown
+     */
+    public Class<?> getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the reference code of the check that failed
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * @return the error message given to the check
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return the time of the failure, in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return Instant.ofEpochMilli(timestamp) + " " + kind.getSimpleName() + " " + code + " " + message;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for a regex match in checkPattern or checkValidEmail
+ * that took longer than the event threshold, 10 ms unless the recording
+ * settings give another. The stack trace of the event shows the caller.
+ * <p>
+ * Disabled by default. Enable nz.h4t.border.SlowCheck in the recording
+ * settings, or with Recording.enable(SlowCheckEvent.class).withThreshold().
+ */
+@Name("nz.h4t.border.SlowCheck")
+@Label("Slow Check")
+@Category("Border Control")
+@Description("A Border regex check took longer than the threshold")
+@Enabled(false)
+@Threshold("10 ms")
+public final class SlowCheckEvent extends Event {
+    @Label("Check")
+    private String check;
+
+    @Label("Pattern")
+    private String pattern;
+
+    @Label("Input Length")
+    private int inputLength;
+
+    @Label("Valid")
+    private boolean valid;
+
+    public void setCheck(String check) {
+        this.check = check;
+    }
+
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+    }
+
+    public void setInputLength(int inputLength) {
+        this.inputLength = inputLength;
+    }
+
+    public void setValid(boolean valid) {
+        this.valid = valid;
+    }
+}
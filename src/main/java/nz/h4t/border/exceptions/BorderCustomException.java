@@ -31,4 +31,13 @@ public class BorderCustomException extends BorderIsNullOrEmptyException {
     public BorderCustomException(String code, String message) {
         super(code, message);
     }
+
+    public BorderCustomException(String code, String message, boolean writableStackTrace) {
+        super(code, message, writableStackTrace);
+    }
+
+    @Override
+    public BorderErrorKind getKind() {
+        return BorderErrorKind.CUSTOM;
+    }
 }
@@ -0,0 +1,63 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.exceptions;
+
+/**
+ * Thrown when a collection or array holds the same value twice, with the
+ * index of the second occurrence of the first duplicate and its value.
+ * The value, which need not be serializable, is not serialized.
+ */
+public class BorderDuplicateException extends BorderEqualException {
+    private final int index;
+    private final transient Object value;
+
+    public BorderDuplicateException(String code, String message, int index, Object value) {
+        super(code, message);
+        this.index = index;
+        this.value = value;
+    }
+
+    public BorderDuplicateException(String code, String message, boolean writableStackTrace, int index, Object value) {
+        super(code, message, writableStackTrace);
+        this.index = index;
+        this.value = value;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    @Override
+    public BorderErrorKind getKind() {
+        return BorderErrorKind.DUPLICATE;
+    }
+}
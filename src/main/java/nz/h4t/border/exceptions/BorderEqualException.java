@@ -31,4 +31,13 @@ public class BorderEqualException extends BorderException {
     public BorderEqualException(String code, String message) {
         super(code, message);
     }
+
+    public BorderEqualException(String code, String message, boolean writableStackTrace) {
+        super(code, message, writableStackTrace);
+    }
+
+    @Override
+    public BorderErrorKind getKind() {
+        return BorderErrorKind.EQUAL;
+    }
 }
@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.exceptions;
+
+/**
+ * The kind of a BorderException, one for each exception class, with a
+ * number that stays the same between releases so that it can be mapped to
+ * an error code on the wire. Subclasses of a Border exception that are not
+ * part of Border have the kind of the Border class they extend.
+ */
+public enum BorderErrorKind {
+    OTHER(0),
+    EQUAL(1),
+    INVALID_DATE(2),
+    INVALID_EMAIL(3),
+    INVALID_LENGTH(4),
+    INVALID_STATE(5),
+    IS_EMPTY(6),
+    IS_FALSE(7),
+    IS_NULL(8),
+    IS_NULL_OR_EMPTY(9),
+    IS_TRUE(10),
+    NO_MATCH(11),
+    NOT_EQUAL(12),
+    NOT_NULL(13),
+    PATTERN(14),
+    STRING(15),
+    TOO_LONG(16),
+    TOO_SHORT(17),
+    CUSTOM(18),
+    NULL_ELEMENT(19),
+    EMPTY_ELEMENT(20),
+    DUPLICATE(21);
+
+    private static final BorderErrorKind[] BY_NUMBER;
+
+    static {
+        BorderErrorKind[] kinds = values();
+        BY_NUMBER = new BorderErrorKind[kinds.length];
+        for (BorderErrorKind kind : kinds) {
+            BY_NUMBER[kind.number] = kind;
+        }
+    }
+
+    private final int number;
+
+    BorderErrorKind(int number) {
+        this.number = number;
+    }
+
+    /**
+     * @return the stable number of the kind
+     */
+    public int getNumber() {
+        return number;
+    }
+
+    /**
+     * @param number Number of a kind
+     * @return the kind with the number
+     * @throws IllegalArgumentException if no kind has the number
+     */
+    public static BorderErrorKind fromNumber(int number) {
+        if (number < 0 || number >= BY_NUMBER.length) {
+            throw new IllegalArgumentException("No error kind " + number);
+        }
+        return BY_NUMBER[number];
+    }
+}
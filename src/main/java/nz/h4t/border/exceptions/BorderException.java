@@ -29,17 +29,54 @@ package nz.h4t.border.exceptions;
 
 public class BorderException extends RuntimeException {
     private String code;
+    // Not serialized, getReference() looks it up again from the code
+    private transient BorderReference reference;
 
     public BorderException(String code, String message) {
         super(message);
         this.setCode(code);
     }
 
+    public BorderException(String code, String message, boolean writableStackTrace) {
+        super(message, null, true, writableStackTrace);
+        this.setCode(code);
+    }
+
     public String getCode() {
         return code;
     }
 
     public void setCode(String code) {
         this.code = code;
+        this.reference = null;
+    }
+
+    /**
+     * @return the reference for the code, interned if a check has failed with it
+     */
+    public BorderReference getReference() {
+        BorderReference ref = reference;
+        if (ref == null && code != null) {
+            ref = BorderReference.of(code);
+            reference = ref;
+        }
+        return ref;
+    }
+
+    /**
+     * Sets the reference, and the code to its code
+     *
+     * @param reference Reference of the code that called the check
+     */
+    public void setReference(BorderReference reference) {
+        this.code = reference.getCode();
+        this.reference = reference;
+    }
+
+    /**
+     * @return the kind of the exception
+     */
+    public BorderErrorKind getKind() {
+        return BorderErrorKind.OTHER;
     }
 }
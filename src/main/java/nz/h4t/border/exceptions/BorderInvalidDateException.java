@@ -31,4 +31,13 @@ public class BorderInvalidDateException extends BorderException {
     public BorderInvalidDateException(String code, String message) {
         super(code, message);
     }
+
+    public BorderInvalidDateException(String code, String message, boolean writableStackTrace) {
+        super(code, message, writableStackTrace);
+    }
+
+    @Override
+    public BorderErrorKind getKind() {
+        return BorderErrorKind.INVALID_DATE;
+    }
 }
@@ -31,4 +31,13 @@ public class BorderInvalidEmailException extends BorderException {
     public BorderInvalidEmailException(String code, String message) {
         super(code, message);
     }
+
+    public BorderInvalidEmailException(String code, String message, boolean writableStackTrace) {
+        super(code, message, writableStackTrace);
+    }
+
+    @Override
+    public BorderErrorKind getKind() {
+        return BorderErrorKind.INVALID_EMAIL;
+    }
 }
@@ -32,4 +32,12 @@ public class BorderInvalidLengthException extends BorderStringException {
         super(code, message);
     }
 
+    public BorderInvalidLengthException(String code, String message, boolean writableStackTrace) {
+        super(code, message, writableStackTrace);
+    }
+
+    @Override
+    public BorderErrorKind getKind() {
+        return BorderErrorKind.INVALID_LENGTH;
+    }
 }
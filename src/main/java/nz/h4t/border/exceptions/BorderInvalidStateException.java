@@ -31,4 +31,13 @@ public class BorderInvalidStateException extends BorderException {
     public BorderInvalidStateException(String code, String message) {
         super(code, message);
     }
+
+    public BorderInvalidStateException(String code, String message, boolean writableStackTrace) {
+        super(code, message, writableStackTrace);
+    }
+
+    @Override
+    public BorderErrorKind getKind() {
+        return BorderErrorKind.INVALID_STATE;
+    }
 }
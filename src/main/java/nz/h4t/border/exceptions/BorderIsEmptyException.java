@@ -31,4 +31,13 @@ public class BorderIsEmptyException extends BorderIsNullOrEmptyException {
     public BorderIsEmptyException(String code, String message) {
         super(code, message);
     }
+
+    public BorderIsEmptyException(String code, String message, boolean writableStackTrace) {
+        super(code, message, writableStackTrace);
+    }
+
+    @Override
+    public BorderErrorKind getKind() {
+        return BorderErrorKind.IS_EMPTY;
+    }
 }
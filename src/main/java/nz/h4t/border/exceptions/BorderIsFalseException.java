@@ -31,4 +31,13 @@ public class BorderIsFalseException extends BorderInvalidStateException {
     public BorderIsFalseException(String code, String message) {
         super(code, message);
     }
+
+    public BorderIsFalseException(String code, String message, boolean writableStackTrace) {
+        super(code, message, writableStackTrace);
+    }
+
+    @Override
+    public BorderErrorKind getKind() {
+        return BorderErrorKind.IS_FALSE;
+    }
 }
@@ -31,4 +31,13 @@ public class BorderIsNullException extends BorderException {
     public BorderIsNullException(String code, String message) {
         super(code, message);
     }
+
+    public BorderIsNullException(String code, String message, boolean writableStackTrace) {
+        super(code, message, writableStackTrace);
+    }
+
+    @Override
+    public BorderErrorKind getKind() {
+        return BorderErrorKind.IS_NULL;
+    }
 }
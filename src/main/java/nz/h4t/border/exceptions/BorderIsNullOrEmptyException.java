@@ -31,4 +31,13 @@ public class BorderIsNullOrEmptyException extends BorderStringException {
     public BorderIsNullOrEmptyException(String code, String message) {
         super(code, message);
     }
+
+    public BorderIsNullOrEmptyException(String code, String message, boolean writableStackTrace) {
+        super(code, message, writableStackTrace);
+    }
+
+    @Override
+    public BorderErrorKind getKind() {
+        return BorderErrorKind.IS_NULL_OR_EMPTY;
+    }
 }
@@ -31,4 +31,13 @@ public class BorderIsTrueException extends BorderInvalidStateException {
     public BorderIsTrueException(String code, String message) {
         super(code, message);
     }
+
+    public BorderIsTrueException(String code, String message, boolean writableStackTrace) {
+        super(code, message, writableStackTrace);
+    }
+
+    @Override
+    public BorderErrorKind getKind() {
+        return BorderErrorKind.IS_TRUE;
+    }
 }
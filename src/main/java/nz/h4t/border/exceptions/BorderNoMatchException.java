@@ -31,4 +31,13 @@ public class BorderNoMatchException extends BorderStringException {
     public BorderNoMatchException(String code, String message) {
         super(code, message);
     }
+
+    public BorderNoMatchException(String code, String message, boolean writableStackTrace) {
+        super(code, message, writableStackTrace);
+    }
+
+    @Override
+    public BorderErrorKind getKind() {
+        return BorderErrorKind.NO_MATCH;
+    }
 }
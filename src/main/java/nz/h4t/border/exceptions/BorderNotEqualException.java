@@ -31,4 +31,13 @@ public class BorderNotEqualException extends BorderException {
     public BorderNotEqualException(String code, String message) {
         super(code, message);
     }
+
+    public BorderNotEqualException(String code, String message, boolean writableStackTrace) {
+        super(code, message, writableStackTrace);
+    }
+
+    @Override
+    public BorderErrorKind getKind() {
+        return BorderErrorKind.NOT_EQUAL;
+    }
 }
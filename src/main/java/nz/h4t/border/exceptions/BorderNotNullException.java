@@ -31,4 +31,13 @@ public class BorderNotNullException extends BorderException {
     public BorderNotNullException(String code, String message) {
         super(code, message);
     }
+
+    public BorderNotNullException(String code, String message, boolean writableStackTrace) {
+        super(code, message, writableStackTrace);
+    }
+
+    @Override
+    public BorderErrorKind getKind() {
+        return BorderErrorKind.NOT_NULL;
+    }
 }
@@ -31,4 +31,13 @@ public class BorderPatternException extends BorderStringException {
     public BorderPatternException(String code, String message) {
         super(code, message);
     }
+
+    public BorderPatternException(String code, String message, boolean writableStackTrace) {
+        super(code, message, writableStackTrace);
+    }
+
+    @Override
+    public BorderErrorKind getKind() {
+        return BorderErrorKind.PATTERN;
+    }
 }
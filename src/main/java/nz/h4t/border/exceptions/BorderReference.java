@@ -0,0 +1,174 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.exceptions;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The reference code of the code that called a failed check, such as
+ * "OrderService:42". The references Border builds from the calling class
+ * and line are interned, so that there is one instance for each code.
+ * Other codes, such as one set on an exception, are only looked up, so
+ * that they cannot grow the table without bound.
+ * <p>
+ * Each interned reference also has a small number, given out in the order
+ * the codes are first seen, so failures can be counted in an array indexed
+ * by it. The numbers are only stable within one run of the JVM.
+ */
+public final class BorderReference {
+    private static final ConcurrentMap<String, BorderReference> BY_CODE = new ConcurrentHashMap<>();
+    private static final int MAX_CACHED_LINE = 1 << 16;
+
+    /**
+     * The reference used when no caller is looked up, "-"
+     */
+    public static final BorderReference NONE = intern("-");
+
+    private static final ClassValue<Lines> LINES = new ClassValue<Lines>() {
+        @Override
+        protected Lines computeValue(Class<?> type) {
+            return new Lines(type.getName());
+        }
+    };
+
+    private final String code;
+    private final int id;
+
+    private BorderReference(String code, int id) {
+        this.code = code;
+        this.id = id;
+    }
+
+    /**
+     * @param code Reference code
+     * @return the interned reference with the code, or a new reference with
+     * an id of -1 if no check has failed with the code
+     */
+    public static BorderReference of(String code) {
+        BorderReference ref = BY_CODE.get(code);
+        return ref != null ? ref : new BorderReference(code, -1);
+    }
+
+    /**
+     * Looks up the reference of a line of a class, only building its code
+     * the first time that line is seen
+     *
+     * @param type Class calling the check
+     * @param line Line number, or a negative number if not known
+     * @return the reference, with the simple class name and line number as its code
+     */
+    public static BorderReference of(Class<?> type, int line) {
+        return LINES.get(type).get(line);
+    }
+
+    /**
+     * @return the reference code
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * @return the number of the reference, from 0, or -1 if it is not interned
+     */
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj == this || obj instanceof BorderReference && code.equals(((BorderReference) obj).code);
+    }
+
+    @Override
+    public int hashCode() {
+        return code.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return code;
+    }
+
+    private static BorderReference intern(String code) {
+        BorderReference ref = BY_CODE.get(code);
+        if (ref == null) {
+            synchronized (BY_CODE) {
+                ref = BY_CODE.get(code);
+                if (ref == null) {
+                    ref = new BorderReference(code, BY_CODE.size());
+                    BY_CODE.put(code, ref);
+                }
+            }
+        }
+        return ref;
+    }
+
+    /**
+     * The references of the lines of one class, indexed by line number and
+     * copied on write as lines are added
+     */
+    private static final class Lines {
+        private final String name;
+        private volatile BorderReference[] byLine = new BorderReference[0];
+        private volatile BorderReference noLine;
+
+        Lines(String clzName) {
+            this.name = clzName.substring(clzName.lastIndexOf('.') + 1).trim();
+        }
+
+        BorderReference get(int line) {
+            if (line < 0) {
+                BorderReference ref = noLine;
+                if (ref == null) {
+                    ref = intern(name);
+                    noLine = ref;
+                }
+                return ref;
+            }
+            BorderReference[] refs = byLine;
+            if (line < refs.length && refs[line] != null) {
+                return refs[line];
+            }
+            BorderReference ref = intern(new StringBuilder(name.length() + 6).append(name).append(':').append(line).toString());
+            if (line < MAX_CACHED_LINE) {
+                add(line, ref);
+            }
+            return ref;
+        }
+
+        private synchronized void add(int line, BorderReference ref) {
+            BorderReference[] refs = byLine;
+            refs = Arrays.copyOf(refs, Math.max(refs.length, line + 1));
+            refs[line] = ref;
+            byLine = refs;
+        }
+    }
+}
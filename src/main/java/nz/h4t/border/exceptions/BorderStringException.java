@@ -31,4 +31,13 @@ public class BorderStringException extends BorderException {
     public BorderStringException(String code, String message) {
         super(code, message);
     }
+
+    public BorderStringException(String code, String message, boolean writableStackTrace) {
+        super(code, message, writableStackTrace);
+    }
+
+    @Override
+    public BorderErrorKind getKind() {
+        return BorderErrorKind.STRING;
+    }
 }
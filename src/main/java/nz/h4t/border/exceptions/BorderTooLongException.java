@@ -31,4 +31,13 @@ public class BorderTooLongException extends BorderStringException {
     public BorderTooLongException(String code, String message) {
         super(code, message);
     }
+
+    public BorderTooLongException(String code, String message, boolean writableStackTrace) {
+        super(code, message, writableStackTrace);
+    }
+
+    @Override
+    public BorderErrorKind getKind() {
+        return BorderErrorKind.TOO_LONG;
+    }
 }
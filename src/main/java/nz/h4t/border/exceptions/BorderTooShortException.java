@@ -31,4 +31,13 @@ public class BorderTooShortException extends BorderStringException {
     public BorderTooShortException(String code, String message) {
         super(code, message);
     }
+
+    public BorderTooShortException(String code, String message, boolean writableStackTrace) {
+        super(code, message, writableStackTrace);
+    }
+
+    @Override
+    public BorderErrorKind getKind() {
+        return BorderErrorKind.TOO_SHORT;
+    }
 }
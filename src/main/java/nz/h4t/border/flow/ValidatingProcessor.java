@@ -0,0 +1,348 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.flow;
+
+import nz.h4t.border.exceptions.BorderException;
+
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * A Flow.Processor that validates each item, passes valid items downstream
+ * and hands invalid items, with the BorderException thrown for them, to a
+ * rejection handler instead.
+ * <p>
+ * Items are requested from upstream in batches of up to batchSize, and
+ * never more than the downstream subscriber has asked for, so no items are
+ * buffered. Each rejected item uses up one upstream request but none of the
+ * downstream demand, and is replaced by requesting more. A new batch is
+ * requested when fewer than half of the last batch are still to come.
+ * <p>
+ * The validator is typically a Validator's validate method or a lambda
+ * making Border checks. Any other exception it or the rejection handler
+ * throws cancels the upstream subscription and is passed downstream to
+ * onError. The processor has one downstream subscriber.
+ * <p>
+ * Signals to the downstream subscriber are serial: an error raised by a
+ * downstream request, such as a request for 0 items, is signalled once
+ * any onNext in progress on the upstream thread has returned, and only
+ * one of onError and onComplete is ever signalled.
+ *
+ * @param <T> Type of the items
+ */
+public class ValidatingProcessor<T> implements Flow.Processor<T, T> {
+    private static final int DEFAULT_BATCH_SIZE = 256;
+    private static final Object COMPLETE = new Object();
+
+    private final Consumer<? super T> validator;
+    private final BiConsumer<? super T, ? super BorderException> rejected;
+    private final int batchSize;
+
+    /**
+     * Totals since subscription: requested by downstream, written by the
+     * thread calling request(); requested from upstream, written only while
+     * holding requesting; and received and delivered, written only by the
+     * thread calling onNext() with release stores, so that the per item
+     * path takes no locks.
+     */
+    private final AtomicLong requestedDown = new AtomicLong();
+    private volatile long requestedUp;
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicInteger requesting = new AtomicInteger();
+    private volatile Flow.Subscription upstream;
+    private volatile Flow.Subscriber<? super T> downstream;
+    private volatile boolean done;
+
+    /**
+     * The terminal signal, an error or COMPLETE, set once; and the number of
+     * threads signalling downstream. onNext only signals when no one else
+     * is, and a terminal signal raised while onNext is signalling is left
+     * for it to send once it returns.
+     */
+    private final AtomicReference<Object> terminal = new AtomicReference<>();
+    private final AtomicInteger signalling = new AtomicInteger();
+    private Throwable pendingError;
+    private boolean pendingComplete;
+
+    /**
+     * @param validator Throws a BorderException for an invalid item
+     * @param rejected  Given each invalid item and the exception thrown for it
+     */
+    public ValidatingProcessor(Consumer<? super T> validator, BiConsumer<? super T, ? super BorderException> rejected) {
+        this(validator, rejected, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param validator Throws a BorderException for an invalid item
+     * @param rejected  Given each invalid item and the exception thrown for it
+     * @param batchSize Most items requested from upstream at once
+     */
+    public ValidatingProcessor(Consumer<? super T> validator, BiConsumer<? super T, ? super BorderException> rejected,
+                               int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        this.validator = Objects.requireNonNull(validator, "validator");
+        this.rejected = Objects.requireNonNull(rejected, "rejected");
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        Throwable error;
+        boolean complete;
+        synchronized (this) {
+            if (downstream != null) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(long n) {
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+                });
+                subscriber.onError(new IllegalStateException("ValidatingProcessor already has a subscriber"));
+                return;
+            }
+            downstream = subscriber;
+            error = pendingError;
+            complete = pendingComplete;
+        }
+        subscriber.onSubscribe(new Downstream());
+        if (error != null) {
+            terminate(error);
+        } else if (complete) {
+            terminate(COMPLETE);
+        }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription, "subscription");
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        replenish();
+    }
+
+    @Override
+    public void onNext(T item) {
+        if (done) {
+            return;
+        }
+        try {
+            validator.accept(item);
+        } catch (BorderException ex) {
+            received.lazySet(received.get() + 1);
+            try {
+                rejected.accept(item, ex);
+            } catch (RuntimeException handlerEx) {
+                fail(handlerEx);
+                return;
+            }
+            if (needsMore()) {
+                replenish();
+            }
+            return;
+        } catch (RuntimeException ex) {
+            fail(ex);
+            return;
+        }
+        // Delivered first, so that replenish() never sees an item received
+        // without seeing it delivered
+        delivered.lazySet(delivered.get() + 1);
+        received.lazySet(received.get() + 1);
+        if (signalling.get() != 0 || !signalling.compareAndSet(0, 1)) {
+            return;
+        }
+        downstream.onNext(item);
+        if (signalling.decrementAndGet() != 0) {
+            signal(terminal.get());
+            return;
+        }
+        if (needsMore()) {
+            replenish();
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        if (done) {
+            return;
+        }
+        done = true;
+        Flow.Subscriber<? super T> subscriber;
+        synchronized (this) {
+            subscriber = downstream;
+            if (subscriber == null) {
+                pendingError = throwable;
+                return;
+            }
+        }
+        terminate(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        if (done) {
+            return;
+        }
+        done = true;
+        Flow.Subscriber<? super T> subscriber;
+        synchronized (this) {
+            subscriber = downstream;
+            if (subscriber == null) {
+                pendingComplete = true;
+                return;
+            }
+        }
+        terminate(COMPLETE);
+    }
+
+    //
+    // Internal Methods...
+    //
+
+    /**
+     * Requests more from upstream if fewer than half a batch are to come.
+     * Never lets the number outstanding exceed the downstream demand, so a
+     * valid item always has demand to go to: received is read before
+     * delivered, so a stale read can only make the request smaller. Only
+     * one thread requests at a time; a call made while another thread is
+     * requesting makes that thread look again.
+     */
+    private void replenish() {
+        if (requesting.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            Flow.Subscription subscription = upstream;
+            if (subscription != null && !done) {
+                long pending = requestedUp - received.get();
+                long limit = limit();
+                if (pending < threshold(limit)) {
+                    long n = limit - pending;
+                    requestedUp += n;
+                    subscription.request(n);
+                }
+            }
+        } while (requesting.decrementAndGet() != 0);
+    }
+
+    /**
+     * Whether replenish() might request more, checked after each item so
+     * that most items do not have to take the request lock. Downstream
+     * requests always call replenish(), so a stale read here only delays
+     * a request until the next item or request.
+     */
+    private boolean needsMore() {
+        return requestedUp - received.get() < threshold(limit());
+    }
+
+    /**
+     * Most items that can be outstanding: the unmet downstream demand, up
+     * to a batch
+     */
+    private long limit() {
+        long down = requestedDown.get();
+        if (down == Long.MAX_VALUE) {
+            return batchSize;
+        }
+        return Math.min(down - delivered.get(), batchSize);
+    }
+
+    private static long threshold(long limit) {
+        return (limit + 1) / 2;
+    }
+
+    private void fail(Throwable ex) {
+        done = true;
+        Flow.Subscription subscription = upstream;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        terminate(ex);
+    }
+
+    /**
+     * Signals an error, or COMPLETE, downstream unless a terminal signal
+     * has already been raised. If onNext is signalling, it sends it instead.
+     */
+    private void terminate(Object signal) {
+        if (!terminal.compareAndSet(null, signal)) {
+            return;
+        }
+        if (signalling.getAndIncrement() == 0) {
+            signal(signal);
+        }
+    }
+
+    private void signal(Object signal) {
+        if (signal == COMPLETE) {
+            downstream.onComplete();
+        } else {
+            downstream.onError((Throwable) signal);
+        }
+    }
+
+    private final class Downstream implements Flow.Subscription {
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("request must be positive, was " + n));
+                return;
+            }
+            long current;
+            long next;
+            do {
+                current = requestedDown.get();
+                next = current + n < 0 ? Long.MAX_VALUE : current + n;
+            } while (!requestedDown.compareAndSet(current, next));
+            replenish();
+        }
+
+        @Override
+        public void cancel() {
+            done = true;
+            Flow.Subscription subscription = upstream;
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
+}
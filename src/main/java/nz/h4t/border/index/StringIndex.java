@@ -0,0 +1,365 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A compact, read-only set of strings held outside the Java heap, for
+ * allowed value lists too large to keep as a HashSet.
+ * <p>
+ * The strings are stored as sorted UTF-8 bytes with a table of offsets, and
+ * looked up by binary search without creating any objects. An optional
+ * Bloom filter in front of the table answers most lookups for values that
+ * are not in the set without touching the table.
+ * <p>
+ * An index is built in a direct buffer with build(), or memory mapped from
+ * a file written by writeTo() with open(), so large indexes can be built
+ * offline and shared between processes through the page cache. An index
+ * holds at most 2GB.
+ */
+public final class StringIndex {
+    private static final int MAGIC = 0x42494458;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    private final ByteBuffer buf;
+    private final int count;
+    private final int hashes;
+    private final long bloomBits;
+    private final int offsetsStart;
+    private final int dataStart;
+
+    private StringIndex(ByteBuffer buf) {
+        if (buf.capacity() < HEADER_SIZE || buf.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a string index");
+        }
+        if (buf.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported string index version " + buf.getInt(4));
+        }
+        this.buf = buf;
+        this.count = buf.getInt(8);
+        this.hashes = buf.getInt(12);
+        this.bloomBits = buf.getLong(16);
+        this.offsetsStart = HEADER_SIZE + (int) (bloomBits / 8);
+        this.dataStart = offsetsStart + (count + 1) * 4;
+        if (dataStart > buf.capacity() || dataStart + buf.getInt(offsetsStart + count * 4) != buf.capacity()) {
+            throw new IllegalArgumentException("Corrupt string index");
+        }
+    }
+
+    /**
+     * Builds an index with a Bloom filter sized for a 1% false positive rate
+     *
+     * @param values Values in the index; duplicates are ignored
+     * @return the index
+     */
+    public static StringIndex build(Collection<String> values) {
+        return build(values, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Builds an index
+     *
+     * @param values            Values in the index; duplicates are ignored
+     * @param falsePositiveRate Bloom filter false positive rate, or 0 for no Bloom filter
+     * @return the index
+     */
+    public static StringIndex build(Collection<String> values, double falsePositiveRate) {
+        if (falsePositiveRate < 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be at least 0 and less than 1");
+        }
+        byte[][] entries = new byte[values.size()][];
+        int n = 0;
+        for (String value : values) {
+            entries[n++] = value.getBytes(StandardCharsets.UTF_8);
+        }
+        Arrays.sort(entries, Arrays::compareUnsigned);
+        int unique = 0;
+        long dataSize = 0;
+        for (int i = 0; i < n; i++) {
+            if (unique == 0 || !Arrays.equals(entries[unique - 1], entries[i])) {
+                entries[unique++] = entries[i];
+                dataSize += entries[i].length;
+            }
+        }
+        long bloomBits = 0;
+        int hashes = 0;
+        if (falsePositiveRate > 0 && unique > 0) {
+            double bits = -unique * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+            bloomBits = ((long) Math.ceil(bits) + 63) / 64 * 64;
+            hashes = Math.max(1, (int) Math.round(bloomBits / (double) unique * Math.log(2)));
+        }
+        long size = HEADER_SIZE + bloomBits / 8 + (unique + 1) * 4L + dataSize;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("String index would be larger than 2GB");
+        }
+        ByteBuffer buf = ByteBuffer.allocateDirect((int) size);
+        buf.putInt(0, MAGIC);
+        buf.putInt(4, VERSION);
+        buf.putInt(8, unique);
+        buf.putInt(12, hashes);
+        buf.putLong(16, bloomBits);
+        int offsetsStart = HEADER_SIZE + (int) (bloomBits / 8);
+        int dataStart = offsetsStart + (unique + 1) * 4;
+        int offset = 0;
+        for (int i = 0; i < unique; i++) {
+            byte[] entry = entries[i];
+            buf.putInt(offsetsStart + i * 4, offset);
+            buf.put(dataStart + offset, entry);
+            offset += entry.length;
+            if (hashes > 0) {
+                long hash = hash(entry);
+                for (int k = 0; k < hashes; k++) {
+                    long bit = bloomBit(hash, k, bloomBits);
+                    int word = HEADER_SIZE + (int) (bit >>> 6) * 8;
+                    buf.putLong(word, buf.getLong(word) | (1L << (bit & 63)));
+                }
+            }
+        }
+        buf.putInt(offsetsStart + unique * 4, offset);
+        return new StringIndex(buf);
+    }
+
+    /**
+     * Memory maps an index written by writeTo()
+     *
+     * @param file File holding the index
+     * @return the index
+     * @throws IOException if the file cannot be read
+     */
+    public static StringIndex open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() > Integer.MAX_VALUE) {
+                throw new IOException("String index larger than 2GB: " + file);
+            }
+            try {
+                return new StringIndex(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+            } catch (IllegalArgumentException ex) {
+                throw new IOException(ex.getMessage() + ": " + file, ex);
+            }
+        }
+    }
+
+    /**
+     * Writes the index to a file that can be opened with open()
+     *
+     * @param file File to write
+     * @throws IOException if the file cannot be written
+     */
+    public void writeTo(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer src = buf.duplicate().clear();
+            while (src.hasRemaining()) {
+                ch.write(src);
+            }
+        }
+    }
+
+    /**
+     * @return the number of values in the index
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return the number of bytes the index occupies
+     */
+    public int byteSize() {
+        return buf.capacity();
+    }
+
+    /**
+     * @return true if the index has a Bloom filter
+     */
+    public boolean hasBloomFilter() {
+        return hashes > 0;
+    }
+
+    /**
+     * Looks up a value without allocating
+     *
+     * @param value Value being looked up
+     * @return true if the value is in the index
+     */
+    public boolean contains(String value) {
+        if (count == 0) {
+            return false;
+        }
+        if (hashes > 0) {
+            long hash = hash(value);
+            for (int k = 0; k < hashes; k++) {
+                long bit = bloomBit(hash, k, bloomBits);
+                if ((buf.getLong(HEADER_SIZE + (int) (bit >>> 6) * 8) & (1L << (bit & 63))) == 0) {
+                    return false;
+                }
+            }
+        }
+        int lo = 0;
+        int hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int from = buf.getInt(offsetsStart + mid * 4);
+            int to = buf.getInt(offsetsStart + mid * 4 + 4);
+            int cmp = compare(dataStart + from, dataStart + to, value);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //
+    // Internal Methods...
+    //
+
+    /**
+     * Compares the UTF-8 bytes in [from, to) with the UTF-8 encoding of the
+     * value, encoding the value as it goes. Unpaired surrogates encode as
+     * '?', as they do in String.getBytes().
+     */
+    private int compare(int from, int to, String value) {
+        int pos = from;
+        int len = value.length();
+        for (int i = 0; i < len; i++) {
+            int cp = value.charAt(i);
+            if (cp < 0x80) {
+                if (pos == to) {
+                    return -1;
+                }
+                int diff = (buf.get(pos++) & 0xff) - cp;
+                if (diff != 0) {
+                    return diff;
+                }
+                continue;
+            }
+            if (Character.isSurrogate((char) cp)) {
+                if (Character.isHighSurrogate((char) cp) && i + 1 < len && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    cp = Character.toCodePoint((char) cp, value.charAt(++i));
+                } else {
+                    cp = '?';
+                }
+            }
+            int n = utf8Length(cp);
+            for (int b = 0; b < n; b++) {
+                if (pos == to) {
+                    return -1;
+                }
+                int diff = (buf.get(pos++) & 0xff) - utf8Byte(cp, n, b);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+        }
+        return pos == to ? 0 : 1;
+    }
+
+    /**
+     * 64 bit FNV-1a of the UTF-8 encoding of the value, then mixed
+     */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        int len = value.length();
+        for (int i = 0; i < len; i++) {
+            int cp = value.charAt(i);
+            if (Character.isSurrogate((char) cp)) {
+                if (Character.isHighSurrogate((char) cp) && i + 1 < len && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    cp = Character.toCodePoint((char) cp, value.charAt(++i));
+                } else {
+                    cp = '?';
+                }
+            }
+            int n = utf8Length(cp);
+            for (int b = 0; b < n; b++) {
+                h = (h ^ utf8Byte(cp, n, b)) * 0x100000001b3L;
+            }
+        }
+        return mix(h);
+    }
+
+    private static long hash(byte[] bytes) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h = (h ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long bloomBit(long hash, int k, long bits) {
+        long h1 = hash & 0xffffffffL;
+        long h2 = hash >>> 32;
+        return Long.remainderUnsigned(h1 + k * h2, bits);
+    }
+
+    private static int utf8Length(int cp) {
+        if (cp < 0x80) {
+            return 1;
+        } else if (cp < 0x800) {
+            return 2;
+        } else if (cp < 0x10000) {
+            return 3;
+        }
+        return 4;
+    }
+
+    private static int utf8Byte(int cp, int n, int b) {
+        switch (n) {
+            case 1:
+                return cp;
+            case 2:
+                return b == 0 ? 0xc0 | (cp >> 6) : 0x80 | (cp & 0x3f);
+            case 3:
+                return b == 0 ? 0xe0 | (cp >> 12) : 0x80 | ((cp >> (6 * (2 - b))) & 0x3f);
+            default:
+                return b == 0 ? 0xf0 | (cp >> 18) : 0x80 | ((cp >> (6 * (3 - b))) & 0x3f);
+        }
+    }
+}
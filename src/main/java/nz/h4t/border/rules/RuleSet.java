@@ -0,0 +1,397 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.rules;
+
+import nz.h4t.border.Border;
+import nz.h4t.border.BorderPredicates;
+import nz.h4t.border.CharClass;
+import nz.h4t.border.CheckHelper;
+import nz.h4t.border.exceptions.BorderException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongPredicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Field rules read from a rule file, compiled once into checks that call
+ * Border, so that limits such as max lengths and allowed values can change
+ * without changing code.
+ * <p>
+ * Each line of a rule file is a field name, a check, the check's arguments
+ * and a quoted error message. Blank lines and lines starting with # are
+ * ignored. Arguments containing spaces are quoted; inside quotes, \" is a
+ * quote and \\ a backslash.
+ *
+ * <pre>
+ * # field   check        arguments                 message
+ * name      notEmpty                               "Name is required"
+ * name      maxLength    40                        "Name is too long"
+ * status    values       ACTIVE,SUSPENDED          "Unknown status"
+ * code      pattern      "[A-Z]{3}-[0-9]{4}"       "Invalid code"
+ * quantity  range        1 1000                    "Quantity out of range"
+ * start     dateBetween  2020-01-01 *              "Start date out of range"
+ * </pre>
+ * <p>
+ * The checks are notNull, notEmpty, maxLength N, minLength N, pattern REGEX,
+ * values A,B,C, email, charClass CLASS [MIN MAX], uuid, cardNumber, iban,
+ * isbn, range MIN MAX for whole numbers, and dateBetween FROM TO for
+ * LocalDates and ISO date strings, where * leaves a bound open. String checks use the value's
+ * toString(). A rule set is immutable and may be shared between threads.
+ */
+@CheckHelper
+public final class RuleSet {
+    private static final Rule[] NO_RULES = new Rule[0];
+
+    private final String source;
+    private final Map<String, Rule[]> rules;
+    private final int ruleCount;
+
+    private RuleSet(String source, Map<String, Rule[]> rules, int ruleCount) {
+        this.source = source;
+        this.rules = rules;
+        this.ruleCount = ruleCount;
+    }
+
+    /**
+     * Reads and compiles a rule file
+     *
+     * @param file Rule file, in UTF-8
+     * @return the rules
+     * @throws IOException if the file cannot be read or has an invalid rule
+     */
+    public static RuleSet load(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return parse(file.getFileName().toString(), reader);
+        } catch (IllegalArgumentException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Reads and compiles rules
+     *
+     * @param source Name of the rules, used in error messages
+     * @param reader Rules being read
+     * @return the rules
+     * @throws IOException              if the rules cannot be read
+     * @throws IllegalArgumentException if a rule is invalid
+     */
+    public static RuleSet parse(String source, Reader reader) throws IOException {
+        Map<String, List<Rule>> byField = new LinkedHashMap<>();
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        int count = 0;
+        int lineNo = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNo++;
+            List<String> tokens;
+            try {
+                tokens = tokenize(line);
+                if (tokens.isEmpty()) {
+                    continue;
+                }
+                Rule rule = compile(tokens);
+                byField.computeIfAbsent(tokens.get(0), f -> new ArrayList<>()).add(rule);
+                count++;
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException(source + ":" + lineNo + ": " + ex.getMessage(), ex);
+            }
+        }
+        Map<String, Rule[]> rules = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Rule>> entry : byField.entrySet()) {
+            rules.put(entry.getKey(), entry.getValue().toArray(NO_RULES));
+        }
+        return new RuleSet(source, rules, count);
+    }
+
+    /**
+     * Checks a value against the rules for its field, in file order. A field
+     * with no rules always passes.
+     *
+     * @param field Field name
+     * @param value Value of the field
+     * @throws BorderException from the first rule that fails
+     */
+    public void check(String field, Object value) {
+        Rule[] fieldRules = rules.getOrDefault(field, NO_RULES);
+        for (Rule rule : fieldRules) {
+            rule.check(value);
+        }
+    }
+
+    /**
+     * Checks every field that has rules, in the order the fields first
+     * appear in the file. A field missing from the map is checked as null.
+     *
+     * @param values Field values by name
+     * @throws BorderException from the first rule that fails
+     */
+    public void validate(Map<String, ?> values) {
+        for (Map.Entry<String, Rule[]> entry : rules.entrySet()) {
+            Object value = values.get(entry.getKey());
+            for (Rule rule : entry.getValue()) {
+                rule.check(value);
+            }
+        }
+    }
+
+    /**
+     * @return the fields that have rules, in file order
+     */
+    public Set<String> getFields() {
+        return Collections.unmodifiableSet(rules.keySet());
+    }
+
+    /**
+     * @return the number of rules
+     */
+    public int size() {
+        return ruleCount;
+    }
+
+    /**
+     * @return the name the rules were read from
+     */
+    public String getSource() {
+        return source;
+    }
+
+    //
+    // Internal Methods...
+    //
+
+    @FunctionalInterface
+    private interface Rule {
+        void check(Object value);
+    }
+
+    private static Rule compile(List<String> tokens) {
+        if (tokens.size() < 3) {
+            throw new IllegalArgumentException("Expected a field, a check and a message");
+        }
+        String check = tokens.get(1);
+        String mesg = tokens.get(tokens.size() - 1);
+        List<String> args = tokens.subList(2, tokens.size() - 1);
+        switch (check) {
+            case "notNull":
+                arguments(check, args, 0);
+                return value -> Border.checkNotNull(mesg, value);
+            case "notEmpty":
+                arguments(check, args, 0);
+                return value -> Border.checkNotEmpty(mesg, string(value));
+            case "maxLength": {
+                arguments(check, args, 1);
+                int max = integer(args.get(0));
+                return value -> Border.checkTooLong(mesg, string(value), max);
+            }
+            case "minLength": {
+                arguments(check, args, 1);
+                int min = integer(args.get(0));
+                return value -> Border.checkTooShort(mesg, string(value), min);
+            }
+            case "pattern": {
+                arguments(check, args, 1);
+                Pattern pattern;
+                try {
+                    pattern = Pattern.compile(args.get(0));
+                } catch (PatternSyntaxException ex) {
+                    throw new IllegalArgumentException("Invalid pattern: " + ex.getDescription());
+                }
+                return value -> Border.checkPattern(mesg, string(value), pattern);
+            }
+            case "values": {
+                arguments(check, args, 1);
+                Set<String> allowed = new HashSet<>(Arrays.asList(args.get(0).split(",")));
+                return value -> Border.checkInCollection(mesg, string(value), allowed);
+            }
+            case "email":
+                arguments(check, args, 0);
+                return value -> Border.checkValidEmail(mesg, string(value));
+            case "charClass": {
+                if (args.size() != 1 && args.size() != 3) {
+                    throw new IllegalArgumentException("charClass takes a class, and optionally a min and max length");
+                }
+                CharClass cls;
+                try {
+                    cls = CharClass.valueOf(args.get(0));
+                } catch (IllegalArgumentException ex) {
+                    throw new IllegalArgumentException("Unknown character class: " + args.get(0));
+                }
+                if (args.size() == 1) {
+                    return value -> Border.checkCharClass(mesg, string(value), cls);
+                }
+                int min = integer(args.get(1));
+                int max = integer(args.get(2));
+                return value -> Border.checkCharClass(mesg, string(value), cls, min, max);
+            }
+            case "uuid":
+                arguments(check, args, 0);
+                return value -> Border.checkUuid(mesg, string(value));
+            case "cardNumber":
+                arguments(check, args, 0);
+                return value -> Border.checkCardNumber(mesg, string(value));
+            case "iban":
+                arguments(check, args, 0);
+                return value -> Border.checkIban(mesg, string(value));
+            case "isbn":
+                arguments(check, args, 0);
+                return value -> Border.checkIsbn(mesg, string(value));
+            case "range": {
+                arguments(check, args, 2);
+                LongPredicate inRange = BorderPredicates.between(longValue(args.get(0)), longValue(args.get(1)));
+                return value -> {
+                    Border.checkNotNull(mesg, value);
+                    if (value instanceof Number) {
+                        Border.checkLongThat(mesg, ((Number) value).longValue(), inRange);
+                    } else {
+                        Border.checkThat(mesg, value, v -> false);
+                    }
+                };
+            }
+            case "dateBetween": {
+                arguments(check, args, 2);
+                LocalDate from = date(args.get(0));
+                LocalDate to = date(args.get(1));
+                return value -> {
+                    Border.checkNotNull(mesg, value);
+                    if (value instanceof LocalDate) {
+                        Border.checkIsBetween(mesg, (LocalDate) value, from, to);
+                    } else if (value instanceof String) {
+                        Border.checkValidDate(mesg, (String) value, from, to);
+                    } else {
+                        Border.checkThat(mesg, value, v -> false);
+                    }
+                };
+            }
+            default:
+                throw new IllegalArgumentException("Unknown check: " + check);
+        }
+    }
+
+    private static void arguments(String check, List<String> args, int expected) {
+        if (args.size() != expected) {
+            throw new IllegalArgumentException(check + " takes " + expected + " argument" + (expected == 1 ? "" : "s"));
+        }
+    }
+
+    private static String string(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static int integer(String arg) {
+        try {
+            return Integer.parseInt(arg);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Not a whole number: " + arg);
+        }
+    }
+
+    private static long longValue(String arg) {
+        try {
+            return Long.parseLong(arg);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Not a whole number: " + arg);
+        }
+    }
+
+    private static LocalDate date(String arg) {
+        if (arg.equals("*")) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(arg);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Not a date: " + arg);
+        }
+    }
+
+    /**
+     * Splits a line into words and quoted strings. The last token must be
+     * quoted, as it is the message.
+     */
+    private static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        boolean lastQuoted = false;
+        int pos = 0;
+        int len = line.length();
+        while (true) {
+            while (pos < len && Character.isWhitespace(line.charAt(pos))) {
+                pos++;
+            }
+            if (pos == len || (tokens.isEmpty() && line.charAt(pos) == '#')) {
+                break;
+            }
+            if (line.charAt(pos) == '"') {
+                StringBuilder sb = new StringBuilder();
+                pos++;
+                while (true) {
+                    if (pos == len) {
+                        throw new IllegalArgumentException("Unterminated quote");
+                    }
+                    char ch = line.charAt(pos++);
+                    if (ch == '"') {
+                        break;
+                    }
+                    if (ch == '\\' && pos < len) {
+                        ch = line.charAt(pos++);
+                    }
+                    sb.append(ch);
+                }
+                tokens.add(sb.toString());
+                lastQuoted = true;
+            } else {
+                int start = pos;
+                while (pos < len && !Character.isWhitespace(line.charAt(pos))) {
+                    pos++;
+                }
+                tokens.add(line.substring(start, pos));
+                lastQuoted = false;
+            }
+        }
+        if (!tokens.isEmpty() && !lastQuoted) {
+            throw new IllegalArgumentException("The message must be quoted");
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.rules;
+
+import nz.h4t.border.CheckHelper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Holds the rules of a rule file, reloading them when the file changes.
+ * <p>
+ * The file is watched with a WatchService on a daemon thread. A changed
+ * file is compiled into a new RuleSet, which then replaces the old one with
+ * a single volatile write, so validations never wait for a reload and each
+ * call of check() or validate() sees one rule set throughout. A file that
+ * cannot be read or has an invalid rule leaves the current rules in place
+ * and is passed to the error handler. The watching carries on if the
+ * handler throws.
+ * <p>
+ * A changed file is only loaded once its size and modification time have
+ * stayed the same for a short while, so that a file still being written is
+ * not usually loaded half way. That cannot tell a slow writer from a
+ * finished one, so the file should be replaced atomically: write the new
+ * rules to a temporary file in the same directory and move it over the
+ * rule file with Files.move(tmp, file, ATOMIC_MOVE).
+ */
+@CheckHelper
+public final class RuleSetWatcher implements Closeable {
+    private static final long SETTLE_MILLIS = 100;
+
+    private final Path file;
+    private final Consumer<? super IOException> onError;
+    private final WatchService watcher;
+    private final Thread thread;
+    private volatile RuleSet rules;
+    private volatile long reloads;
+
+    /**
+     * Loads the rules and starts watching the file, ignoring reload errors
+     *
+     * @param file Rule file
+     * @throws IOException if the rules cannot be loaded or the file watched
+     */
+    public RuleSetWatcher(Path file) throws IOException {
+        this(file, ex -> {
+        });
+    }
+
+    /**
+     * Loads the rules and starts watching the file
+     *
+     * @param file    Rule file
+     * @param onError Given the error when a changed file cannot be loaded
+     * @throws IOException if the rules cannot be loaded or the file watched
+     */
+    public RuleSetWatcher(Path file, Consumer<? super IOException> onError) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.onError = Objects.requireNonNull(onError, "onError");
+        this.rules = RuleSet.load(this.file);
+        this.watcher = FileSystems.getDefault().newWatchService();
+        try {
+            this.file.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException ex) {
+            watcher.close();
+            throw ex;
+        }
+        this.thread = new Thread(this::watch, "border-rules-" + this.file.getFileName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return the current rules
+     */
+    public RuleSet get() {
+        return rules;
+    }
+
+    /**
+     * Checks a value against the current rules for its field
+     *
+     * @param field Field name
+     * @param value Value of the field
+     */
+    public void check(String field, Object value) {
+        rules.check(field, value);
+    }
+
+    /**
+     * Checks every field against the current rules
+     *
+     * @param values Field values by name
+     */
+    public void validate(Map<String, ?> values) {
+        rules.validate(values);
+    }
+
+    /**
+     * Loads the file now, rather than waiting for a change to be noticed.
+     * Reloads are made one at a time, so the rules last stored are from the
+     * last load of the file.
+     *
+     * @throws IOException if the rules cannot be loaded, leaving the current rules in place
+     */
+    public void reload() throws IOException {
+        synchronized (this) {
+            rules = RuleSet.load(file);
+            reloads++;
+        }
+    }
+
+    /**
+     * @return the number of times the rules have been reloaded
+     */
+    public long getReloadCount() {
+        return reloads;
+    }
+
+    /**
+     * Stops watching the file. The current rules can still be used.
+     */
+    @Override
+    public void close() throws IOException {
+        watcher.close();
+        thread.interrupt();
+    }
+
+    //
+    // Internal Methods...
+    //
+
+    private void watch() {
+        Path name = file.getFileName();
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || name.equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                if (changed) {
+                    settle();
+                    try {
+                        reload();
+                    } catch (IOException ex) {
+                        report(ex);
+                    } catch (RuntimeException ex) {
+                        report(new IOException("Could not load " + file, ex));
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ex) {
+            // closed
+        }
+    }
+
+    /**
+     * Waits until the file's size and modification time are the same over
+     * SETTLE_MILLIS. A missing file, such as between the steps of a
+     * replace, counts as changing until it stays missing.
+     */
+    private void settle() throws InterruptedException {
+        long[] last = attributes();
+        while (true) {
+            Thread.sleep(SETTLE_MILLIS);
+            long[] current = attributes();
+            if (Arrays.equals(last, current)) {
+                return;
+            }
+            last = current;
+        }
+    }
+
+    /**
+     * @return the file's size and modification time, or null if it cannot be read
+     */
+    private long[] attributes() {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            return new long[]{attrs.size(), attrs.lastModifiedTime().toMillis()};
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    private void report(IOException ex) {
+        try {
+            onError.accept(ex);
+        } catch (RuntimeException handlerEx) {
+            // A failing handler must not stop the reloading
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+import nz.h4t.border.index.StringIndex;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks that the success path of each Border check measured here allocates
+ * nothing once warmed up, using the per thread allocation counter of the
+ * JVM. A check that is not measured here is not known to be allocation free:
+ * checkNoDuplicates on a Collection builds a HashSet of its elements, while
+ * the int[] and long[] overloads reuse a set kept by the thread.
+ * The regex checks are checked with and without the result cache. A
+ * check is measured for up to three rounds, as a method being compiled
+ * during the first can allocate once.
+ */
+public class AllocationTest {
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 100_000;
+    private static final int ROUNDS = 3;
+    private static final int MAX_ALLOCATED = 1024;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    private final String value = "ABC";
+    private final String other = "DEF";
+    private final List<String> list = Arrays.asList("ABC", "DEF");
+    private final Set<String> set = new HashSet<>(list);
+    private final Object[] possibleVals = {"XYZ", "ABC"};
+    private final int[] ints = {3, 1, 4, 0, 5, 9, 2, 6};
+    private final long[] longs = {Long.MIN_VALUE, 0, 1L << 40, Long.MAX_VALUE};
+    private final StringIndex index = StringIndex.build(list);
+    private final Pattern pattern = Pattern.compile("[A-Z]{3}");
+    private final LocalDate date = LocalDate.of(2018, 6, 15);
+    private final LocalDate from = LocalDate.of(2018, 1, 1);
+    private final LocalDate to = LocalDate.of(2018, 12, 31);
+    private final LocalDateTime dateTime = date.atStartOfDay();
+    private final LocalDateTime fromTime = from.atStartOfDay();
+    private final LocalDateTime toTime = to.atStartOfDay();
+    private final Predicate<String> hasLength = str -> str.length() == 3;
+    private final Predicate<String> isCode = BorderPredicates.allOf(hasLength, str -> str.equals(str.toUpperCase()));
+    private final IntPredicate isPositive = i -> i > 0;
+    private final LongPredicate isEven = l -> l % 2 == 0;
+
+    @BeforeAll
+    public static void setup() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    public void objectChecks() {
+        assertNoAllocation("checkIsNull", () -> Border.checkIsNull("Test", null));
+        assertNoAllocation("checkNotNull", () -> Border.checkNotNull("Test", value));
+        assertNoAllocation("checkEqual", () -> Border.checkEqual("Test", value, "ABC"));
+        assertNoAllocation("checkNotEqual", () -> Border.checkNotEqual("Test", value, other));
+        assertNoAllocation("checkIsTrue", () -> Border.checkIsTrue("Test", true));
+        assertNoAllocation("checkIsFalse", () -> Border.checkIsFalse("Test", false));
+        assertNoAllocation("checkIsBetween", () -> Border.checkIsBetween("Test", date, from, to));
+        assertNoAllocation("checkIsBetween", () -> Border.checkIsBetween("Test", dateTime, fromTime, toTime));
+    }
+
+    @Test
+    public void stringChecks() {
+        assertNoAllocation("checkNotEmpty", () -> Border.checkNotEmpty("Test", value));
+        assertNoAllocation("checkNotNullOrEmpty", () -> Border.checkNotNullOrEmpty("Test", value));
+        assertNoAllocation("checkTooLong", () -> Border.checkTooLong("Test", value, 5));
+        assertNoAllocation("checkTooShort", () -> Border.checkTooShort("Test", value, 2));
+        assertNoAllocation("checkUuid", () -> Border.checkUuid("Test", "123e4567-e89b-12d3-a456-426614174000"));
+        assertNoAllocation("checkCardNumber", () -> Border.checkCardNumber("Test", "4111111111111111"));
+        assertNoAllocation("checkIban", () -> Border.checkIban("Test", "GB82 WEST 1234 5698 7654 32"));
+        assertNoAllocation("checkIsbn", () -> Border.checkIsbn("Test", "978-0-306-40615-7"));
+        assertNoAllocation("checkCharClass", () -> Border.checkCharClass("Test", value, CharClass.ALPHANUMERIC, 1, 8));
+        assertNoAllocation("checkNumeric", () -> Border.checkNumeric("Test", "0123456789"));
+        assertNoAllocation("checkParsesAsLong", () -> Border.checkParsesAsLong("Test", "-9223372036854775808"));
+        assertNoAllocation("checkParsesAsInt", () -> Border.checkParsesAsInt("Test", "42", 1, 100));
+        assertNoAllocation("checkDecimal", () -> Border.checkDecimal("Test", "-123.45", 5, 2));
+        assertNoAllocation("checkValidDate", () -> Border.checkValidDate("Test", "2018-06-15", from, to));
+        assertNoAllocation("checkValidDate", () -> Border.checkValidDate("Test", "15/06/2018", "dd/MM/yyyy", from, to));
+        assertNoAllocation("checkValidDateTime", () -> Border.checkValidDateTime("Test", "2018-06-15T10:15:30.5"));
+    }
+
+    @Test
+    public void collectionChecks() {
+        assertNoAllocation("checkCollectionNotEmpty", () -> Border.checkCollectionNotEmpty("Test", list));
+        assertNoAllocation("checkSize", () -> Border.checkSize("Test", list, 2));
+        assertNoAllocation("checkMinSize", () -> Border.checkMinSize("Test", list, 1));
+        assertNoAllocation("checkPossibleValues", () -> Border.checkPossibleValues("Test", value, possibleVals));
+        assertNoAllocation("checkInCollection", () -> Border.checkInCollection("Test", value, set));
+        assertNoAllocation("checkInCollection", () -> Border.checkInCollection("Test", value, list));
+        assertNoAllocation("checkInCollection", () -> Border.checkInCollection("Test", value, index));
+        assertNoAllocation("checkAllNotNull", () -> Border.checkAllNotNull("Test", list));
+        assertNoAllocation("checkAllNotEmpty", () -> Border.checkAllNotEmpty("Test", list));
+        assertNoAllocation("checkNoDuplicates", () -> Border.checkNoDuplicates("Test", ints));
+        assertNoAllocation("checkNoDuplicates", () -> Border.checkNoDuplicates("Test", longs));
+    }
+
+    @Test
+    public void predicateChecks() {
+        assertNoAllocation("checkThat", () -> Border.checkThat("Test", value, hasLength));
+        assertNoAllocation("checkThat", () -> Border.checkThat("Test", value, isCode));
+        assertNoAllocation("checkIntThat", () -> Border.checkIntThat("Test", 42, isPositive));
+        assertNoAllocation("checkLongThat", () -> Border.checkLongThat("Test", 42L, isEven));
+    }
+
+    @Test
+    public void regexChecks() {
+        assertNoAllocation("checkPattern", () -> Border.checkPattern("Test", value, "[A-Z]{3}"));
+        assertNoAllocation("checkValidEmail", () -> Border.checkValidEmail("Test", "joe@abc.com"));
+        assertNoAllocation("checkPattern", () -> Border.checkPattern("Test", value, pattern));
+        BorderPolicy original = Border.getPolicy();
+        Border.setPolicy(original.toBuilder().resultCacheSize(64).build());
+        try {
+            assertNoAllocation("checkPattern", () -> Border.checkPattern("Test", value, "[A-Z]{3}"));
+            assertNoAllocation("checkValidEmail", () -> Border.checkValidEmail("Test", "joe@abc.com"));
+            assertNoAllocation("checkPattern", () -> Border.checkPattern("Test", value, pattern));
+        } finally {
+            Border.setPolicy(original);
+        }
+    }
+
+    private static void assertNoAllocation(String name, Runnable check) {
+        for (int i = 0; i < WARMUP; i++) {
+            check.run();
+        }
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS && allocated >= MAX_ALLOCATED; round++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < ITERATIONS; i++) {
+                check.run();
+            }
+            allocated = Math.min(allocated, threads.getCurrentThreadAllocatedBytes() - before);
+        }
+        assertTrue(allocated < MAX_ALLOCATED, name + " allocated " + allocated + " bytes in " + ITERATIONS + " calls");
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+import nz.h4t.border.exceptions.BorderInvalidEmailException;
+import nz.h4t.border.exceptions.BorderIsNullException;
+import nz.h4t.border.exceptions.BorderPatternException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class BorderPolicyTest {
+    @Test
+    public void policyEmailRegex() {
+        BorderPolicy tenant = BorderPolicy.builder()
+                .emailRegex("^[a-z]+@example[.]com$")
+                .build();
+        tenant.checkValidEmail("Test", "joe@example.com");
+        try {
+            tenant.checkValidEmail("Test", "joe@abc.com");
+            fail();
+        } catch (BorderInvalidEmailException ex) {
+            assertTrue(ex.getCode().matches("^BorderPolicyTest[:][0-9]+$"));
+        }
+        Border.checkValidEmail("Test", "joe@abc.com");
+    }
+
+    @Test
+    public void setEmailRegexReplacesDefaultPolicy() {
+        BorderPolicy original = Border.getPolicy();
+        try {
+            Border.setEmailRegex("^[a-z]+@example[.]com$");
+            assertTrue(Border.getPolicy() != original);
+            assertEquals(original.getExceptionMode(), Border.getPolicy().getExceptionMode());
+            try {
+                Border.checkValidEmail("Test", "joe@abc.com");
+                fail();
+            } catch (BorderInvalidEmailException ex) {
+                assertTrue(ex.getCode().matches("^BorderPolicyTest[:][0-9]+$"));
+            }
+        } finally {
+            Border.setPolicy(original);
+        }
+    }
+
+    @Test
+    public void noStackTrace() {
+        BorderPolicy policy = BorderPolicy.builder()
+                .exceptionMode(BorderPolicy.ExceptionMode.NO_STACK_TRACE)
+                .build();
+        try {
+            policy.checkNotNull("Test", null);
+            fail();
+        } catch (BorderIsNullException ex) {
+            assertEquals(0, ex.getStackTrace().length);
+            assertTrue(ex.getCode().matches("^BorderPolicyTest[:][0-9]+$"));
+        }
+    }
+
+    @Test
+    public void noReference() {
+        BorderPolicy policy = BorderPolicy.builder()
+                .referenceStrategy(BorderPolicy.ReferenceStrategy.NONE)
+                .build();
+        try {
+            policy.checkPattern("Test", "H", "^ABC$");
+            fail();
+        } catch (BorderPatternException ex) {
+            assertEquals("-", ex.getCode());
+            assertTrue(ex.getStackTrace().length > 0);
+        }
+    }
+
+    @Test
+    public void resultCacheMatchesUncached() {
+        BorderPolicy uncached = BorderPolicy.builder().build();
+        BorderPolicy cached = BorderPolicy.builder().resultCacheSize(16).build();
+        String[] emails = {"joebloggs@abc.com", "joe_bloggs@abc.co.nz", "^joe.bloggs@abc.nz", "joe@ABC.com",
+                "joe@abc.com", "joe@abc-.com", "joe@-abc.com", "joe@abc..com", "joe@abc.com.", "@abc.com",
+                "joe@", "joe@@abc.com", "joe@abc@com", "jo e@abc.com", "joé@abc.com", "joe@abc.com\n", ""};
+        for (int pass = 0; pass < 3; pass++) {
+            for (String email : emails) {
+                assertEquals(isValidEmail(uncached, email), isValidEmail(cached, email), email);
+            }
+        }
+        for (int pass = 0; pass < 3; pass++) {
+            assertEquals(matches(uncached, "AB12", "^[A-Z0-9]+$"), matches(cached, "AB12", "^[A-Z0-9]+$"));
+            assertEquals(matches(uncached, "ab12", "^[A-Z0-9]+$"), matches(cached, "ab12", "^[A-Z0-9]+$"));
+        }
+        CacheStats stats = cached.getResultCacheStats();
+        assertEquals(16, stats.getCapacity());
+        assertTrue(stats.getHits() > 0);
+        assertTrue(stats.getSize() <= 16);
+        assertTrue(stats.getMisses() >= stats.getSize() + stats.getEvictions());
+    }
+
+    @Test
+    public void resultCacheWithCustomEmailRegex() {
+        BorderPolicy cached = BorderPolicy.builder()
+                .emailRegex("^[a-z]+@example[.]com$")
+                .resultCacheSize(4)
+                .build();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(isValidEmail(cached, "joe@example.com"));
+            assertTrue(!isValidEmail(cached, "joe@abc.com"));
+        }
+        assertEquals(4, cached.getResultCacheStats().getHits());
+        assertEquals(null, BorderPolicy.builder().build().getResultCacheStats());
+    }
+
+    @Test
+    public void toBuilderKeepsSettings() {
+        BorderPolicy policy = BorderPolicy.builder()
+                .patternCacheSize(0)
+                .exceptionMode(BorderPolicy.ExceptionMode.NO_STACK_TRACE)
+                .build();
+        BorderPolicy copy = policy.toBuilder().build();
+        assertEquals(0, copy.getPatternCacheSize());
+        assertEquals(BorderPolicy.ExceptionMode.NO_STACK_TRACE, copy.getExceptionMode());
+        assertSame(policy.getEmailPattern(), copy.getEmailPattern());
+        copy.checkPattern("Test", "ABC", "^ABC$");
+    }
+
+    private static boolean isValidEmail(BorderPolicy policy, String email) {
+        try {
+            policy.checkValidEmail("Test", email);
+            return true;
+        } catch (BorderInvalidEmailException ex) {
+            return false;
+        }
+    }
+
+    private static boolean matches(BorderPolicy policy, String str, String pattern) {
+        try {
+            policy.checkPattern("Test", str, pattern);
+            return true;
+        } catch (BorderPatternException ex) {
+            return false;
+        }
+    }
+}
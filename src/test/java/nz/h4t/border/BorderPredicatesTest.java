@@ -0,0 +1,93 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BorderPredicatesTest {
+    @Test
+    public void allOf() {
+        Predicate<String> p = BorderPredicates.allOf(s -> s.length() > 2, s -> s.startsWith("A"));
+        assertTrue(p.test("ABC"));
+        assertFalse(p.test("AB"));
+        assertFalse(p.test("BCD"));
+        Predicate<String> nested = BorderPredicates.allOf(p, s -> s.endsWith("C"));
+        assertTrue(nested.test("ABC"));
+        assertFalse(nested.test("ABD"));
+    }
+
+    @Test
+    public void anyOf() {
+        Predicate<String> p = BorderPredicates.anyOf(String::isEmpty, s -> s.startsWith("A"));
+        assertTrue(p.test(""));
+        assertTrue(p.test("ABC"));
+        assertFalse(p.test("BCD"));
+        Predicate<String> mixed = BorderPredicates.allOf(p, s -> s.length() < 3);
+        assertTrue(mixed.test("AB"));
+        assertFalse(mixed.test("ABC"));
+    }
+
+    @Test
+    public void emptyNested() {
+        Predicate<String> p = BorderPredicates.allOf(BorderPredicates.allOf(), s -> s.startsWith("A"));
+        assertTrue(p.test("ABC"));
+        assertFalse(p.test("BCD"));
+        Predicate<String> any = BorderPredicates.anyOf(BorderPredicates.anyOf(), s -> s.startsWith("A"));
+        assertTrue(any.test("ABC"));
+        assertFalse(any.test("BCD"));
+        IntPredicate ints = BorderPredicates.allOfInt(BorderPredicates.allOfInt(), i -> i > 0);
+        assertTrue(ints.test(1));
+        assertFalse(ints.test(0));
+    }
+
+    @Test
+    public void primitives() {
+        IntPredicate ints = BorderPredicates.allOfInt(BorderPredicates.between(1, 10), i -> i % 2 == 0);
+        assertTrue(ints.test(4));
+        assertFalse(ints.test(5));
+        assertFalse(ints.test(12));
+        IntPredicate anyInt = BorderPredicates.anyOfInt(i -> i < 0, BorderPredicates.between(5, 6));
+        assertTrue(anyInt.test(-1));
+        assertTrue(anyInt.test(6));
+        assertFalse(anyInt.test(3));
+        LongPredicate longs = BorderPredicates.allOfLong(BorderPredicates.between(1L, 10L), l -> l != 7L);
+        assertTrue(longs.test(3L));
+        assertFalse(longs.test(7L));
+        LongPredicate anyLong = BorderPredicates.anyOfLong(l -> l == 0L, BorderPredicates.between(100L, 200L));
+        assertTrue(anyLong.test(150L));
+        assertFalse(anyLong.test(50L));
+        Border.checkIntThat("Test", 4, ints);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+import nz.h4t.border.exceptions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BorderReferenceTest {
+    @Test
+    public void kinds() {
+        try {
+            Border.checkTooLong("Test", "ABCDEF", 3);
+            fail();
+        } catch (BorderException ex) {
+            assertEquals(BorderErrorKind.TOO_LONG, ex.getKind());
+        }
+        try {
+            Border.checkNotNull("Test", null);
+            fail();
+        } catch (BorderException ex) {
+            assertEquals(BorderErrorKind.IS_NULL, ex.getKind());
+        }
+        assertEquals(BorderErrorKind.OTHER, new BorderException("X", "Test").getKind());
+        for (BorderErrorKind kind : BorderErrorKind.values()) {
+            assertSame(kind, BorderErrorKind.fromNumber(kind.getNumber()));
+        }
+    }
+
+    @Test
+    public void interned() {
+        BorderReference first = null;
+        for (int i = 0; i < 3; i++) {
+            try {
+                Border.checkTooShort("Test", "A", 3);
+                fail();
+            } catch (BorderException ex) {
+                assertTrue(ex.getCode().matches("^BorderReferenceTest[:][0-9]+$"));
+                assertSame(ex.getCode(), ex.getReference().getCode());
+                if (first == null) {
+                    first = ex.getReference();
+                }
+                assertSame(first, ex.getReference());
+            }
+        }
+        assertSame(first, BorderReference.of(first.getCode()));
+        try {
+            Border.checkTooShort("Test", "A", 3);
+            fail();
+        } catch (BorderException ex) {
+            assertNotSame(first, ex.getReference());
+            assertNotEquals(first.getId(), ex.getReference().getId());
+        }
+    }
+
+    @Test
+    public void customCode() {
+        // Codes set by hand are not interned, so that they cannot grow the table
+        BorderException ex = new BorderException("Custom:1", "Test");
+        assertEquals("Custom:1", ex.getReference().getCode());
+        assertEquals(-1, ex.getReference().getId());
+        assertSame(ex.getReference(), ex.getReference());
+        assertNotSame(BorderReference.of("Custom:1"), ex.getReference());
+        assertEquals(BorderReference.of("Custom:1"), ex.getReference());
+        ex.setCode("Custom:2");
+        assertEquals("Custom:2", ex.getReference().getCode());
+
+        BorderReference line = BorderReference.of(BorderReferenceTest.class, 1);
+        ex.setCode("BorderReferenceTest:1");
+        assertSame(line, ex.getReference());
+        assertSame(BorderReference.NONE, BorderReference.of("-"));
+    }
+
+    @Test
+    public void serialized() throws Exception {
+        BorderException ex = new BorderTooLongException("Custom:3", "Test");
+        try {
+            Border.checkTooLong("Test", "ABCDEF", 3);
+            fail();
+        } catch (BorderException thrown) {
+            ex.setReference(thrown.getReference());
+        }
+        BorderReference reference = ex.getReference();
+        assertTrue(reference.getId() >= 0);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(ex);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            BorderException read = (BorderException) in.readObject();
+            assertEquals(reference.getCode(), read.getCode());
+            assertSame(reference, read.getReference());
+            assertEquals(BorderErrorKind.TOO_LONG, read.getKind());
+        }
+    }
+}
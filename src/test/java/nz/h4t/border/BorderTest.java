@@ -27,10 +27,13 @@
 
 package nz.h4t.border;
 
+import nz.h4t.border.exceptions.BorderCustomException;
 import nz.h4t.border.exceptions.BorderException;
 import nz.h4t.border.exceptions.BorderInvalidEmailException;
 import nz.h4t.border.exceptions.BorderIsNullException;
+import nz.h4t.border.exceptions.BorderNoMatchException;
 import nz.h4t.border.exceptions.BorderNotNullException;
+import nz.h4t.border.exceptions.BorderPatternException;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
@@ -38,6 +41,8 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -189,6 +194,33 @@ public class BorderTest {
         }
     }
 
+    @Test
+    public void checkCompiledPattern() {
+        Pattern pattern = Pattern.compile("^abc$", Pattern.CASE_INSENSITIVE);
+        Border.checkPattern("Test", "ABC", pattern);
+        BorderPolicy original = Border.getPolicy();
+        Border.setPolicy(original.toBuilder().resultCacheSize(64).build());
+        try {
+            // The flags keep the result apart from the same regex given as a string
+            Border.checkPattern("Test", "ABC", pattern);
+            try {
+                Border.checkPattern("Test", "ABC", "^abc$");
+                fail();
+            } catch (BorderPatternException ex) {
+                assertTrue(ex.getCode().matches("^BorderTest[:][0-9]+$"));
+            }
+            Border.checkPattern("Test", "ABC", pattern);
+        } finally {
+            Border.setPolicy(original);
+        }
+        try {
+            Border.checkPattern("Test", "ABCD", pattern);
+            fail();
+        } catch (BorderPatternException ex) {
+            assertTrue(ex.getCode().matches("^BorderTest[:][0-9]+$"));
+        }
+    }
+
     @Test
     public void checkIsBetweenLD() {
         Border.checkIsBetween("Test",
@@ -256,6 +288,27 @@ public class BorderTest {
         }
     }
 
+    @Test
+    public void checkInCollectionUsesEquals() {
+        Set<String> vals = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        vals.add("ABC");
+        Border.checkInCollection("Test", "ABC", vals);
+        try {
+            Border.checkInCollection("Test", "abc", vals);
+            fail();
+        } catch (BorderNoMatchException ex) {
+            assertTrue(vals.contains("abc"));
+        }
+        Set<Integer> numbers = new TreeSet<>(Arrays.asList(1, 2, 3));
+        Border.checkInCollection("Test", 2, numbers);
+        try {
+            Border.checkInCollection("Test", "2", numbers);
+            fail();
+        } catch (BorderNoMatchException ex) {
+            assertTrue(numbers.contains(2));
+        }
+    }
+
     @Test
     public void checkSize() {
         Border.checkSize("Test", Arrays.asList("XXX"), 1);
@@ -319,6 +372,31 @@ public class BorderTest {
         }
     }
 
+    @Test
+    public void checkThat() {
+        Border.checkThat("Test", "ABC", s -> s.startsWith("A"));
+        Border.checkIntThat("Test", 5, i -> i > 3);
+        Border.checkLongThat("Test", 5L, l -> l > 3);
+        try {
+            Border.checkThat("Test", "ABC", s -> s.startsWith("B"));
+            fail();
+        } catch (BorderCustomException ex) {
+            assertTrue(ex.getCode().matches("^BorderTest[:][0-9]+$"));
+        }
+        try {
+            Border.checkIntThat("Test", 2, i -> i > 3);
+            fail();
+        } catch (BorderCustomException ex) {
+            assertTrue(ex.getCode().matches("^BorderTest[:][0-9]+$"));
+        }
+        try {
+            Border.checkLongThat("Test", 2L, l -> l > 3);
+            fail();
+        } catch (BorderCustomException ex) {
+            assertTrue(ex.getCode().matches("^BorderTest[:][0-9]+$"));
+        }
+    }
+
     @Test
     public void checkFail() {
         try {
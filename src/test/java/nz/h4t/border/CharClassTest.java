@@ -0,0 +1,109 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+import nz.h4t.border.exceptions.BorderIsNullException;
+import nz.h4t.border.exceptions.BorderPatternException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CharClassTest {
+    private static final Map<CharClass, Pattern> REGEXES = new EnumMap<>(CharClass.class);
+
+    static {
+        REGEXES.put(CharClass.PRINTABLE, Pattern.compile("[ -~]*"));
+        REGEXES.put(CharClass.DIGITS, Pattern.compile("[0-9]*"));
+        REGEXES.put(CharClass.ALPHANUMERIC, Pattern.compile("[A-Za-z0-9]*"));
+        REGEXES.put(CharClass.HEX, Pattern.compile("[0-9A-Fa-f]*"));
+        REGEXES.put(CharClass.BASE64, Pattern.compile("(?:[A-Za-z0-9+/]{4})*(?:[A-Za-z0-9+/]{2}==|[A-Za-z0-9+/]{3}=)?"));
+        REGEXES.put(CharClass.BASE64URL, Pattern.compile("(?:[A-Za-z0-9_-]{4})*(?:[A-Za-z0-9_-]{2,3}|[A-Za-z0-9_-]{2}==|[A-Za-z0-9_-]{3}=)?"));
+        REGEXES.put(CharClass.SLUG, Pattern.compile("(?:[a-z0-9]+(?:-[a-z0-9]+)*)?"));
+    }
+
+    @Test
+    public void sameAsRegex() {
+        String alphabet = "aAzZ09fFgG+/=-_ ~!\u007fé";
+        Random random = new Random(42);
+        for (int n = 0; n < 200_000; n++) {
+            CharClass charClass = CharClass.values()[n % CharClass.values().length];
+            // Mostly characters of the class, so that long valid runs reach the 8 byte path
+            StringBuilder sb = new StringBuilder();
+            int len = random.nextInt(40);
+            for (int i = 0; i < len; i++) {
+                char c = alphabet.charAt(random.nextInt(alphabet.length()));
+                if (random.nextInt(4) != 0) {
+                    do {
+                        c = (char) random.nextInt(128);
+                    } while (!charClass.contains(c));
+                }
+                sb.append(c);
+            }
+            String value = sb.toString();
+            boolean expected = REGEXES.get(charClass).matcher(value).matches();
+            assertEquals(expected, charClass.matches(value), charClass + " " + value);
+
+            int offset = random.nextInt(8);
+            ByteBuffer buf = ByteBuffer.allocate(offset + len + 8);
+            buf.put(offset, value.getBytes(StandardCharsets.ISO_8859_1));
+            assertEquals(expected, charClass.matches(buf, offset, offset + len), charClass + " bytes " + value);
+        }
+    }
+
+    @Test
+    public void checkCharClass() {
+        Border.checkCharClass("Test", "ABC123", CharClass.ALPHANUMERIC);
+        Border.checkCharClass("Test", "123456", CharClass.DIGITS, 6, 6);
+        Border.checkCharClass("Test", "order-42", CharClass.SLUG);
+        try {
+            Border.checkCharClass("Test", "12345", CharClass.DIGITS, 6, 6);
+            fail();
+        } catch (BorderPatternException ex) {
+            assertTrue(ex.getCode().matches("^CharClassTest[:][0-9]+$"));
+        }
+        try {
+            Border.checkCharClass("Test", "ABC 123", CharClass.ALPHANUMERIC);
+            fail();
+        } catch (BorderPatternException ex) {
+            assertTrue(ex.getCode().matches("^CharClassTest[:][0-9]+$"));
+        }
+        try {
+            Border.checkCharClass("Test", null, CharClass.HEX);
+            fail();
+        } catch (BorderIsNullException ex) {
+            assertTrue(ex.getCode().matches("^CharClassTest[:][0-9]+$"));
+        }
+    }
+}
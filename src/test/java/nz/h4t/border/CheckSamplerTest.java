@@ -0,0 +1,170 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+import nz.h4t.border.exceptions.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheckSamplerTest {
+
+    @Test
+    public void skipsExpensiveChecks() {
+        // A budget no request can meet, so after the first request the sampled checks never run
+        CheckSampler sampler = new CheckSampler(Duration.ofNanos(1), 0, CheckSampler.DEFAULT_CHECKS);
+        BorderPolicy original = Border.getPolicy();
+        Border.setPolicy(original.toBuilder().sampler(sampler).build());
+        try {
+            try (CheckSampler.Request request = sampler.begin()) {
+                assertTrue(request.isRunningChecks());
+                Border.checkPattern("Test", "abc", "[a-z]+");
+            }
+            assertTrue(sampler.getSamplingRate() < 0.001);
+
+            try (CheckSampler.Request request = skippingRequest(sampler)) {
+                assertFalse(request.isRunningChecks());
+                Border.checkPattern("Test", "123", "[a-z]+");
+                Border.checkValidEmail("Test", "not an email");
+                Border.checkThat("Test", "abc", str -> false);
+                // The cheap checks still run
+                try {
+                    Border.checkPattern("Test", null, "[a-z]+");
+                    fail();
+                } catch (BorderIsNullException ex) {
+                    assertTrue(ex.getCode().matches("^CheckSamplerTest[:][0-9]+$"));
+                }
+                try {
+                    Border.checkTooLong("Test", "abcdef", 3);
+                    fail();
+                } catch (BorderTooLongException ex) {
+                    assertTrue(ex.getCode().matches("^CheckSamplerTest[:][0-9]+$"));
+                }
+            }
+
+            // Outside a request every check runs
+            try {
+                Border.checkPattern("Test", "123", "[a-z]+");
+                fail();
+            } catch (BorderPatternException ex) {
+                assertTrue(ex.getCode().matches("^CheckSamplerTest[:][0-9]+$"));
+            }
+        } finally {
+            Border.setPolicy(original);
+        }
+        assertEquals(2, sampler.getExecutedCount("checkPattern"));
+        assertEquals(1, sampler.getSkippedCount("checkPattern"));
+        assertEquals(1, sampler.getSkippedCount("checkValidEmail"));
+        assertEquals(0, sampler.getExecutedCount("checkValidEmail"));
+        assertEquals(2.0 / 3, sampler.getCoverage().get("checkPattern"), 1e-9);
+    }
+
+    @Test
+    public void adaptsToBudget() {
+        CheckSampler sampler = new CheckSampler(Duration.ofMillis(1));
+        Validator<String> validator = Validator.<String>builder()
+                .rule("notEmpty", str -> Border.checkNotEmpty("Empty", str))
+                .sampledRule("slow", sampler, str -> spin(4_000_000))
+                .build();
+        assertEquals(1.0, sampler.getSamplingRate());
+        for (int i = 0; i < 200; i++) {
+            try (CheckSampler.Request request = sampler.begin()) {
+                validator.validate("abc");
+            }
+        }
+        // Requests take about 4ms with the slow rule and nothing without it
+        double rate = sampler.getSamplingRate();
+        assertTrue(rate > 0.05 && rate < 0.6, "rate " + rate);
+        long executed = sampler.getExecutedCount("slow");
+        long skipped = sampler.getSkippedCount("slow");
+        assertEquals(200, executed + skipped);
+        assertTrue(skipped > 0);
+
+        try (CheckSampler.Request request = sampler.begin()) {
+            validator.validate("");
+            fail();
+        } catch (BorderIsEmptyException ex) {
+            assertTrue(ex.getCode().matches("^CheckSamplerTest[:][0-9]+$"));
+        }
+    }
+
+    @Test
+    public void invalidSettings() {
+        try {
+            new CheckSampler(Duration.ZERO);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            assertEquals("budget must be positive", ex.getMessage());
+        }
+        try {
+            new CheckSampler(Duration.ofMillis(1), 1.5, CheckSampler.DEFAULT_CHECKS);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            assertEquals("minRate must be between 0 and 1", ex.getMessage());
+        }
+        try {
+            new CheckSampler(Duration.ofMillis(1), 0.1, Collections.singleton("checkInCollection"));
+            fail();
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage().startsWith("Cannot sample checkInCollection, only ["));
+        }
+    }
+
+    @Test
+    public void nestedRequest() {
+        CheckSampler sampler = new CheckSampler(Duration.ofMillis(1));
+        try (CheckSampler.Request request = sampler.begin()) {
+            try {
+                sampler.begin();
+                fail();
+            } catch (IllegalStateException ex) {
+                assertEquals("A request is already in progress on this thread", ex.getMessage());
+            }
+        }
+        sampler.begin().close();
+    }
+
+    private static CheckSampler.Request skippingRequest(CheckSampler sampler) {
+        CheckSampler.Request request = sampler.begin();
+        while (request.isRunningChecks()) {
+            request.close();
+            request = sampler.begin();
+        }
+        return request;
+    }
+
+    private static void spin(long nanos) {
+        long end = System.nanoTime() + nanos;
+        while (System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
+    }
+}
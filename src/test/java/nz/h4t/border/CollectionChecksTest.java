@@ -0,0 +1,157 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+import nz.h4t.border.exceptions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CollectionChecksTest {
+    @Test
+    public void allNotNull() {
+        Border.checkAllNotNull("Test", Arrays.asList("A", "B"));
+        Border.checkAllNotNull("Test", Collections.emptyList());
+        try {
+            Border.checkAllNotNull("Test", Arrays.asList("A", "B", null, null));
+            fail();
+        } catch (BorderNullElementException ex) {
+            assertEquals(2, ex.getIndex());
+            assertTrue(ex.getCode().matches("^CollectionChecksTest[:][0-9]+$"));
+        }
+        try {
+            Border.checkAllNotNull("Test", null);
+            fail();
+        } catch (BorderNullElementException ex) {
+            fail();
+        } catch (BorderIsNullException ex) {
+            assertTrue(ex.getCode().matches("^CollectionChecksTest[:][0-9]+$"));
+        }
+    }
+
+    @Test
+    public void allNotEmpty() {
+        Border.checkAllNotEmpty("Test", Arrays.asList("A", "B"));
+        try {
+            Border.checkAllNotEmpty("Test", Arrays.asList("A", ""));
+            fail();
+        } catch (BorderEmptyElementException ex) {
+            assertEquals(1, ex.getIndex());
+        }
+        try {
+            Border.checkAllNotEmpty("Test", Arrays.asList(null, "B"));
+            fail();
+        } catch (BorderEmptyElementException ex) {
+            assertEquals(0, ex.getIndex());
+        }
+    }
+
+    @Test
+    public void noDuplicates() {
+        Border.checkNoDuplicates("Test", Arrays.asList("A", "B", null));
+        try {
+            Border.checkNoDuplicates("Test", Arrays.asList("A", "B", "C", "B"));
+            fail();
+        } catch (BorderDuplicateException ex) {
+            assertEquals(3, ex.getIndex());
+            assertEquals("B", ex.getValue());
+            assertTrue(ex.getCode().matches("^CollectionChecksTest[:][0-9]+$"));
+        }
+        Border.checkNoDuplicates("Test", new int[]{0, 1, -1, Integer.MIN_VALUE, Integer.MAX_VALUE});
+        try {
+            Border.checkNoDuplicates("Test", new int[]{5, 0, 7, 0});
+            fail();
+        } catch (BorderDuplicateException ex) {
+            assertEquals(3, ex.getIndex());
+            assertEquals(0, ex.getValue());
+        }
+        Border.checkNoDuplicates("Test", new long[0]);
+        try {
+            Border.checkNoDuplicates("Test", new long[]{Long.MIN_VALUE, 1L << 32, 1, Long.MIN_VALUE});
+            fail();
+        } catch (BorderDuplicateException ex) {
+            assertEquals(3, ex.getIndex());
+            assertEquals(Long.MIN_VALUE, ex.getValue());
+        }
+    }
+
+    @Test
+    public void noDuplicatesReusesSet() {
+        // Each check empties the thread's set left by the one before, even one that failed part way
+        try {
+            Border.checkNoDuplicates("Test", new long[]{0, 7, 1L << 40, 9, 7});
+            fail();
+        } catch (BorderDuplicateException ex) {
+            assertEquals(4, ex.getIndex());
+        }
+        Border.checkNoDuplicates("Test", new long[]{0, 7, 1L << 40});
+        Border.checkNoDuplicates("Test", new int[]{7, 0});
+        int[] values = new int[1024];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i * 31;
+        }
+        Border.checkNoDuplicates("Test", values);
+        Border.checkNoDuplicates("Test", values);
+        Border.checkNoDuplicates("Test", new int[]{0, 31});
+        try {
+            Border.checkNoDuplicates("Test", new int[]{31, 62, 31});
+            fail();
+        } catch (BorderDuplicateException ex) {
+            assertEquals(2, ex.getIndex());
+        }
+    }
+
+    @Test
+    public void noDuplicatesLarge() {
+        // Keys that differ only in their high bits must still spread over the table
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) i << 40;
+        }
+        Border.checkNoDuplicates("Test", values);
+
+        Random random = new Random(42);
+        int[] ints = random.ints(50_000).distinct().toArray();
+        Border.checkNoDuplicates("Test", ints);
+        int[] withRepeat = Arrays.copyOf(ints, ints.length + 1);
+        withRepeat[ints.length] = ints[random.nextInt(ints.length)];
+        try {
+            Border.checkNoDuplicates("Test", withRepeat);
+            fail();
+        } catch (BorderDuplicateException ex) {
+            assertEquals(ints.length, ex.getIndex());
+        }
+        List<Integer> boxed = Arrays.asList(1, 2, 3);
+        Border.checkNoDuplicates("Test", boxed);
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+import nz.h4t.border.diagnostics.FailureRecorder;
+import nz.h4t.border.diagnostics.RecordedFailure;
+import nz.h4t.border.exceptions.*;
+import nz.h4t.border.index.StringIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs every Border check, once passing and once failing, from many
+ * platform and virtual threads while another thread keeps replacing the
+ * email regex, checking that each check gives the result its policy should,
+ * that reference codes and recorded failures are never torn, and that no
+ * failure goes missing from the FailureRecorder.
+ * <p>
+ * Each run is short so that it fits in the normal build: every worker stops
+ * at one deadline shared by the run, and yields every 1024 checks so that
+ * virtual threads share their carriers instead of running one after
+ * another. For a longer run with more threads, printing the throughput at
+ * each thread count, for example on a large machine:
+ * <pre>
+ * mvn test -Dtest=ConcurrencyStressTest -Dborder.stress.millis=5000 -Dborder.stress.threads=256 -Dborder.stress.print=true
+ * </pre>
+ */
+public class ConcurrencyStressTest {
+    private static final long MILLIS = Long.getLong("border.stress.millis", 150);
+    private static final int MAX_THREADS = Integer.getInteger("border.stress.threads", 8);
+    private static final boolean PRINT = Boolean.getBoolean("border.stress.print");
+    private static final long GRACE_MILLIS = 10_000;
+    private static final String CODE = "^ConcurrencyStressTest[:][0-9]+$";
+    private static final String DOTTED_EMAIL_REGEX = "^[^@]+@[^@]+\\.[^@]+$";
+    private static final Pattern CODE_PATTERN = Pattern.compile("[A-Z]{3}", Pattern.CASE_INSENSITIVE);
+
+    private final Set<String> codes = new HashSet<>(Arrays.asList("ABC", "DEF", "GHI"));
+    private final List<String> list = Arrays.asList("ABC", "DEF", "GHI");
+    private final List<String> duplicated = Arrays.asList("ABC", "DEF", "ABC");
+    private final StringIndex index = StringIndex.build(codes);
+    private final LocalDate from = LocalDate.of(2000, 1, 1);
+    private final LocalDate to = LocalDate.of(2030, 12, 31);
+    private final LocalDate date = LocalDate.of(2018, 6, 15);
+    private final LocalDateTime fromTime = from.atStartOfDay();
+    private final LocalDateTime toTime = to.atStartOfDay();
+    private final Predicate<String> isCode = BorderPredicates.allOf(str -> str.length() == 3, codes::contains);
+
+    /**
+     * One passing and one failing call of every check, named by the check,
+     * which is also the message the check fails with.
+     */
+    private final Case[] cases = {
+            fails("checkAlways", BorderNotNullException.class, m -> Border.checkAlways(m)),
+            passes("checkIsNull", m -> Border.checkIsNull(m, null)),
+            fails("checkIsNull", BorderNotNullException.class, m -> Border.checkIsNull(m, "ABC")),
+            passes("checkNotNull", m -> Border.checkNotNull(m, "ABC")),
+            fails("checkNotNull", BorderIsNullException.class, m -> Border.checkNotNull(m, null)),
+            passes("checkEqual", m -> Border.checkEqual(m, "ABC", "ABC")),
+            fails("checkEqual", BorderNotEqualException.class, m -> Border.checkEqual(m, "ABC", "DEF")),
+            passes("checkNotEqual", m -> Border.checkNotEqual(m, "ABC", "DEF")),
+            fails("checkNotEqual", BorderEqualException.class, m -> Border.checkNotEqual(m, "ABC", "ABC")),
+            passes("checkNotEmpty", m -> Border.checkNotEmpty(m, "ABC")),
+            fails("checkNotEmpty", BorderIsEmptyException.class, m -> Border.checkNotEmpty(m, "")),
+            passes("checkCollectionNotEmpty", m -> Border.checkCollectionNotEmpty(m, list)),
+            fails("checkCollectionNotEmpty", BorderIsEmptyException.class, m -> Border.checkCollectionNotEmpty(m, List.of())),
+            passes("checkNotNullOrEmpty", m -> Border.checkNotNullOrEmpty(m, "ABC")),
+            fails("checkNotNullOrEmpty", BorderIsEmptyException.class, m -> Border.checkNotNullOrEmpty(m, "")),
+            passes("checkIsTrue", m -> Border.checkIsTrue(m, true)),
+            fails("checkIsTrue", BorderIsFalseException.class, m -> Border.checkIsTrue(m, false)),
+            passes("checkIsFalse", m -> Border.checkIsFalse(m, false)),
+            fails("checkIsFalse", BorderIsTrueException.class, m -> Border.checkIsFalse(m, true)),
+            passes("checkTooLong", m -> Border.checkTooLong(m, "ABC", 3)),
+            fails("checkTooLong", BorderTooLongException.class, m -> Border.checkTooLong(m, "ABCDEF", 3)),
+            passes("checkTooShort", m -> Border.checkTooShort(m, "ABC", 3)),
+            fails("checkTooShort", BorderTooShortException.class, m -> Border.checkTooShort(m, "AB", 3)),
+            passes("checkPattern", m -> Border.checkPattern(m, "ABC", "[A-Z]{3}")),
+            fails("checkPattern", BorderPatternException.class, m -> Border.checkPattern(m, "abc", "[A-Z]{3}")),
+            passes("checkPattern", m -> Border.checkPattern(m, "abc", CODE_PATTERN)),
+            fails("checkPattern", BorderPatternException.class, m -> Border.checkPattern(m, "abcd", CODE_PATTERN)),
+            passes("checkCharClass", m -> Border.checkCharClass(m, "ABC", CharClass.ALPHANUMERIC, 1, 8)),
+            fails("checkCharClass", BorderPatternException.class, m -> Border.checkCharClass(m, "A-C", CharClass.ALPHANUMERIC)),
+            passes("checkIsBetween", m -> Border.checkIsBetween(m, date, from, to)),
+            fails("checkIsBetween", BorderInvalidDateException.class, m -> Border.checkIsBetween(m, toTime.plusDays(1), fromTime, toTime)),
+            passes("checkValidDate", m -> Border.checkValidDate(m, "2018-06-15", from, to)),
+            fails("checkValidDate", BorderInvalidDateException.class, m -> Border.checkValidDate(m, "30/02/2018", "dd/MM/yyyy", from, to)),
+            passes("checkValidDateTime", m -> Border.checkValidDateTime(m, "2018-06-15T10:15:30")),
+            fails("checkValidDateTime", BorderInvalidDateException.class, m -> Border.checkValidDateTime(m, "2018-06-15T25:00")),
+            passes("checkPossibleValues", m -> Border.checkPossibleValues(m, "GHI", "ABC", "GHI")),
+            fails("checkPossibleValues", BorderNoMatchException.class, m -> Border.checkPossibleValues(m, "XYZ", "ABC", "GHI")),
+            passes("checkSize", m -> Border.checkSize(m, list, 3)),
+            fails("checkSize", BorderNoMatchException.class, m -> Border.checkSize(m, list, 2)),
+            passes("checkMinSize", m -> Border.checkMinSize(m, list, 3)),
+            fails("checkMinSize", BorderNoMatchException.class, m -> Border.checkMinSize(m, list, 4)),
+            passes("checkInCollection", m -> Border.checkInCollection(m, "DEF", codes)),
+            fails("checkInCollection", BorderNoMatchException.class, m -> Border.checkInCollection(m, "XYZ", codes)),
+            passes("checkInCollection", m -> Border.checkInCollection(m, "DEF", index)),
+            fails("checkInCollection", BorderNoMatchException.class, m -> Border.checkInCollection(m, "XYZ", index)),
+            passes("checkAllNotNull", m -> Border.checkAllNotNull(m, list)),
+            fails("checkAllNotNull", BorderNullElementException.class, m -> Border.checkAllNotNull(m, Arrays.asList("ABC", null))),
+            passes("checkAllNotEmpty", m -> Border.checkAllNotEmpty(m, list)),
+            fails("checkAllNotEmpty", BorderEmptyElementException.class, m -> Border.checkAllNotEmpty(m, Arrays.asList("ABC", ""))),
+            passes("checkNoDuplicates", m -> Border.checkNoDuplicates(m, list)),
+            fails("checkNoDuplicates", BorderDuplicateException.class, m -> Border.checkNoDuplicates(m, duplicated)),
+            passes("checkNoDuplicates", m -> Border.checkNoDuplicates(m, new int[]{1, 2, 3})),
+            fails("checkNoDuplicates", BorderDuplicateException.class, m -> Border.checkNoDuplicates(m, new long[]{1, 2, 1})),
+            passes("checkValidEmail", m -> Border.checkValidEmail(m, "joe@abc.com")),
+            fails("checkValidEmail", BorderInvalidEmailException.class, m -> Border.checkValidEmail(m, "not-an-email")),
+            passes("checkUuid", m -> Border.checkUuid(m, "123e4567-e89b-12d3-a456-426614174000")),
+            fails("checkUuid", BorderPatternException.class, m -> Border.checkUuid(m, "123e4567-e89b-12d3-a456-42661417400g")),
+            passes("checkCardNumber", m -> Border.checkCardNumber(m, "4111111111111111")),
+            fails("checkCardNumber", BorderNoMatchException.class, m -> Border.checkCardNumber(m, "4111111111111112")),
+            passes("checkIban", m -> Border.checkIban(m, "GB82 WEST 1234 5698 7654 32")),
+            fails("checkIban", BorderNoMatchException.class, m -> Border.checkIban(m, "GB83 WEST 1234 5698 7654 32")),
+            passes("checkIsbn", m -> Border.checkIsbn(m, "978-0-306-40615-7")),
+            fails("checkIsbn", BorderNoMatchException.class, m -> Border.checkIsbn(m, "978-0-306-40615-8")),
+            passes("checkNumeric", m -> Border.checkNumeric(m, "0042")),
+            fails("checkNumeric", BorderPatternException.class, m -> Border.checkNumeric(m, "42a")),
+            passes("checkParsesAsInt", m -> Border.checkParsesAsInt(m, "42", 1, 100)),
+            fails("checkParsesAsInt", BorderInvalidLengthException.class, m -> Border.checkParsesAsInt(m, "2147483648")),
+            passes("checkParsesAsLong", m -> Border.checkParsesAsLong(m, "-9223372036854775808")),
+            fails("checkParsesAsLong", BorderPatternException.class, m -> Border.checkParsesAsLong(m, "12.5")),
+            passes("checkDecimal", m -> Border.checkDecimal(m, "-123.45", 5, 2)),
+            fails("checkDecimal", BorderInvalidLengthException.class, m -> Border.checkDecimal(m, "1234.5", 5, 2)),
+            passes("checkThat", m -> Border.checkThat(m, "ABC", isCode)),
+            fails("checkThat", BorderCustomException.class, m -> Border.checkThat(m, "XYZ", isCode)),
+            passes("checkIntThat", m -> Border.checkIntThat(m, 42, i -> i > 0)),
+            fails("checkIntThat", BorderCustomException.class, m -> Border.checkIntThat(m, -42, i -> i > 0)),
+            passes("checkLongThat", m -> Border.checkLongThat(m, 42L, l -> l % 2 == 0)),
+            fails("checkLongThat", BorderCustomException.class, m -> Border.checkLongThat(m, 43L, l -> l % 2 == 0))
+    };
+    private final Set<String> messages = Arrays.stream(cases).map(c -> c.name).collect(Collectors.toSet());
+
+    private BorderPolicy original;
+    private FailureRecorder recorder;
+
+    @BeforeEach
+    public void setup() {
+        original = Border.getPolicy();
+        recorder = new FailureRecorder(1024);
+        Border.setFailureRecorder(recorder);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Border.setPolicy(original);
+        Border.setFailureRecorder(null);
+    }
+
+    @Test
+    public void platformThreads() throws InterruptedException {
+        for (int threads = 1; threads <= MAX_THREADS; threads *= 2) {
+            run("platform", threads, Thread.ofPlatform().factory());
+        }
+    }
+
+    @Test
+    public void virtualThreads() throws InterruptedException {
+        for (int threads = 1; threads <= MAX_THREADS * 32; threads *= 4) {
+            run("virtual", threads, Thread.ofVirtual().factory());
+        }
+    }
+
+    private void run(String kind, int threads, ThreadFactory factory) throws InterruptedException {
+        // The default pattern is case insensitive through a flag, which the regex string does not carry
+        String defaultRegex = "(?i)" + original.getEmailPattern().pattern();
+        recorder.clear();
+        long recordedBefore = recorder.getRecordedCount() + recorder.getDroppedCount();
+        LongAdder ops = new LongAdder();
+        LongAdder failures = new LongAdder();
+        AtomicReference<Throwable> violation = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong deadline = new AtomicLong();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(factory.newThread(() -> {
+                try {
+                    start.await();
+                    work(deadline.get(), ops, failures);
+                } catch (Throwable ex) {
+                    violation.compareAndSet(null, ex);
+                }
+            }));
+        }
+        Thread writer = Thread.ofPlatform().unstarted(() -> {
+            boolean dotted = false;
+            while (!Thread.currentThread().isInterrupted()) {
+                Border.setEmailRegex(dotted ? DOTTED_EMAIL_REGEX : defaultRegex);
+                dotted = !dotted;
+                Thread.onSpinWait();
+            }
+        });
+        workers.forEach(Thread::start);
+        writer.start();
+        long begin = System.nanoTime();
+        deadline.set(begin + MILLIS * 1_000_000);
+        start.countDown();
+        long giveUp = begin + (MILLIS + GRACE_MILLIS) * 1_000_000;
+        for (Thread worker : workers) {
+            worker.join(Duration.ofNanos(Math.max(giveUp - System.nanoTime(), 1)));
+        }
+        long elapsed = System.nanoTime() - begin;
+        writer.interrupt();
+        writer.join();
+        for (Thread worker : workers) {
+            assertFalse(worker.isAlive(), kind + " threads=" + threads + " still running after " + GRACE_MILLIS + "ms");
+        }
+
+        if (violation.get() != null) {
+            throw new AssertionError(kind + " threads=" + threads, violation.get());
+        }
+        assertEquals(failures.sum(), recorder.getRecordedCount() + recorder.getDroppedCount() - recordedBefore);
+        for (RecordedFailure failure : recorder.snapshot()) {
+            assertTrue(failure.getCode().matches(CODE), failure.toString());
+            assertTrue(messages.contains(failure.getMessage()), failure.toString());
+            assertTrue(BorderException.class.isAssignableFrom(failure.getKind()), failure.toString());
+        }
+        if (PRINT) {
+            System.out.printf("%-8s threads=%-5d ops/s=%,.0f%n", kind, threads, ops.sum() * 1e9 / elapsed);
+        }
+    }
+
+    private void work(long deadline, LongAdder ops, LongAdder failures) {
+        long count = 0;
+        long failed = 0;
+        while ((count & 1023) != 0 || System.nanoTime() < deadline) {
+            if ((count & 1023) == 0 && count != 0) {
+                Thread.yield();
+            }
+            int index = (int) (count % (cases.length + 1));
+            if (index == cases.length) {
+                // Valid under the default regex but not the dotted one, so the result must follow the policy
+                BorderPolicy policy = Border.getPolicy();
+                boolean valid = policy.getEmailPattern().matcher("joe@abc").matches();
+                try {
+                    policy.checkValidEmail("checkValidEmail", "joe@abc");
+                    assertTrue(valid, "joe@abc passed " + policy.getEmailPattern());
+                } catch (BorderInvalidEmailException ex) {
+                    assertFalse(valid, "joe@abc failed " + policy.getEmailPattern());
+                    assertTrue(ex.getCode().matches(CODE), ex.getCode());
+                    failed++;
+                }
+            } else if (cases[index].expected == null) {
+                cases[index].check.accept(cases[index].name);
+            } else {
+                expect(cases[index].expected, () -> cases[index].check.accept(cases[index].name));
+                failed++;
+            }
+            count++;
+        }
+        ops.add(count);
+        failures.add(failed);
+    }
+
+    private static void expect(Class<? extends BorderException> type, Runnable check) {
+        try {
+            check.run();
+            fail("Expected " + type.getSimpleName());
+        } catch (BorderException ex) {
+            assertEquals(type, ex.getClass());
+            assertTrue(ex.getCode().matches(CODE), ex.getCode());
+        }
+    }
+
+    private static Case passes(String name, Consumer<String> check) {
+        return new Case(name, null, check);
+    }
+
+    private static Case fails(String name, Class<? extends BorderException> expected, Consumer<String> check) {
+        return new Case(name, expected, check);
+    }
+
+    private static final class Case {
+        private final String name;
+        private final Class<? extends BorderException> expected;
+        private final Consumer<String> check;
+
+        private Case(String name, Class<? extends BorderException> expected, Consumer<String> check) {
+            this.name = name;
+            this.expected = expected;
+            this.check = check;
+        }
+    }
+}
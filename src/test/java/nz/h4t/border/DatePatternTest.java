@@ -0,0 +1,122 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+import nz.h4t.border.exceptions.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatePatternTest {
+    private static final LocalDate FROM = LocalDate.of(2018, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2018, 12, 31);
+
+    @Test
+    public void validDate() {
+        Border.checkValidDate("Test", "2018-06-15");
+        Border.checkValidDate("Test", "2020-02-29");
+        Border.checkValidDate("Test", "+12018-06-15");
+        Border.checkValidDate("Test", "2018-01-01", FROM, TO);
+        Border.checkValidDate("Test", "2018-12-31", FROM, TO);
+        Border.checkValidDate("Test", "15/06/2018", "dd/MM/yyyy", FROM, TO);
+        Border.checkValidDate("Test", "15 Jun 2018", "d MMM yyyy", FROM, TO);
+
+        assertInvalidDate(() -> Border.checkValidDate("Test", "2019-02-29"));
+        assertInvalidDate(() -> Border.checkValidDate("Test", "2018-6-15"));
+        assertInvalidDate(() -> Border.checkValidDate("Test", "2018-06-15T10:00"));
+        assertInvalidDate(() -> Border.checkValidDate("Test", "2019-01-01", FROM, TO));
+        assertInvalidDate(() -> Border.checkValidDate("Test", "2017-12-31", FROM, TO));
+        assertInvalidDate(() -> Border.checkValidDate("Test", "31/06/2018", "dd/MM/yyyy", null, null));
+        assertInvalidDate(() -> Border.checkValidDate("Test", "30 Feb 2018", "d MMM yyyy", null, null));
+        assertInvalidDate(() -> Border.checkValidDate("Test", "15 June 2018", "d MMM yyyy", null, null));
+        try {
+            Border.checkValidDate("Test", null);
+            fail();
+        } catch (BorderIsNullException ex) {
+            assertTrue(ex.getCode().matches("^DatePatternTest[:][0-9]+$"));
+        }
+    }
+
+    @Test
+    public void validDateTime() {
+        LocalDateTime from = LocalDateTime.of(2018, 6, 15, 10, 0, 0, 500_000_000);
+        LocalDateTime to = LocalDateTime.of(2018, 6, 15, 12, 0);
+        Border.checkValidDateTime("Test", "2018-06-15T10:00");
+        Border.checkValidDateTime("Test", "2018-06-15T23:59:59.123456789");
+        Border.checkValidDateTime("Test", "2018-06-15T10:00:00.5", from, to);
+        Border.checkValidDateTime("Test", "2018-06-15T12:00:00", from, to);
+        Border.checkValidDateTime("Test", "20180615110000", "yyyyMMddHHmmss", from, to);
+
+        assertInvalidDate(() -> Border.checkValidDateTime("Test", "2018-06-15"));
+        assertInvalidDate(() -> Border.checkValidDateTime("Test", "2018-06-15T24:00"));
+        assertInvalidDate(() -> Border.checkValidDateTime("Test", "2018-06-15T10:00:"));
+        assertInvalidDate(() -> Border.checkValidDateTime("Test", "2018-06-15T10:00:00.4999", from, to));
+        assertInvalidDate(() -> Border.checkValidDateTime("Test", "2018-06-15T12:00:00.000000001", from, to));
+        assertInvalidDate(() -> Border.checkValidDateTime("Test", "20180615126000", "yyyyMMddHHmmss", null, null));
+    }
+
+    @Test
+    public void sameAsLocalDateParse() {
+        Random random = new Random(42);
+        // A strict formatter needs uuuu, which is the same as yyyy after year 0
+        DateTimeFormatter strict = DateTimeFormatter.ofPattern("dd.MM.uuuu").withResolverStyle(ResolverStyle.STRICT);
+        for (int i = 0; i < 100_000; i++) {
+            String date = String.format("%04d-%02d-%02d", random.nextInt(10000), random.nextInt(14), random.nextInt(33));
+            assertEquals(parses(date, DateTimeFormatter.ISO_LOCAL_DATE), DatePattern.ISO_DATE.isValidDate(date), date);
+            String other = date.substring(8) + "." + date.substring(5, 7) + "." + date.substring(0, 4);
+            if (!date.startsWith("0000")) {
+                assertEquals(parses(other, strict), DatePattern.of("dd.MM.yyyy").isValidDate(other), other);
+            }
+        }
+    }
+
+    private static boolean parses(String date, DateTimeFormatter formatter) {
+        try {
+            LocalDate.parse(date, formatter);
+            return true;
+        } catch (DateTimeParseException ex) {
+            return false;
+        }
+    }
+
+    private static void assertInvalidDate(Runnable check) {
+        try {
+            check.run();
+            fail();
+        } catch (BorderInvalidDateException ex) {
+            assertTrue(ex.getCode().matches("^DatePatternTest[:][0-9]+$"));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+import nz.h4t.border.exceptions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdentifiersTest {
+    @Test
+    public void uuid() {
+        Border.checkUuid("Test", "123e4567-e89b-12d3-a456-426614174000");
+        Border.checkUuid("Test", "123E4567-E89B-12D3-A456-426614174000");
+        assertFails(BorderInvalidLengthException.class, Border::checkUuid, "123e4567-e89b-12d3-a456-42661417400");
+        assertFails(BorderPatternException.class, Border::checkUuid, "123e4567-e89b-12d3-a456-42661417400g");
+        assertFails(BorderPatternException.class, Border::checkUuid, "123e4567e-89b-12d3-a456-426614174000");
+        assertFails(BorderIsNullException.class, Border::checkUuid, null);
+    }
+
+    @Test
+    public void cardNumber() {
+        Border.checkCardNumber("Test", "4111111111111111");
+        Border.checkCardNumber("Test", "5500005555555559");
+        Border.checkCardNumber("Test", "378282246310005");
+        assertFails(BorderNoMatchException.class, Border::checkCardNumber, "4111111111111112");
+        assertFails(BorderInvalidLengthException.class, Border::checkCardNumber, "41111111111");
+        assertFails(BorderPatternException.class, Border::checkCardNumber, "4111-1111-1111-111");
+    }
+
+    @Test
+    public void iban() {
+        Border.checkIban("Test", "GB82WEST12345698765432");
+        Border.checkIban("Test", "GB82 WEST 1234 5698 7654 32");
+        Border.checkIban("Test", "DE89370400440532013000");
+        Border.checkIban("Test", "NO9386011117947");
+        Border.checkIban("Test", "MT84MALT011000012345MTLCAST001S");
+        assertFails(BorderNoMatchException.class, Border::checkIban, "GB83WEST12345698765432");
+        assertFails(BorderNoMatchException.class, Border::checkIban, "GB82WEST12345698765423");
+        assertFails(BorderInvalidLengthException.class, Border::checkIban, "GB82WEST1234");
+        assertFails(BorderPatternException.class, Border::checkIban, "gb82WEST12345698765432");
+        assertFails(BorderPatternException.class, Border::checkIban, "GBX2WEST12345698765432");
+        assertFails(BorderPatternException.class, Border::checkIban, "1B82WEST12345698765432");
+    }
+
+    @Test
+    public void isbn() {
+        Border.checkIsbn("Test", "978-0-306-40615-7");
+        Border.checkIsbn("Test", "9780306406157");
+        Border.checkIsbn("Test", "0-306-40615-2");
+        Border.checkIsbn("Test", "0-8044-2957-X");
+        assertFails(BorderNoMatchException.class, Border::checkIsbn, "978-0-306-40615-8");
+        assertFails(BorderNoMatchException.class, Border::checkIsbn, "0-306-40615-3");
+        assertFails(BorderInvalidLengthException.class, Border::checkIsbn, "978-0-306-40615");
+        assertFails(BorderInvalidLengthException.class, Border::checkIsbn, "978-0-306-40615-71");
+        assertFails(BorderPatternException.class, Border::checkIsbn, "977-0-306-40615-8");
+        assertFails(BorderPatternException.class, Border::checkIsbn, "0-8044-295X-7");
+        assertFails(BorderPatternException.class, Border::checkIsbn, "978-0-306-40615-X");
+    }
+
+    private static void assertFails(Class<? extends BorderException> type, BiConsumer<String, String> check, String value) {
+        try {
+            check.accept("Test", value);
+            fail(value);
+        } catch (BorderException ex) {
+            assertEquals(type, ex.getClass(), value);
+            assertTrue(ex.getCode().matches("^IdentifiersTest[:][0-9]+$"));
+        }
+    }
+}
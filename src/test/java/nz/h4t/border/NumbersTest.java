@@ -0,0 +1,152 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+import nz.h4t.border.exceptions.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NumbersTest {
+    @Test
+    public void numeric() {
+        Border.checkNumeric("Test", "0123456789");
+        assertFails(BorderPatternException.class, Border::checkNumeric, "");
+        assertFails(BorderPatternException.class, Border::checkNumeric, "-1");
+        assertFails(BorderPatternException.class, Border::checkNumeric, "12a");
+        assertFails(BorderIsNullException.class, Border::checkNumeric, null);
+    }
+
+    @Test
+    public void parsesAsInt() {
+        Border.checkParsesAsInt("Test", "2147483647");
+        Border.checkParsesAsInt("Test", "-2147483648");
+        Border.checkParsesAsInt("Test", "+42", 1, 100);
+        assertFails(BorderInvalidLengthException.class, Border::checkParsesAsInt, "2147483648");
+        assertFails(BorderInvalidLengthException.class, (m, s) -> Border.checkParsesAsInt(m, s, 1, 100), "101");
+        assertFails(BorderInvalidLengthException.class, (m, s) -> Border.checkParsesAsInt(m, s, 1, 100), "0");
+        assertFails(BorderPatternException.class, Border::checkParsesAsInt, "-");
+        assertFails(BorderPatternException.class, Border::checkParsesAsInt, "1.0");
+        assertFails(BorderIsNullException.class, Border::checkParsesAsInt, null);
+    }
+
+    @Test
+    public void parsesAsLong() {
+        Border.checkParsesAsLong("Test", "9223372036854775807");
+        Border.checkParsesAsLong("Test", "-9223372036854775808");
+        Border.checkParsesAsLong("Test", "000000000000000000000000001");
+        assertFails(BorderInvalidLengthException.class, Border::checkParsesAsLong, "9223372036854775808");
+        assertFails(BorderInvalidLengthException.class, Border::checkParsesAsLong, "-9223372036854775809");
+        assertFails(BorderInvalidLengthException.class, Border::checkParsesAsLong, "99999999999999999999999");
+        assertFails(BorderPatternException.class, Border::checkParsesAsLong, "");
+        assertFails(BorderPatternException.class, Border::checkParsesAsLong, " 1");
+    }
+
+    @Test
+    public void asciiDigitsOnly() {
+        // Arabic-Indic 12, which Long.parseLong() and new BigDecimal() both read as 12
+        String arabic = "\u0661\u0662";
+        assertEquals(12, Long.parseLong(arabic));
+        assertFails(BorderPatternException.class, Border::checkNumeric, arabic);
+        assertFails(BorderPatternException.class, Border::checkParsesAsInt, arabic);
+        assertFails(BorderPatternException.class, Border::checkParsesAsLong, "-" + arabic);
+        assertFails(BorderPatternException.class, (m, s) -> Border.checkDecimal(m, s, 5, 2), arabic + ".5");
+    }
+
+    @Test
+    public void sameAsParseLong() {
+        Random random = new Random(42);
+        String[] values = {"0", "-0", "+", "9223372036854775807", "9223372036854775808", "-9223372036854775808",
+                "-9223372036854775809", "18446744073709551616", "--1", "1-"};
+        for (String value : values) {
+            assertEquals(parses(value), Numbers.wholeNumber(value, Long.MIN_VALUE, Long.MAX_VALUE) == Numbers.VALID, value);
+        }
+        for (int i = 0; i < 100_000; i++) {
+            String value = (random.nextBoolean() ? "-" : "") + Long.toString(random.nextLong() >>> random.nextInt(64))
+                    + (random.nextInt(4) == 0 ? Integer.toString(random.nextInt(10)) : "");
+            assertEquals(parses(value), Numbers.wholeNumber(value, Long.MIN_VALUE, Long.MAX_VALUE) == Numbers.VALID, value);
+        }
+    }
+
+    @Test
+    public void decimal() {
+        BiConsumer<String, String> decimal = (m, s) -> Border.checkDecimal(m, s, 5, 2);
+        Border.checkDecimal("Test", "123.45", 5, 2);
+        Border.checkDecimal("Test", "-123.4", 5, 2);
+        Border.checkDecimal("Test", "000123", 5, 2);
+        Border.checkDecimal("Test", ".5", 5, 2);
+        Border.checkDecimal("Test", "5.", 5, 2);
+        assertFails(BorderInvalidLengthException.class, decimal, "1234.5");
+        assertFails(BorderInvalidLengthException.class, decimal, "1.234");
+        assertFails(BorderPatternException.class, decimal, "1.2.3");
+        assertFails(BorderPatternException.class, decimal, "1e5");
+        assertFails(BorderPatternException.class, decimal, "-.");
+        assertFails(BorderPatternException.class, decimal, "");
+        assertFails(BorderIsNullException.class, decimal, null);
+        Border.checkDecimal("Test", "1", 1, 0);
+        Border.checkDecimal("Test", "0.5", 1, 1);
+        for (int[] invalid : new int[][]{{0, 0}, {-1, 0}, {5, -1}, {5, 6}}) {
+            try {
+                Border.checkDecimal("Test", "1", invalid[0], invalid[1]);
+                fail(invalid[0] + ", " + invalid[1]);
+            } catch (IllegalArgumentException ex) {
+                assertTrue(ex.getMessage().startsWith(invalid[0] < 1 ? "precision" : "scale"), ex.getMessage());
+            }
+        }
+
+        // The same limits as BigDecimal's precision and scale
+        for (String value : new String[]{"123.45", "0.01", "99999", "999.999", "0001.10"}) {
+            BigDecimal big = new BigDecimal(value);
+            boolean fits = big.precision() - big.scale() <= 3 && big.scale() <= 2;
+            assertEquals(fits, Numbers.decimal(value, 5, 2) == Numbers.VALID, value);
+        }
+    }
+
+    private static boolean parses(String value) {
+        try {
+            Long.parseLong(value);
+            return true;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    private static void assertFails(Class<? extends BorderException> type, BiConsumer<String, String> check, String value) {
+        try {
+            check.accept("Test", value);
+            fail(value);
+        } catch (BorderException ex) {
+            assertEquals(type, ex.getClass(), value);
+            assertTrue(ex.getCode().matches("^NumbersTest[:][0-9]+$"));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border;
+
+import nz.h4t.border.exceptions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ValidatorTest {
+    private static final String LONG_VALUE = String.join("", Collections.nCopies(200, "abc"));
+
+    @Test
+    public void declaredOrder() {
+        Validator<String> validator = Validator.<String>builder()
+                .rule("notEmpty", str -> Border.checkNotEmpty("Empty", str))
+                .rule("short", str -> Border.checkTooLong("Too long", str, 3))
+                .build();
+        validator.validate("abc");
+        try {
+            validator.validate("");
+            fail();
+        } catch (BorderIsEmptyException ex) {
+            assertTrue(ex.getCode().matches("^ValidatorTest[:][0-9]+$"));
+        }
+        assertEquals(Arrays.asList("notEmpty", "short"), validator.getOrder());
+    }
+
+    @Test
+    public void adaptiveOrder() {
+        Validator<String> validator = adaptive(true);
+        for (int i = 0; i < 2000; i++) {
+            try {
+                validator.validate(i % 2 == 0 ? "abc" : LONG_VALUE);
+            } catch (BorderException ex) {
+                // expected for the long values
+            }
+        }
+        assertEquals(Arrays.asList("short", "pattern"), validator.getOrder());
+
+        // Fails both rules, but the rule added first is the one reported
+        try {
+            validator.validate(LONG_VALUE + "!");
+            fail();
+        } catch (BorderPatternException ex) {
+            assertEquals("Not letters", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void orderDependent() {
+        Validator<String> validator = adaptive(false);
+        for (int i = 0; i < 2000; i++) {
+            try {
+                validator.validate(i % 2 == 0 ? "abc" : LONG_VALUE);
+            } catch (BorderException ex) {
+                // expected for the long values
+            }
+        }
+        assertEquals(Arrays.asList("short", "pattern"), validator.getOrder());
+        try {
+            validator.validate(LONG_VALUE + "!");
+            fail();
+        } catch (BorderTooLongException ex) {
+            assertEquals("Too long", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void compiled() {
+        Validator<String> validator = Validator.<String>builder()
+                .rule("notEmpty", str -> Border.checkNotEmpty("Empty", str))
+                .rule("short", str -> Border.checkTooLong("Too long", str, 3))
+                .compileThreshold(2)
+                .build();
+        validator.validate("abc");
+        assertFalse(validator.isCompiled());
+        validator.validate("abc");
+        assertTrue(validator.isCompiled());
+        validator.validate("abc");
+        try {
+            validator.validate("abcd");
+            fail();
+        } catch (BorderTooLongException ex) {
+            assertTrue(ex.getCode().matches("^ValidatorTest[:][0-9]+$"));
+        }
+        try {
+            validator.validate(null);
+            fail();
+        } catch (BorderIsEmptyException ex) {
+            assertTrue(ex.getCode().matches("^ValidatorTest[:][0-9]+$"));
+        }
+    }
+
+    @Test
+    public void compiledAfterSampledCalls() {
+        Validator<String> validator = Validator.<String>builder()
+                .rule("notEmpty", str -> Border.checkNotEmpty("Empty", str))
+                .compileThreshold(10_000)
+                .build();
+        for (int i = 0; i < 1_000; i++) {
+            validator.validate("abc");
+        }
+        assertFalse(validator.isCompiled());
+        for (int i = 0; i < 100_000 && !validator.isCompiled(); i++) {
+            validator.validate("abc");
+        }
+        assertTrue(validator.isCompiled());
+    }
+
+    @Test
+    public void compiledManyRules() {
+        Validator.Builder<Integer> builder = Validator.<Integer>builder().compileThreshold(1);
+        for (int i = 0; i < 300; i++) {
+            int limit = 1000 - i;
+            builder.rule("max" + i, value -> Border.checkIntThat("Too big for " + limit, value, v -> v <= limit));
+        }
+        Validator<Integer> validator = builder.build();
+        validator.validate(5);
+        assertTrue(validator.isCompiled());
+        validator.validate(701);
+        try {
+            validator.validate(950);
+            fail();
+        } catch (BorderCustomException ex) {
+            assertEquals("Too big for 949", ex.getMessage());
+        }
+    }
+
+    private static Validator<String> adaptive(boolean deterministic) {
+        return Validator.<String>builder()
+                .rule("pattern", str -> Border.checkPattern("Not letters", str, "[a-z]+"))
+                .rule("short", str -> Border.checkTooLong("Too long", str, 10))
+                .adaptive(true)
+                .deterministic(deterministic)
+                .sampleInterval(1)
+                .reorderInterval(16)
+                .build();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.bulk;
+
+import nz.h4t.border.exceptions.BorderInvalidDateException;
+import nz.h4t.border.exceptions.BorderInvalidEmailException;
+import nz.h4t.border.exceptions.BorderIsNullException;
+import nz.h4t.border.exceptions.BorderPatternException;
+import nz.h4t.border.exceptions.BorderTooLongException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CsvValidatorTest {
+    private static final CsvLayout LAYOUT = CsvLayout.builder()
+            .header(true)
+            .column("name", 0, FieldChecks.notNullOrEmpty(), FieldChecks.tooLong(10))
+            .column("email", 1, FieldChecks.validEmail())
+            .column("joined", 3, FieldChecks.isBetween(LocalDate.of(2000, 1, 1), LocalDate.of(2030, 12, 31)))
+            .build();
+
+    @Test
+    public void validFile() throws IOException {
+        Path file = write("name,email,notes,joined\n"
+                + "Joe,joe@abc.com,,2018-06-15\n"
+                + "\"Bloggs, J\",joe@abc.co.nz,\"said \"\"hi\"\"\",2020-01-01\r\n");
+        try {
+            ValidationReport report = new CsvValidator(LAYOUT).validate(file);
+            assertTrue(report.isValid(), report.getFailures().toString());
+            assertEquals(2, report.getRecordCount());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void invalidColumns() throws IOException {
+        Path file = write("name,email,notes,joined\n"
+                + "\"Joe \"\"The\"\" Bloggs\",joe,,1999-12-31\n"
+                + "Jane,jane@abc.com\n"
+                + "Jim,jim@abc.com,,2018-02-30\n");
+        try {
+            List<ValidationFailure> failures = new CsvValidator(LAYOUT).validate(file).getFailures();
+            assertEquals(5, failures.size());
+            assertEquals(2, failures.get(0).getLine());
+            assertEquals(1, failures.get(0).getColumn());
+            assertEquals(BorderTooLongException.class, failures.get(0).getFailure());
+            assertEquals(2, failures.get(1).getColumn());
+            assertEquals(BorderInvalidEmailException.class, failures.get(1).getFailure());
+            assertEquals(BorderInvalidDateException.class, failures.get(2).getFailure());
+            assertEquals(3, failures.get(3).getLine());
+            assertEquals("joined", failures.get(3).getField());
+            assertEquals(BorderIsNullException.class, failures.get(3).getFailure());
+            assertEquals(4, failures.get(4).getLine());
+            assertEquals(BorderInvalidDateException.class, failures.get(4).getFailure());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void malformedQuotes() throws IOException {
+        Path file = write("name,email,notes,joined\n"
+                + "\"Joe,joe@abc.com,,2018-06-15\n"
+                + "\"Jo\"xyz,joe@abc.com,,2018-06-15\n"
+                + "Jim,jim@abc.com,\"a\"b,2018-06-15\n"
+                + "\"Jane\",jane@abc.com,\"\",2018-06-15\n");
+        try {
+            List<ValidationFailure> failures = new CsvValidator(LAYOUT).validate(file).getFailures();
+            assertEquals(5, failures.size(), failures.toString());
+            // Unterminated, so the rest of the line is the name and the other columns are missing
+            assertEquals(2, failures.get(0).getLine());
+            assertEquals("name", failures.get(0).getField());
+            assertEquals(BorderPatternException.class, failures.get(0).getFailure());
+            assertEquals(BorderIsNullException.class, failures.get(1).getFailure());
+            assertEquals(BorderIsNullException.class, failures.get(2).getFailure());
+            assertEquals(3, failures.get(3).getLine());
+            assertEquals(1, failures.get(3).getColumn());
+            assertEquals(BorderPatternException.class, failures.get(3).getFailure());
+            // A column without checks is still reported
+            assertEquals(4, failures.get(4).getLine());
+            assertEquals(3, failures.get(4).getColumn());
+            assertEquals(BorderPatternException.class, failures.get(4).getFailure());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void parallelChunksKeepFileOrder() throws IOException {
+        StringBuilder sb = new StringBuilder("name,email,notes,joined\n");
+        for (int i = 1; i <= 3000; i++) {
+            sb.append("N").append(i).append(',').append(i % 7 == 0 ? "bad" : "n@abc.com").append(",,2018-01-01\n");
+        }
+        Path file = write(sb.toString());
+        try {
+            CsvValidator validator = new CsvValidator(LAYOUT);
+            validator.setChunkSize(512);
+            validator.setParallelism(3);
+            ValidationReport report = validator.validate(file);
+            assertEquals(3000, report.getRecordCount());
+            assertEquals(3000 / 7, report.getFailureCount());
+            long expected = 7;
+            for (ValidationFailure failure : report.getFailures()) {
+                assertEquals(expected + 1, failure.getLine());
+                expected += 7;
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static Path write(String content) throws IOException {
+        Path file = Files.createTempFile("border", ".csv");
+        Files.write(file, content.getBytes(StandardCharsets.ISO_8859_1));
+        return file;
+    }
+}
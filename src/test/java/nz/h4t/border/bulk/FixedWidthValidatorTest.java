@@ -0,0 +1,114 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.bulk;
+
+import nz.h4t.border.exceptions.BorderInvalidEmailException;
+import nz.h4t.border.exceptions.BorderIsEmptyException;
+import nz.h4t.border.exceptions.BorderNoMatchException;
+import nz.h4t.border.exceptions.BorderPatternException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FixedWidthValidatorTest {
+    private static final FixedWidthLayout LAYOUT = FixedWidthLayout.builder()
+            .field("id", 0, 6, FieldChecks.pattern("[0-9]{6}"))
+            .field("type", 6, 2, FieldChecks.notEmpty(), FieldChecks.possibleValues("CR", "DR"))
+            .field("email", 8, 20, FieldChecks.validEmail())
+            .build();
+
+    @Test
+    public void validFile() throws IOException {
+        Path file = write("000001CRjoe@abc.com\n000002DRjane@abc.co.nz        \r\n");
+        try {
+            ValidationReport report = new FixedWidthValidator(LAYOUT).validate(file);
+            assertTrue(report.isValid());
+            assertEquals(2, report.getRecordCount());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void invalidFields() throws IOException {
+        Path file = write("000001CRjoe@abc.com\n00000X  joe@abc.com\n000003XXnot-an-email\n");
+        try {
+            ValidationReport report = new FixedWidthValidator(LAYOUT).validate(file);
+            assertEquals(3, report.getRecordCount());
+            assertEquals(4, report.getFailureCount());
+            ValidationFailure first = report.getFailures().get(0);
+            assertEquals(2, first.getLine());
+            assertEquals(1, first.getColumn());
+            assertEquals("id", first.getField());
+            assertEquals(20, first.getOffset());
+            assertEquals(BorderPatternException.class, first.getFailure());
+            assertEquals(BorderIsEmptyException.class, report.getFailures().get(1).getFailure());
+            assertEquals(BorderNoMatchException.class, report.getFailures().get(2).getFailure());
+            assertEquals(BorderInvalidEmailException.class, report.getFailures().get(3).getFailure());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void parallelChunksKeepFileOrder() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 1; i <= 5000; i++) {
+            sb.append(String.format("%06d", i)).append(i % 100 == 0 ? "ZZ" : "CR").append("joe@abc.com\n");
+        }
+        Path file = write(sb.toString());
+        try {
+            FixedWidthValidator validator = new FixedWidthValidator(LAYOUT);
+            validator.setChunkSize(1000);
+            validator.setParallelism(4);
+            validator.setMaxFailures(10);
+            ValidationReport report = validator.validate(file);
+            assertEquals(5000, report.getRecordCount());
+            assertEquals(50, report.getFailureCount());
+            assertTrue(report.isTruncated());
+            assertEquals(10, report.getFailures().size());
+            for (int i = 0; i < 10; i++) {
+                assertEquals((i + 1) * 100L, report.getFailures().get(i).getLine());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static Path write(String content) throws IOException {
+        Path file = Files.createTempFile("border", ".txt");
+        Files.write(file, content.getBytes(StandardCharsets.ISO_8859_1));
+        return file;
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.bulk;
+
+import nz.h4t.border.exceptions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonValidatorTest {
+    private static final JsonLayout LAYOUT = JsonLayout.builder()
+            .field("$.customer.email", FieldChecks.validEmail())
+            .field("$.customer.name", FieldChecks.notNullOrEmpty(), FieldChecks.tooLong(10))
+            .field("$.items[*].sku", FieldChecks.notNull(), FieldChecks.tooLong(6))
+            .field("$.items[*].quantity", FieldChecks.pattern("[1-9][0-9]*"))
+            .build();
+
+    private static final String VALID = "{\"id\": 42, \"customer\": {\"name\": \"J\\u00f6 \\\"B\\\"\", \"email\": \"jo@abc.com\","
+            + " \"tags\": [\"a\", {\"b\": [1, 2.5e-3, -0, true, false, null]}]},\n"
+            + " \"items\": [{\"sku\": \"AB-1\", \"quantity\": 3}, {\"quantity\": 12, \"sku\": \"Zürich\"}], \"note\": \"\\u263a\"}";
+
+    @Test
+    public void validDocument() throws IOException {
+        ValidationReport report = new JsonValidator(LAYOUT).validate(stream(VALID));
+        assertTrue(report.isValid(), report.getFailures().toString());
+        assertEquals(1, report.getRecordCount());
+        assertEquals(VALID.getBytes(StandardCharsets.UTF_8).length, report.getByteCount());
+    }
+
+    @Test
+    public void invalidValues() throws IOException {
+        String json = "{\"customer\": {\"email\": \"jo\"},\n"
+                + "  \"items\": [{\"sku\": \"AB-1\", \"quantity\": 3}, {\"sku\": \"TOO-LONG\", \"quantity\": 0},\n"
+                + "    {\"quantity\": \"7\"}, {\"sku\": {}, \"quantity\": 1}]}";
+        List<ValidationFailure> failures = new JsonValidator(LAYOUT).validate(stream(json)).getFailures();
+        assertEquals(6, failures.size(), failures.toString());
+
+        assertEquals("$.customer.email", failures.get(0).getField());
+        assertEquals(BorderInvalidEmailException.class, failures.get(0).getFailure());
+        assertEquals(json.indexOf("\"jo\""), failures.get(0).getOffset());
+        assertEquals(1, failures.get(0).getLine());
+
+        // Missing from the customer object
+        assertEquals("$.customer.name", failures.get(1).getField());
+        assertEquals(BorderIsNullException.class, failures.get(1).getFailure());
+
+        assertEquals("$.items[1].sku", failures.get(2).getField());
+        assertEquals(BorderTooLongException.class, failures.get(2).getFailure());
+        assertEquals(2, failures.get(2).getLine());
+        assertEquals(json.indexOf("\"TOO-LONG\"") - json.indexOf("  \"items\"") + 1, failures.get(2).getColumn());
+        assertEquals("$.items[1].quantity", failures.get(3).getField());
+        assertEquals(BorderPatternException.class, failures.get(3).getFailure());
+        assertEquals("$.items[2].sku", failures.get(4).getField());
+        assertEquals(BorderIsNullException.class, failures.get(4).getFailure());
+        assertEquals("$.items[3].sku", failures.get(5).getField());
+        assertEquals(BorderPatternException.class, failures.get(5).getFailure());
+    }
+
+    @Test
+    public void severalDocuments() throws IOException {
+        String json = "{\"customer\": {\"name\": \"A\", \"email\": \"a@abc.com\"}}\n"
+                + "{\"customer\": null}\n"
+                + "{\"customer\": {\"name\": \"\", \"email\": \"c@abc.com\"}}\n";
+        ValidationReport report = new JsonValidator(LAYOUT).validate(stream(json));
+        assertEquals(3, report.getRecordCount());
+        assertEquals(3, report.getFailureCount());
+        assertEquals(2, report.getFailures().get(0).getLine());
+        assertEquals(BorderIsEmptyException.class, report.getFailures().get(2).getFailure());
+        assertEquals(3, report.getFailures().get(2).getLine());
+    }
+
+    @Test
+    public void smallReads() throws IOException {
+        StringBuilder sb = new StringBuilder("{\"items\": [");
+        for (int i = 0; i < 5000; i++) {
+            sb.append(i == 0 ? "" : ", ").append("{\"sku\": \"S").append(i % 100_000 / 10)
+                    .append("\", \"quantity\": ").append(i % 9).append(", \"x\": [1e10, \"\\\\\"]}");
+        }
+        String json = sb.append("]}").toString();
+        InputStream trickle = new FilterInputStream(stream(json)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(len, 7));
+            }
+        };
+        JsonValidator validator = new JsonValidator(LAYOUT);
+        validator.setMaxFailures(10);
+        ValidationReport report = validator.validate(trickle);
+        // Each zero quantity fails, and so does each missing customer field
+        assertEquals(5000 / 9 + 1 + 2, report.getFailureCount());
+        assertTrue(report.isTruncated());
+        assertEquals("$.items[0].quantity", report.getFailures().get(0).getField());
+        assertEquals("$.items[9].quantity", report.getFailures().get(1).getField());
+    }
+
+    @Test
+    public void invalidJson() {
+        for (String json : new String[]{"{\"a\": }", "{\"a\" 1}", "[1, 2", "[01]", "{\"a\": tru}", "\"abc", "[-]", "[1.]"}) {
+            try {
+                new JsonValidator(LAYOUT).validate(stream(json));
+                fail(json);
+            } catch (IOException ex) {
+                assertTrue(ex.getMessage().contains(" at offset "), ex.getMessage());
+            }
+        }
+        JsonValidator validator = new JsonValidator(LAYOUT);
+        validator.setMaxDepth(3);
+        try {
+            validator.validate(stream("[[[[1]]]]"));
+            fail();
+        } catch (IOException ex) {
+            assertEquals("Nesting deeper than 3 at offset 3", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void separatedDocuments() throws IOException {
+        for (String json : new String[]{"01", "truefalse", "1-2", "null1", "-0.5e3true"}) {
+            try {
+                new JsonValidator(LAYOUT).validate(stream(json));
+                fail(json);
+            } catch (IOException ex) {
+                assertTrue(ex.getMessage().startsWith("Expected whitespace between documents at offset "),
+                        ex.getMessage());
+            }
+        }
+        assertEquals(3, new JsonValidator(LAYOUT).validate(stream("1\ntrue\r\n\"a\"")).getRecordCount());
+        assertEquals(2, new JsonValidator(LAYOUT).validate(stream("{}[]")).getRecordCount());
+    }
+
+    @Test
+    public void invalidUtf8() throws IOException {
+        int[][] invalid = {{0xf9, 0x80, 0x80}, {0xf7, 0xbf, 0xbf, 0xbf}, {0xc0, 0x80}, {0xc1, 0xbf},
+                {0xe0, 0x80, 0x80}, {0xed, 0xa0, 0x80}, {0xf4, 0x90, 0x80, 0x80}, {0x80}, {0xc3, 0x28}};
+        String[] documents = {
+                "{\"customer\": {\"email\": \"a%s@abc.com\"}}",
+                "{\"note\": \"a%s\"}",
+                "{\"customer\": {\"n%s\": 1}}",
+                "{\"other\": {\"n%s\": 1}}"};
+        for (String document : documents) {
+            for (int[] sequence : invalid) {
+                byte[] json = utf8(document, sequence);
+                try {
+                    new JsonValidator(LAYOUT).validate(new ByteArrayInputStream(json));
+                    fail(document + Arrays.toString(sequence));
+                } catch (IOException ex) {
+                    assertEquals("Invalid UTF-8 at offset " + document.indexOf("%s"), ex.getMessage());
+                }
+            }
+            // U+1F600 and U+00E9
+            byte[] json = utf8(document, new int[]{0xf0, 0x9f, 0x98, 0x80, 0xc3, 0xa9});
+            assertEquals(1, new JsonValidator(LAYOUT).validate(new ByteArrayInputStream(json)).getRecordCount());
+        }
+    }
+
+    @Test
+    public void arrayInsteadOfObject() throws IOException {
+        JsonLayout layout = JsonLayout.builder().field("$.a", FieldChecks.notNull()).build();
+        List<ValidationFailure> failures = new JsonValidator(layout).validate(stream("[{\"a\":1}]")).getFailures();
+        assertEquals(1, failures.size(), failures.toString());
+        assertEquals("$.a", failures.get(0).getField());
+        assertEquals(BorderIsNullException.class, failures.get(0).getFailure());
+        assertEquals(0, failures.get(0).getOffset());
+
+        layout = JsonLayout.builder().field("$.b.c", FieldChecks.notNull()).build();
+        String json = "{\"a\":1,\"b\":[]}";
+        failures = new JsonValidator(layout).validate(stream(json)).getFailures();
+        assertEquals(1, failures.size(), failures.toString());
+        assertEquals("$.b.c", failures.get(0).getField());
+        assertEquals(BorderIsNullException.class, failures.get(0).getFailure());
+        assertEquals(json.indexOf('['), failures.get(0).getOffset());
+
+        assertTrue(new JsonValidator(layout).validate(stream("{\"b\":{\"c\":1}}")).isValid());
+    }
+
+    @Test
+    public void invalidPaths() {
+        for (String path : new String[]{"customer", "$.", "$.items[0]", "$..a"}) {
+            try {
+                JsonLayout.builder().field(path, FieldChecks.notNull());
+                fail(path);
+            } catch (IllegalArgumentException ex) {
+                assertTrue(ex.getMessage().contains(path), ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The document in UTF-8 with the bytes in place of its %s
+     */
+    private static byte[] utf8(String document, int[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int at = document.indexOf("%s");
+        out.writeBytes(document.substring(0, at).getBytes(StandardCharsets.UTF_8));
+        for (int b : bytes) {
+            out.write(b);
+        }
+        out.writeBytes(document.substring(at + 2).getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.diagnostics;
+
+import nz.h4t.border.Border;
+import nz.h4t.border.exceptions.BorderException;
+import nz.h4t.border.exceptions.BorderIsNullException;
+import nz.h4t.border.exceptions.BorderTooLongException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FailureRecorderTest {
+    @AfterEach
+    public void tearDown() {
+        Border.setFailureRecorder(null);
+    }
+
+    @Test
+    public void recordsFailures() {
+        FailureRecorder recorder = new FailureRecorder(8);
+        Border.setFailureRecorder(recorder);
+        Border.checkNotNull("Test", "Not Null");
+        expectFailure(() -> Border.checkNotNull("Null", null));
+        expectFailure(() -> Border.checkTooLong("Long", "ABC", 2));
+
+        List<RecordedFailure> failures = recorder.snapshot();
+        assertEquals(2, failures.size());
+        assertEquals(BorderIsNullException.class, failures.get(0).getKind());
+        assertEquals("Null", failures.get(0).getMessage());
+        assertTrue(failures.get(0).getCode().matches("^FailureRecorderTest[:][0-9]+$"));
+        assertEquals(BorderTooLongException.class, failures.get(1).getKind());
+        assertEquals(2, recorder.getRecordedCount());
+    }
+
+    @Test
+    public void keepsMostRecent() {
+        FailureRecorder recorder = new FailureRecorder(3);
+        assertEquals(4, recorder.getCapacity());
+        Border.setFailureRecorder(recorder);
+        for (int i = 0; i < 10; i++) {
+            String mesg = "Failure " + i;
+            expectFailure(() -> Border.fail(mesg));
+        }
+        List<RecordedFailure> failures = recorder.snapshot();
+        assertEquals(4, failures.size());
+        assertEquals("Failure 6", failures.get(0).getMessage());
+        assertEquals("Failure 9", failures.get(3).getMessage());
+
+        recorder.clear();
+        assertEquals(0, recorder.snapshot().size());
+    }
+
+    @Test
+    public void concurrentRecording() throws InterruptedException {
+        FailureRecorder recorder = new FailureRecorder(64);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    recorder.record(new BorderException("X:1", "Test"));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40000, recorder.getRecordedCount() + recorder.getDroppedCount());
+        List<RecordedFailure> failures = recorder.snapshot();
+        assertEquals(64, failures.size());
+        for (RecordedFailure failure : failures) {
+            assertEquals("X:1", failure.getCode());
+        }
+    }
+
+    @Test
+    public void jmxOperation() throws Exception {
+        FailureRecorder recorder = new FailureRecorder(4);
+        Border.setFailureRecorder(recorder);
+        ObjectName name = recorder.register();
+        try {
+            expectFailure(() -> Border.checkIsTrue("Not True", false));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            String[] failures = (String[]) server.invoke(name, "recentFailures", null, null);
+            assertEquals(1, failures.length);
+            assertTrue(failures[0].contains("BorderIsFalseException"));
+            assertTrue(failures[0].endsWith("Not True"));
+        } finally {
+            recorder.unregister();
+        }
+    }
+
+    private static void expectFailure(Runnable check) {
+        try {
+            check.run();
+        } catch (BorderException ex) {
+            return;
+        }
+        throw new AssertionError("Expected a BorderException");
+    }
+}
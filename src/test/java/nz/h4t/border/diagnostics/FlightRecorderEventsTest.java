@@ -0,0 +1,84 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.diagnostics;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import nz.h4t.border.Border;
+import nz.h4t.border.exceptions.BorderException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlightRecorderEventsTest {
+    @Test
+    public void events() throws IOException {
+        Path file = Files.createTempFile("border", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ValidationFailureEvent.class);
+            recording.enable(SlowCheckEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            Border.checkPattern("Test", "ABC", "[A-Z]+");
+            try {
+                Border.checkNotNull("Test", null);
+                fail();
+            } catch (BorderException ex) {
+                assertTrue(ex.getCode().matches("^FlightRecorderEventsTest[:][0-9]+$"));
+            }
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            RecordedEvent failure = find(events, "nz.h4t.border.ValidationFailure");
+            assertEquals("BorderIsNullException", failure.getString("check"));
+            assertTrue(failure.getString("code").matches("^FlightRecorderEventsTest[:][0-9]+$"));
+            assertEquals("Test", failure.getString("message"));
+            RecordedEvent slow = find(events, "nz.h4t.border.SlowCheck");
+            assertEquals("checkPattern", slow.getString("check"));
+            assertEquals("[A-Z]+", slow.getString("pattern"));
+            assertEquals(3, slow.getInt("inputLength"));
+            assertTrue(slow.getBoolean("valid"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No " + name + " event"));
+    }
+}
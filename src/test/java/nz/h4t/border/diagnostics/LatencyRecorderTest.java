@@ -0,0 +1,134 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.diagnostics;
+
+import nz.h4t.border.BorderPolicy;
+import nz.h4t.border.exceptions.BorderException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyRecorderTest {
+    @Test
+    public void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100000; i++) {
+            histogram.record(i * 100);
+        }
+        LatencySnapshot snapshot = histogram.snapshot();
+        assertEquals(100000, snapshot.getCount());
+        assertEquals(10000000, snapshot.getMax());
+        assertEquals(5000050, snapshot.getMean(), 0.5);
+        assertWithin(5000000, snapshot.getValueAtPercentile(50));
+        assertWithin(9900000, snapshot.getValueAtPercentile(99));
+        assertWithin(9990000, snapshot.getValueAtPercentile(99.9));
+        assertEquals(10000000, snapshot.getValueAtPercentile(100));
+
+        LatencyHistogram other = new LatencyHistogram();
+        other.record(20000000);
+        LatencySnapshot merged = snapshot.merge(other.snapshot());
+        assertEquals(100001, merged.getCount());
+        assertEquals(20000000, merged.getMax());
+        assertWithin(5000000, merged.getValueAtPercentile(50));
+
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.snapshot().getMax());
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().getCount());
+        assertEquals(0, histogram.snapshot().getValueAtPercentile(99));
+    }
+
+    @Test
+    public void concurrentRecording() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            long value = (t + 1) * 1000;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100000; i++) {
+                    histogram.record(value);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        LatencySnapshot snapshot = histogram.snapshot();
+        assertEquals(800000, snapshot.getCount());
+        assertEquals(8000, snapshot.getMax());
+        assertEquals(4500, snapshot.getMean(), 0.001);
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().getCount());
+        assertEquals(0, histogram.snapshot().getMean());
+    }
+
+    @Test
+    public void buckets() {
+        for (long value = 0; value < 1L << 36; value = value * 3 / 2 + 1) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue(LatencyHistogram.highestValue(bucket) >= value);
+            assertTrue(bucket == 0 || LatencyHistogram.highestValue(bucket - 1) < value);
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void recordChecks() {
+        LatencyRecorder recorder = new LatencyRecorder(true);
+        BorderPolicy policy = BorderPolicy.builder().latencyRecorder(recorder).build();
+        for (int i = 0; i < 10; i++) {
+            policy.checkPattern("Test", "ABC", "[A-Z]+");
+        }
+        try {
+            policy.checkValidEmail("Test", "joe");
+            fail();
+        } catch (BorderException ex) {
+            assertTrue(ex.getCode().matches("^LatencyRecorderTest[:][0-9]+$"));
+        }
+        policy.checkNotNull("Test", "ABC");
+
+        Map<String, LatencySnapshot> checks = recorder.checkSnapshots();
+        assertEquals(2, checks.size());
+        assertEquals(10, checks.get("checkPattern").getCount());
+        assertEquals(1, checks.get("checkValidEmail").getCount());
+        Map<String, LatencySnapshot> references = recorder.referenceSnapshots();
+        assertEquals(2, references.size());
+        assertTrue(references.keySet().stream().allMatch(code -> code.matches("^LatencyRecorderTest[:][0-9]+$")));
+        assertTrue(recorder.export().contains("\ncheck checkPattern 10 "));
+
+        recorder.reset();
+        assertEquals(0, recorder.checkSnapshots().get("checkPattern").getCount());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected * 0.035, actual + " not within 3.5% of " + expected);
+    }
+}
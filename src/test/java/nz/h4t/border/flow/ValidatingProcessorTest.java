@@ -0,0 +1,211 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.flow;
+
+import nz.h4t.border.Border;
+import nz.h4t.border.exceptions.BorderException;
+import nz.h4t.border.exceptions.BorderTooLongException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ValidatingProcessorTest {
+    @Test
+    public void validAndRejected() {
+        List<BorderException> rejected = new ArrayList<>();
+        ValidatingProcessor<String> processor = new ValidatingProcessor<>(
+                str -> Border.checkTooLong("Too long", str, 3), (str, ex) -> rejected.add(ex), 2);
+        ListPublisher publisher = new ListPublisher(Arrays.asList("A", "ABCD", "B", "BCDE", "CDEF", "C"));
+        publisher.subscribe(processor);
+        Sink sink = new Sink();
+        processor.subscribe(sink);
+        sink.subscription.request(Long.MAX_VALUE);
+
+        assertEquals(Arrays.asList("A", "B", "C"), sink.items);
+        assertEquals(3, rejected.size());
+        assertTrue(rejected.get(0) instanceof BorderTooLongException);
+        assertTrue(rejected.get(0).getCode().matches("^ValidatingProcessorTest[:][0-9]+$"));
+        assertTrue(sink.complete);
+    }
+
+    @Test
+    public void backpressure() {
+        List<String> rejected = new ArrayList<>();
+        ValidatingProcessor<String> processor = new ValidatingProcessor<>(
+                str -> Border.checkTooLong("Too long", str, 3), (str, ex) -> rejected.add(str), 16);
+        ListPublisher publisher = new ListPublisher(Arrays.asList("A", "ABCD", "BCDE", "B", "C", "D", "E"));
+        publisher.subscribe(processor);
+        Sink sink = new Sink();
+        processor.subscribe(sink);
+        assertEquals(0, publisher.requested);
+
+        sink.subscription.request(2);
+        assertEquals(Arrays.asList("A", "B"), sink.items);
+        assertEquals(Arrays.asList("ABCD", "BCDE"), rejected);
+        assertEquals(4, publisher.requested);
+        assertFalse(sink.complete);
+
+        sink.subscription.request(1);
+        assertEquals(Arrays.asList("A", "B", "C"), sink.items);
+        assertEquals(5, publisher.requested);
+    }
+
+    @Test
+    public void validatorError() {
+        ValidatingProcessor<String> processor = new ValidatingProcessor<>(
+                str -> str.charAt(1), (str, ex) -> fail());
+        ListPublisher publisher = new ListPublisher(Arrays.asList("AB", "C", "DE"));
+        publisher.subscribe(processor);
+        Sink sink = new Sink();
+        processor.subscribe(sink);
+        sink.subscription.request(10);
+        assertEquals(Arrays.asList("AB"), sink.items);
+        assertTrue(sink.error instanceof StringIndexOutOfBoundsException);
+        assertTrue(publisher.cancelled);
+    }
+
+    @Test
+    public void invalidRequest() {
+        ValidatingProcessor<String> processor = new ValidatingProcessor<>(str -> {
+        }, (str, ex) -> fail());
+        ListPublisher publisher = new ListPublisher(Arrays.asList("A", "B"));
+        publisher.subscribe(processor);
+        Sink sink = new Sink();
+        processor.subscribe(sink);
+        sink.subscription.request(0);
+        assertTrue(sink.error instanceof IllegalArgumentException);
+        assertTrue(publisher.cancelled);
+        assertEquals(1, sink.terminals);
+
+        // A bad request made from onNext is signalled after onNext returns
+        processor = new ValidatingProcessor<>(str -> {
+        }, (str, ex) -> fail());
+        publisher = new ListPublisher(Arrays.asList("A", "B", "C"));
+        publisher.subscribe(processor);
+        Sink reentrant = new Sink();
+        reentrant.whileNext = () -> reentrant.subscription.request(0);
+        processor.subscribe(reentrant);
+        reentrant.subscription.request(3);
+        assertEquals(Arrays.asList("A"), reentrant.items);
+        assertTrue(reentrant.error instanceof IllegalArgumentException);
+        assertFalse(reentrant.complete);
+        assertFalse(reentrant.nested);
+        assertEquals(1, reentrant.terminals);
+    }
+
+    /**
+     * Publishes a list synchronously, on the thread that requests
+     */
+    private static final class ListPublisher implements Flow.Publisher<String> {
+        private final List<String> items;
+        private long requested;
+        private boolean cancelled;
+
+        ListPublisher(List<String> items) {
+            this.items = items;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super String> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                private int next;
+                private long demand;
+                private boolean emitting;
+
+                @Override
+                public void request(long n) {
+                    requested += n;
+                    demand += n;
+                    if (emitting) {
+                        return;
+                    }
+                    emitting = true;
+                    while (demand > 0 && next < items.size() && !cancelled) {
+                        demand--;
+                        subscriber.onNext(items.get(next++));
+                    }
+                    if (next == items.size() && !cancelled) {
+                        cancelled = true;
+                        subscriber.onComplete();
+                    }
+                    emitting = false;
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+    }
+
+    private static final class Sink implements Flow.Subscriber<String> {
+        final List<String> items = new ArrayList<>();
+        Flow.Subscription subscription;
+        Throwable error;
+        boolean complete;
+        int terminals;
+        Runnable whileNext;
+        boolean inNext;
+        boolean nested;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(String item) {
+            items.add(item);
+            if (whileNext != null) {
+                inNext = true;
+                whileNext.run();
+                inNext = false;
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            terminals++;
+            nested |= inNext;
+        }
+
+        @Override
+        public void onComplete() {
+            complete = true;
+            terminals++;
+            nested |= inNext;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.index;
+
+import nz.h4t.border.Border;
+import nz.h4t.border.exceptions.BorderException;
+import nz.h4t.border.exceptions.BorderNoMatchException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StringIndexTest {
+    private static final List<String> VALUES = Arrays.asList("ABC", "DEF", "ABC", "", "Ñandú",
+            "東京", "😀 smile", "bad \ud800 surrogate", "zz", "\u007f");
+
+    @Test
+    public void contains() {
+        for (double rate : new double[]{0.01, 0}) {
+            StringIndex index = StringIndex.build(VALUES, rate);
+            assertEquals(9, index.size());
+            assertEquals(rate > 0, index.hasBloomFilter());
+            for (String value : VALUES) {
+                assertTrue(index.contains(value), value);
+            }
+            for (String value : Arrays.asList("AB", "ABCD", "abc", "Nandu", "東", "😁 smile",
+                    "z", "\u0080")) {
+                assertFalse(index.contains(value), value);
+            }
+        }
+        assertFalse(StringIndex.build(Collections.emptyList()).contains("ABC"));
+    }
+
+    @Test
+    public void writeAndOpen() throws IOException {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            values.add("CODE-" + i);
+        }
+        Path file = Files.createTempFile("border", ".idx");
+        try {
+            StringIndex.build(values).writeTo(file);
+            StringIndex index = StringIndex.open(file);
+            assertEquals(10000, index.size());
+            assertEquals(Files.size(file), index.byteSize());
+            for (int i = 0; i < 10000; i++) {
+                assertTrue(index.contains("CODE-" + i));
+                assertFalse(index.contains("CODE-" + (i + 10000)));
+            }
+
+            Files.write(file, new byte[]{1, 2, 3});
+            try {
+                StringIndex.open(file);
+                fail();
+            } catch (IOException ex) {
+                assertTrue(ex.getMessage().startsWith("Not a string index"));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void checkInCollection() {
+        StringIndex index = StringIndex.build(Arrays.asList("ABC", "DEF"));
+        Border.checkInCollection("Test", "ABC", index);
+        try {
+            Border.checkInCollection("Test", "XYZ", index);
+            fail();
+        } catch (BorderNoMatchException ex) {
+            assertTrue(ex.getCode().matches("^StringIndexTest[:][0-9]+$"));
+        }
+        try {
+            Border.checkInCollection("Test", (String) null, index);
+            fail();
+        } catch (BorderException ex) {
+            assertTrue(ex.getCode().matches("^StringIndexTest[:][0-9]+$"));
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2018. Anameg Consulting Limited
+ *
+ * Permission is hereby granted, free of charge,
+ * to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom
+ * the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package nz.h4t.border.rules;
+
+import nz.h4t.border.exceptions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleSetTest {
+    private static final String RULES = String.join("\n",
+            "# Customer limits",
+            "name      notEmpty                           \"Name is required\"",
+            "name      maxLength    5                     \"Name is too long\"",
+            "status    values       ACTIVE,SUSPENDED      \"Unknown status\"",
+            "code      pattern      \"[A-Z]{3}-[0-9]{4}\"   \"Invalid \\\"code\\\"\"",
+            "quantity  range        1 1000                \"Quantity out of range\"",
+            "start     dateBetween  2020-01-01 *          \"Start date out of range\"",
+            "");
+
+    @Test
+    public void checks() throws IOException {
+        RuleSet rules = RuleSet.parse("test.rules", new StringReader(RULES));
+        assertEquals(6, rules.size());
+        rules.check("name", "Joe");
+        rules.check("unknown", null);
+        assertFails(BorderTooLongException.class, "Name is too long", () -> rules.check("name", "Joseph"));
+        assertFails(BorderIsEmptyException.class, "Name is required", () -> rules.check("name", ""));
+        assertFails(BorderNoMatchException.class, "Unknown status", () -> rules.check("status", "CLOSED"));
+        assertFails(BorderPatternException.class, "Invalid \"code\"", () -> rules.check("code", "AB-1234"));
+        rules.check("quantity", 1000);
+        assertFails(BorderCustomException.class, "Quantity out of range", () -> rules.check("quantity", 1001L));
+        assertFails(BorderCustomException.class, "Quantity out of range", () -> rules.check("quantity", "12"));
+        rules.check("start", LocalDate.of(2030, 1, 1));
+        assertFails(BorderInvalidDateException.class, "Start date out of range",
+                () -> rules.check("start", LocalDate.of(2019, 12, 31)));
+    }
+
+    @Test
+    public void validate() throws IOException {
+        RuleSet rules = RuleSet.parse("test.rules", new StringReader(RULES));
+        Map<String, Object> values = new HashMap<>();
+        values.put("name", "Joe");
+        values.put("status", "ACTIVE");
+        values.put("code", "ABC-1234");
+        values.put("quantity", 5);
+        values.put("start", LocalDate.of(2021, 3, 1));
+        rules.validate(values);
+        values.remove("status");
+        assertFails(BorderIsNullException.class, "Unknown status", () -> rules.validate(values));
+    }
+
+    @Test
+    public void invalidRules() {
+        assertInvalid("name maxLength \"Too long\"", "test.rules:1: maxLength takes 1 argument");
+        assertInvalid("\nname maxLength x \"Too long\"", "test.rules:2: Not a whole number: x");
+        assertInvalid("name between 1 2 \"Bad\"", "test.rules:1: Unknown check: between");
+        assertInvalid("name notEmpty Required", "test.rules:1: The message must be quoted");
+        assertInvalid("code pattern \"[A-Z\" \"Bad\"", "test.rules:1: Invalid pattern: Unclosed character class");
+    }
+
+    @Test
+    public void reload() throws Exception {
+        Path dir = Files.createTempDirectory("rules");
+        Path file = dir.resolve("limits.rules");
+        Files.write(file, "name maxLength 3 \"Too long\"\n".getBytes());
+        AtomicReference<IOException> error = new AtomicReference<>();
+        try (RuleSetWatcher watcher = new RuleSetWatcher(file, ex -> {
+            error.set(ex);
+            throw new IllegalStateException("Handler failed");
+        })) {
+            RuleSet first = watcher.get();
+            assertFails(BorderTooLongException.class, "Too long", () -> watcher.check("name", "Joseph"));
+
+            Files.write(file, "name maxLength 10 \"Too long\"\n".getBytes());
+            waitFor(() -> watcher.get() != first);
+            watcher.check("name", "Joseph");
+
+            // A broken file keeps the last good rules
+            Files.write(file, "name maxLength ten \"Too long\"\n".getBytes());
+            waitFor(() -> error.get() != null);
+            watcher.check("name", "Joseph");
+            assertTrue(error.get().getMessage().startsWith("limits.rules:1: "));
+
+            // The handler failing does not stop the reloading
+            Files.write(file, "name maxLength 4 \"Too long\"\n".getBytes());
+            waitFor(() -> {
+                try {
+                    watcher.check("name", "Joseph");
+                    return false;
+                } catch (BorderTooLongException ex) {
+                    return true;
+                }
+            });
+
+            // A file written in two steps is loaded once it stops changing
+            error.set(null);
+            RuleSet before = watcher.get();
+            try (OutputStream out = Files.newOutputStream(file)) {
+                out.write("name maxLength".getBytes());
+                out.flush();
+                Thread.sleep(10);
+                out.write(" 20 \"Too long\"\n".getBytes());
+            }
+            waitFor(() -> watcher.get() != before);
+            watcher.check("name", "Joseph Bloggs");
+            assertNull(error.get());
+
+            // Replacing the file atomically, as writers should
+            Path tmp = dir.resolve("limits.rules.tmp");
+            Files.write(tmp, "name maxLength 2 \"Too long\"\n".getBytes());
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+            waitFor(() -> {
+                try {
+                    watcher.check("name", "Joe");
+                    return false;
+                } catch (BorderTooLongException ex) {
+                    return true;
+                }
+            });
+            assertNull(error.get());
+        } finally {
+            Files.delete(file);
+            Files.delete(dir);
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for reload");
+            Thread.sleep(20);
+        }
+    }
+
+    private static void assertInvalid(String rules, String message) {
+        try {
+            RuleSet.parse("test.rules", new StringReader(rules));
+            fail();
+        } catch (IllegalArgumentException | IOException ex) {
+            assertEquals(message, ex.getMessage());
+        }
+    }
+
+    private static void assertFails(Class<? extends BorderException> type, String message, Runnable check) {
+        try {
+            check.run();
+            fail();
+        } catch (BorderException ex) {
+            assertEquals(type, ex.getClass());
+            assertEquals(message, ex.getMessage());
+            assertTrue(ex.getCode().matches("^RuleSetTest[:][0-9]+$"), ex.getCode());
+        }
+    }
+}